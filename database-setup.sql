@@ -28,6 +28,52 @@ CREATE TABLE IF NOT EXISTS clientes (
 CREATE INDEX IF NOT EXISTS idx_clientes_email ON clientes(email);
 CREATE INDEX IF NOT EXISTS idx_clientes_nome ON clientes(nome);
 
+-- Change feed (/changes): read in (updated_at, id) order; keep updated_at current on every UPDATE
+CREATE INDEX IF NOT EXISTS idx_clientes_updated_at_id ON clientes(updated_at, id);
+
+-- Search (/search): exact nome, and case-insensitive prefixes with text_pattern_ops,
+-- which serves prefix comparisons in any collation
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_prefix ON clientes(lower(nome) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_clientes_email_prefix ON clientes(lower(email) text_pattern_ops);
+
+-- Contains search (q parameter, app.clientes.search.contains-enabled=true): requires pg_trgm
+-- CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- CREATE INDEX IF NOT EXISTS idx_clientes_nome_trgm ON clientes USING gin (nome gin_trgm_ops);
+-- CREATE INDEX IF NOT EXISTS idx_clientes_email_trgm ON clientes USING gin (email gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION clientes_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_touch_updated_at ON clientes;
+CREATE TRIGGER trg_clientes_touch_updated_at
+    BEFORE UPDATE ON clientes
+    FOR EACH ROW EXECUTE FUNCTION clientes_touch_updated_at();
+
+-- Table version for list ETags (GET /api/clientes): a counter bumped by every statement that
+-- changes clientes, split over 16 rows so concurrent writers do not wait for each other;
+-- the version is the sum of the rows
+CREATE TABLE IF NOT EXISTS clientes_version (
+    slot SMALLINT PRIMARY KEY,
+    changes BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO clientes_version (slot) SELECT generate_series(0, 15) ON CONFLICT (slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION clientes_bump_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE clientes_version SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_bump_version ON clientes;
+CREATE TRIGGER trg_clientes_bump_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON clientes
+    FOR EACH STATEMENT EXECUTE FUNCTION clientes_bump_version();
+
 -- =====================================================
 -- Insert Sample Data
 -- =====================================================
@@ -41,6 +41,53 @@ CREATE INDEX IF NOT EXISTS idx_clientes_email ON clientes(email);
 CREATE INDEX IF NOT EXISTS idx_clientes_nome ON clientes(nome);
 CREATE INDEX IF NOT EXISTS idx_clientes_created_at ON clientes(created_at);
 
+-- Feed de alterações (/changes): leitura por (updated_at, id) e updated_at mantido em todo UPDATE
+CREATE INDEX IF NOT EXISTS idx_clientes_updated_at_id ON clientes(updated_at, id);
+
+-- Busca (/search): nome exato, e prefixos sem distinção de maiúsculas com text_pattern_ops,
+-- que atende as comparações por prefixo em qualquer collation
+CREATE INDEX IF NOT EXISTS idx_clientes_nome ON clientes(nome);
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_prefix ON clientes(lower(nome) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_clientes_email_prefix ON clientes(lower(email) text_pattern_ops);
+
+-- Busca por trecho (parâmetro q, app.clientes.search.contains-enabled=true): requer pg_trgm
+-- CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- CREATE INDEX IF NOT EXISTS idx_clientes_nome_trgm ON clientes USING gin (nome gin_trgm_ops);
+-- CREATE INDEX IF NOT EXISTS idx_clientes_email_trgm ON clientes USING gin (email gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION clientes_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_touch_updated_at ON clientes;
+CREATE TRIGGER trg_clientes_touch_updated_at
+    BEFORE UPDATE ON clientes
+    FOR EACH ROW EXECUTE FUNCTION clientes_touch_updated_at();
+
+-- Versão da tabela para os ETags de listagem (GET /api/clientes): contador incrementado por
+-- todo comando que altera clientes, dividido em 16 linhas para que escritores concorrentes
+-- não esperem uns pelos outros; a versão é a soma das linhas
+CREATE TABLE IF NOT EXISTS clientes_version (
+    slot SMALLINT PRIMARY KEY,
+    changes BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO clientes_version (slot) SELECT generate_series(0, 15) ON CONFLICT (slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION clientes_bump_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE clientes_version SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_bump_version ON clientes;
+CREATE TRIGGER trg_clientes_bump_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON clientes
+    FOR EACH STATEMENT EXECUTE FUNCTION clientes_bump_version();
+
 -- =====================================================
 -- Inserir dados de exemplo
 -- =====================================================
@@ -89,6 +136,53 @@ CREATE TABLE IF NOT EXISTS clientes (
 
 CREATE INDEX IF NOT EXISTS idx_clientes_email ON clientes(email);
 
+-- Feed de alterações (/changes): leitura por (updated_at, id) e updated_at mantido em todo UPDATE
+CREATE INDEX IF NOT EXISTS idx_clientes_updated_at_id ON clientes(updated_at, id);
+
+-- Busca (/search): nome exato, e prefixos sem distinção de maiúsculas com text_pattern_ops,
+-- que atende as comparações por prefixo em qualquer collation
+CREATE INDEX IF NOT EXISTS idx_clientes_nome ON clientes(nome);
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_prefix ON clientes(lower(nome) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_clientes_email_prefix ON clientes(lower(email) text_pattern_ops);
+
+-- Busca por trecho (parâmetro q, app.clientes.search.contains-enabled=true): requer pg_trgm
+-- CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- CREATE INDEX IF NOT EXISTS idx_clientes_nome_trgm ON clientes USING gin (nome gin_trgm_ops);
+-- CREATE INDEX IF NOT EXISTS idx_clientes_email_trgm ON clientes USING gin (email gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION clientes_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_touch_updated_at ON clientes;
+CREATE TRIGGER trg_clientes_touch_updated_at
+    BEFORE UPDATE ON clientes
+    FOR EACH ROW EXECUTE FUNCTION clientes_touch_updated_at();
+
+-- Versão da tabela para os ETags de listagem (GET /api/clientes): contador incrementado por
+-- todo comando que altera clientes, dividido em 16 linhas para que escritores concorrentes
+-- não esperem uns pelos outros; a versão é a soma das linhas
+CREATE TABLE IF NOT EXISTS clientes_version (
+    slot SMALLINT PRIMARY KEY,
+    changes BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO clientes_version (slot) SELECT generate_series(0, 15) ON CONFLICT (slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION clientes_bump_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE clientes_version SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_bump_version ON clientes;
+CREATE TRIGGER trg_clientes_bump_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON clientes
+    FOR EACH STATEMENT EXECUTE FUNCTION clientes_bump_version();
+
 INSERT INTO clientes (nome, email) VALUES 
 ('João Silva Tenant 001', 'joao.tenant001@example.com'),
 ('Maria Santos Tenant 001', 'maria.tenant001@example.com'),
@@ -118,6 +212,53 @@ CREATE TABLE IF NOT EXISTS clientes (
 
 CREATE INDEX IF NOT EXISTS idx_clientes_email ON clientes(email);
 
+-- Feed de alterações (/changes): leitura por (updated_at, id) e updated_at mantido em todo UPDATE
+CREATE INDEX IF NOT EXISTS idx_clientes_updated_at_id ON clientes(updated_at, id);
+
+-- Busca (/search): nome exato, e prefixos sem distinção de maiúsculas com text_pattern_ops,
+-- que atende as comparações por prefixo em qualquer collation
+CREATE INDEX IF NOT EXISTS idx_clientes_nome ON clientes(nome);
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_prefix ON clientes(lower(nome) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_clientes_email_prefix ON clientes(lower(email) text_pattern_ops);
+
+-- Busca por trecho (parâmetro q, app.clientes.search.contains-enabled=true): requer pg_trgm
+-- CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- CREATE INDEX IF NOT EXISTS idx_clientes_nome_trgm ON clientes USING gin (nome gin_trgm_ops);
+-- CREATE INDEX IF NOT EXISTS idx_clientes_email_trgm ON clientes USING gin (email gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION clientes_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_touch_updated_at ON clientes;
+CREATE TRIGGER trg_clientes_touch_updated_at
+    BEFORE UPDATE ON clientes
+    FOR EACH ROW EXECUTE FUNCTION clientes_touch_updated_at();
+
+-- Versão da tabela para os ETags de listagem (GET /api/clientes): contador incrementado por
+-- todo comando que altera clientes, dividido em 16 linhas para que escritores concorrentes
+-- não esperem uns pelos outros; a versão é a soma das linhas
+CREATE TABLE IF NOT EXISTS clientes_version (
+    slot SMALLINT PRIMARY KEY,
+    changes BIGINT NOT NULL DEFAULT 0
+);
+INSERT INTO clientes_version (slot) SELECT generate_series(0, 15) ON CONFLICT (slot) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION clientes_bump_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE clientes_version SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_clientes_bump_version ON clientes;
+CREATE TRIGGER trg_clientes_bump_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON clientes
+    FOR EACH STATEMENT EXECUTE FUNCTION clientes_bump_version();
+
 INSERT INTO clientes (nome, email) VALUES 
 ('Alice Costa Tenant 002', 'alice.tenant002@example.com'),
 ('Bob Martinez Tenant 002', 'bob.tenant002@example.com'),
@@ -0,0 +1,81 @@
+#!/bin/bash
+# =====================================================
+# Comparação de carga: platform threads x virtual threads
+# =====================================================
+# Sobe a aplicação duas vezes (modo padrão e com virtual threads),
+# dispara a mesma carga com `hey` contra os endpoints de clientes
+# e imprime throughput (req/s) e latência p99 de cada modo.
+#
+# Pré-requisitos:
+#   - PostgreSQL rodando com os bancos dos tenants (docker-compose up -d)
+#   - Java 21 no PATH
+#   - hey (https://github.com/rakyll/hey)
+#
+# Uso: ./load-compare.sh [duração] [concorrência]
+#   ./load-compare.sh 30s 200
+
+set -e
+
+DURATION="${1:-30s}"
+CONCURRENCY="${2:-200}"
+PORT=8080
+JAR="target/multitenant-app-0.1.0.jar"
+TENANT_ID="tenant-001"
+RESULTS_DIR="target/load-compare"
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+if ! command -v hey > /dev/null; then
+    echo -e "${RED}✗ hey não encontrado no PATH${NC}"
+    exit 1
+fi
+
+echo -e "${BLUE}Compilando com -Pjava21...${NC}"
+mvn -B -q clean package -Pjava21 -DskipTests
+mkdir -p "$RESULTS_DIR"
+
+run_mode() {
+    local mode="$1"
+    local virtual="$2"
+    local log="$RESULTS_DIR/app-$mode.log"
+
+    echo -e "${BLUE}[$mode] Iniciando aplicação (virtual threads: $virtual)${NC}"
+    java -jar "$JAR" --server.port=$PORT --app.virtual-threads.enabled="$virtual" > "$log" 2>&1 &
+    local pid=$!
+
+    for _ in $(seq 1 60); do
+        if curl -s "http://localhost:$PORT/api/clientes/health" > /dev/null; then
+            break
+        fi
+        sleep 1
+    done
+
+    # Aquecimento
+    hey -z 5s -c 20 "http://localhost:$PORT/api/clientes/$TENANT_ID/1" > /dev/null
+
+    for endpoint in "$TENANT_ID/1" "$TENANT_ID?limit=100"; do
+        local name
+        name=$(echo "$endpoint" | tr '/?=' '___')
+        local out="$RESULTS_DIR/$mode-$name.txt"
+        hey -z "$DURATION" -c "$CONCURRENCY" "http://localhost:$PORT/api/clientes/$endpoint" > "$out"
+        local rps
+        local p99
+        rps=$(grep "Requests/sec" "$out" | awk '{print $2}')
+        p99=$(grep "99% in" "$out" | awk '{print $3}')
+        printf "%-10s %-28s %12s req/s   p99 %ss\n" "$mode" "$endpoint" "$rps" "$p99"
+    done
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+echo ""
+echo "Duração: $DURATION, concorrência: $CONCURRENCY"
+echo "=================================================="
+run_mode "platform" "false"
+run_mode "virtual" "true"
+echo "=================================================="
+echo -e "${GREEN}✓ Resultados completos em $RESULTS_DIR${NC}"
@@ -0,0 +1,109 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serializing the JSON envelopes returned by {@link ClienteController}.
+ *
+ * The {@code *Map} benchmarks build the envelopes as the controller used to, as
+ * {@code HashMap}s serialized through reflection; the {@code *Record} benchmarks use the
+ * typed envelopes and {@link ClienteJsonSerializer} the controller uses now. Both are written
+ * with a mapper configured like Spring Boot's to a discarding stream. Run with
+ * {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private static final String TENANT_ID = "bench-001";
+
+    @Param({"100"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper recordMapper;
+    private List<Cliente> clientes;
+    private Cliente cliente;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        recordMapper = Jackson2ObjectMapperBuilder.json()
+                .serializerByType(Cliente.class, new ClienteJsonSerializer())
+                .build();
+        clientes = new ArrayList<>(rows);
+        for (long id = 1; id <= rows; id++) {
+            clientes.add(new Cliente(id, "Cliente " + id, "cliente" + id + "@example.com"));
+        }
+        cliente = clientes.get(0);
+    }
+
+    @Benchmark
+    public void listMap() throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("tenantId", TENANT_ID);
+        response.put("total", clientes.size());
+        response.put("data", clientes);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void singleMap() throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("tenantId", TENANT_ID);
+        response.put("data", cliente);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public void errorMap() throws IOException {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", "Internal server error");
+        errorResponse.put("message", "An error occurred while processing your request");
+        objectMapper.writeValue(OutputStream.nullOutputStream(), errorResponse);
+    }
+
+    @Benchmark
+    public void listRecord() throws IOException {
+        recordMapper.writeValue(OutputStream.nullOutputStream(), ClienteListResponse.of(TENANT_ID, clientes));
+    }
+
+    @Benchmark
+    public void singleRecord() throws IOException {
+        recordMapper.writeValue(OutputStream.nullOutputStream(), ClienteResponse.of(TENANT_ID, cliente));
+    }
+
+    @Benchmark
+    public void errorRecord() throws IOException {
+        recordMapper.writeValue(OutputStream.nullOutputStream(), ErrorResponse.INTERNAL_ERROR);
+    }
+}
@@ -0,0 +1,94 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.entity.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link ClienteRepository} calls against an in-process H2 database,
+ * through the per-tenant template registry and datasource wrappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10000"})
+    public int rows;
+
+    private H2TenantFixture fixture;
+    private ClienteRepository repository;
+    private String tenantId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new H2TenantFixture(1, rows);
+        repository = fixture.clienteRepository();
+        tenantId = fixture.tenantIds().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Cliente findById() {
+        return repository.findByIdAndTenant(tenantId, randomId());
+    }
+
+    @Benchmark
+    public List<Cliente> findPage() {
+        return repository.findPageByTenant(tenantId, ThreadLocalRandom.current().nextLong(rows - PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Cliente> findByIds() {
+        List<Long> ids = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.add(randomId());
+        }
+        return repository.findByIdsAndTenant(tenantId, ids);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long streamAll(Blackhole blackhole) {
+        return repository.streamAllByTenant(tenantId, blackhole::consume);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public List<Cliente> findAll() {
+        return repository.findAllByTenant(tenantId);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+}
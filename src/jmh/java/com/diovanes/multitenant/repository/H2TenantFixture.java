@@ -0,0 +1,183 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.datasource.multitenant.cache.DataSourceCacheConfig;
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Application stack wired by hand over in-process H2 databases, one per tenant.
+ *
+ * The library {@link DataSourceManager} is replaced by a subclass that serves the H2 pools,
+ * so everything from {@link MultitenantDataSourceManager} upwards runs unchanged while the
+ * benchmarks need no PostgreSQL server.
+ */
+public final class H2TenantFixture implements AutoCloseable {
+
+    private static final String TENANTS_FILE = "bench-tenants.yml";
+    private static final int POOL_SIZE = 8;
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE clientes ("
+            + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "nome VARCHAR(255) NOT NULL, "
+            + "email VARCHAR(255) NOT NULL UNIQUE, "
+            + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+            + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String INSERT_SQL = "INSERT INTO clientes (nome, email) VALUES (?, ?)";
+
+    private final List<String> tenantIds = new ArrayList<>();
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final ClienteRepository clienteRepository;
+
+    /**
+     * Create the tenant databases, fill them and wire the stack.
+     *
+     * @param tenants       number of tenants
+     * @param rowsPerTenant number of clientes inserted in each tenant
+     * @throws Exception if a database cannot be created
+     */
+    public H2TenantFixture(int tenants, int rowsPerTenant) throws Exception {
+        Map<String, TenantConfig> configs = new LinkedHashMap<>();
+        for (int i = 1; i <= tenants; i++) {
+            String tenantId = String.format("bench-%03d", i);
+            tenantIds.add(tenantId);
+            pools.put(tenantId, createDatabase(tenantId, rowsPerTenant));
+            configs.put(tenantId, new TenantConfig(tenantId, "localhost", 5432, "sa", "", tenantId, "public",
+                    POOL_SIZE, 30000, Map.of()));
+        }
+
+        TenantConfigRegistry registry = new TenantConfigRegistry(configs);
+        DataSourceManager dataSourceManager = new H2DataSourceManager(pools);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, registry, List.of(), 100);
+
+        SharedTenantPools sharedPools = new SharedTenantPools(registry, meterRegistry, false, 20, 2);
+        TenantPoolRouter poolRouter = new TenantPoolRouter(dataSourceManager, sharedPools, 30000);
+        TenantHealthMonitor healthMonitor = new TenantHealthMonitor(
+                registry, false, 30000, 500, 2, 5, 1);
+        TenantCircuitBreakerRegistry circuitBreakers = new TenantCircuitBreakerRegistry(
+                meterRegistry, tenantMetrics, true, 3, 2000, 30000);
+        TenantConcurrencyLimiter concurrencyLimiter = new TenantConcurrencyLimiter(registry, false);
+        GlobalConnectionBudget connectionBudget = new GlobalConnectionBudget(registry, meterRegistry, false, 200, 1);
+        TenantReplicaPools replicaPools = new TenantReplicaPools(registry, tenantMetrics, meterRegistry,
+                false, 5000, 5000, 2000);
+
+        multitenantDataSourceManager = new MultitenantDataSourceManager(poolRouter, registry, healthMonitor, circuitBreakers,
+                concurrencyLimiter, connectionBudget, tenantMetrics, sharedPools, replicaPools);
+        TenantJdbcTemplateRegistry templates = new TenantJdbcTemplateRegistry(multitenantDataSourceManager, 1);
+        clienteRepository = new ClienteRepository(templates, tenantMetrics, 500, 1000);
+    }
+
+    private static HikariDataSource createDatabase(String tenantId, int rows) throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + tenantId + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setPoolName("bench-" + tenantId);
+        HikariDataSource pool = new HikariDataSource(config);
+
+        try (Connection connection = pool.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS clientes");
+                statement.execute(CREATE_TABLE_SQL);
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                for (int i = 1; i <= rows; i++) {
+                    insert.setString(1, "Cliente " + i + " " + tenantId);
+                    insert.setString(2, "cliente" + i + "@" + tenantId + ".example.com");
+                    insert.addBatch();
+                    if (i % 1000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the tenant identifiers, in creation order.
+     *
+     * @return the tenantIds
+     */
+    public List<String> tenantIds() {
+        return tenantIds;
+    }
+
+    /**
+     * Gets the wired MultitenantDataSourceManager.
+     *
+     * @return the manager
+     */
+    public MultitenantDataSourceManager multitenantDataSourceManager() {
+        return multitenantDataSourceManager;
+    }
+
+    /**
+     * Gets the wired ClienteRepository.
+     *
+     * @return the repository
+     */
+    public ClienteRepository clienteRepository() {
+        return clienteRepository;
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Library DataSourceManager that serves pre-built pools instead of creating them.
+     */
+    private static final class H2DataSourceManager extends DataSourceManager {
+
+        private final Map<String, HikariDataSource> pools;
+
+        H2DataSourceManager(Map<String, HikariDataSource> pools) throws Exception {
+            super(TENANTS_FILE, true, DataSourceCacheConfig.defaults());
+            this.pools = pools;
+        }
+
+        @Override
+        public HikariDataSource getDataSource(String tenantId) throws SQLException {
+            HikariDataSource pool = pools.get(tenantId);
+            if (pool == null) {
+                throw new SQLException("Unknown tenant: " + tenantId);
+            }
+            return pool;
+        }
+
+        @Override
+        public Connection getConnection(String tenantId) throws SQLException {
+            return getDataSource(tenantId).getConnection();
+        }
+
+        @Override
+        public void invalidateDataSourceCache(String tenantId) {
+            // Pools are owned by the fixture
+        }
+
+        @Override
+        public void closeAll() {
+            // Pools are owned by the fixture
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.diovanes.multitenant.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a tenant's DataSource through {@link MultitenantDataSourceManager#getDataSource}.
+ *
+ * Covers argument validation, the circuit breaker pre-check and the wrapper lookup;
+ * the library's own pool lookup is replaced by a map lookup in {@link H2TenantFixture}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TenantResolutionBenchmark {
+
+    @Param({"1", "16"})
+    public int tenants;
+
+    private H2TenantFixture fixture;
+    private String[] tenantIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new H2TenantFixture(tenants, 1);
+        tenantIds = fixture.tenantIds().toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public DataSource getDataSource() {
+        String tenantId = tenantIds[next];
+        next = (next + 1) % tenantIds.length;
+        return fixture.multitenantDataSourceManager().getDataSource(tenantId);
+    }
+}
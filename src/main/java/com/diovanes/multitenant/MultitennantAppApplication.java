@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.ConfigurableApplicationContext;
 
 /**
@@ -40,6 +41,7 @@ import org.springframework.context.ConfigurableApplicationContext;
  * Each tenant can have its own database host, port, credentials, and connection pool size.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class MultitennantAppApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(MultitennantAppApplication.class);
@@ -0,0 +1,110 @@
+package com.diovanes.multitenant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of the Cliente entity cache, bound from {@code app.cache.clientes.*}.
+ *
+ * The top-level size and TTL apply to every tenant; entries under {@code tenants}
+ * override them for individual tenants.
+ */
+@ConfigurationProperties(prefix = "app.cache.clientes")
+public class ClienteCacheProperties {
+
+    private boolean enabled = false;
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    private Map<String, TenantLimits> tenants = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public Map<String, TenantLimits> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, TenantLimits> tenants) {
+        this.tenants = tenants;
+    }
+
+    /**
+     * Maximum number of entries cached for a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the tenant override, or the global default
+     */
+    public long maxSizeFor(String tenantId) {
+        TenantLimits limits = tenants.get(tenantId);
+        return limits != null && limits.getMaxSize() != null ? limits.getMaxSize() : maxSize;
+    }
+
+    /**
+     * Time to live of found entries for a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the tenant override, or the global default
+     */
+    public Duration ttlFor(String tenantId) {
+        TenantLimits limits = tenants.get(tenantId);
+        return limits != null && limits.getTtl() != null ? limits.getTtl() : ttl;
+    }
+
+    /**
+     * Per-tenant overrides. Unset fields fall back to the global values.
+     */
+    public static class TenantLimits {
+
+        private Long maxSize;
+        private Duration ttl;
+
+        public Long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.diovanes.datasource.multitenant.DataSourceManager;
 import com.diovanes.datasource.multitenant.cache.DataSourceCacheConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,25 +19,64 @@ public class DataSourceManagerConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(DataSourceManagerConfig.class);
 
+    /**
+     * Where tenants.yml is read from: {@code app.tenants.location}, by default the
+     * tenants.yml file on the classpath.
+     *
+     * @param location the configured location
+     * @return TenantsLocation instance
+     */
+    @Bean
+    public TenantsLocation tenantsLocation(@Value("${app.tenants.location:classpath:tenants.yml}") String location) {
+        return TenantsLocation.parse(location);
+    }
+
     /**
      * Creates and initializes the DataSourceManager bean.
      *
-     * Uses the tenants.yml file from classpath with default cache configuration
-     * (2 hours TTL, 100 max size).
+     * Uses the tenants.yml file at {@code app.tenants.location} with default cache
+     * configuration (2 hours TTL, 100 max size).
      *
+     * @param tenantsLocation where tenants.yml is read from
      * @return DataSourceManager instance
      * @throws Exception if the configuration file cannot be loaded
      */
     @Bean
-    public DataSourceManager dataSourceManager() throws Exception {
-        logger.info("Initializing DataSourceManager with tenants.yml from classpath");
+    public DataSourceManager dataSourceManager(TenantsLocation tenantsLocation) throws Exception {
+        logger.info("Initializing DataSourceManager with tenants.yml from {}", tenantsLocation);
 
-        // Load tenants configuration from classpath
-        var cacheConfig = DataSourceCacheConfig.defaults();
-        var manager = new DataSourceManager("tenants.yml", true, cacheConfig);
+        var manager = newDataSourceManager(tenantsLocation);
 
         logger.info("DataSourceManager initialized successfully");
         return manager;
     }
+
+    /**
+     * Creates the application's read-only view of tenants.yml.
+     *
+     * Used by components that need to enumerate tenants or read per-tenant settings.
+     *
+     * @param tenantsLocation where tenants.yml is read from
+     * @return TenantConfigRegistry instance
+     * @throws Exception if the configuration file cannot be loaded
+     */
+    @Bean
+    public TenantConfigRegistry tenantConfigRegistry(TenantsLocation tenantsLocation) throws Exception {
+        return TenantConfigRegistry.fromLocation(tenantsLocation);
+    }
+
+    /**
+     * Build a library DataSourceManager from the current content of tenants.yml.
+     *
+     * Pools are created lazily, on the first request for each tenant.
+     *
+     * @param tenantsLocation where tenants.yml is read from
+     * @return a new DataSourceManager
+     * @throws Exception if the configuration file cannot be loaded
+     */
+    public static DataSourceManager newDataSourceManager(TenantsLocation tenantsLocation) throws Exception {
+        var cacheConfig = DataSourceCacheConfig.defaults();
+        return new DataSourceManager(tenantsLocation.path(), tenantsLocation.classpath(), cacheConfig);
+    }
 }
 
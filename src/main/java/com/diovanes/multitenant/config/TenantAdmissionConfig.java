@@ -0,0 +1,34 @@
+package com.diovanes.multitenant.config;
+
+import com.diovanes.multitenant.controller.TenantAdmissionInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers per-tenant admission control on the cliente API.
+ *
+ * Enabled unless {@code app.admission.enabled=false}; tenants without limits in
+ * tenants.yml and without defaults are not affected.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class TenantAdmissionConfig implements WebMvcConfigurer {
+
+    private final TenantAdmissionInterceptor tenantAdmissionInterceptor;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantAdmissionInterceptor the admission interceptor
+     */
+    public TenantAdmissionConfig(TenantAdmissionInterceptor tenantAdmissionInterceptor) {
+        this.tenantAdmissionInterceptor = tenantAdmissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tenantAdmissionInterceptor).addPathPatterns("/api/clientes/**");
+    }
+}
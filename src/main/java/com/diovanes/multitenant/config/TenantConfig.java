@@ -0,0 +1,146 @@
+package com.diovanes.multitenant.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Connection settings of a single tenant, as declared in tenants.yml.
+ *
+ * The multitenant-datasource-hikari library reads the same file to build its pools;
+ * this view exists so the application can enumerate tenants and read optional,
+ * application-level keys (for example {@code healthCheckIntervalMs}) that the
+ * library does not know about.
+ *
+ * @param tenantId            the tenant identifier
+ * @param host                database host
+ * @param port                database port
+ * @param user                database user
+ * @param password            database password
+ * @param database            database name
+ * @param schema              database schema
+ * @param poolSize            maximum pool size
+ * @param connectionTimeoutMs pool connection timeout in milliseconds
+ * @param properties          all keys of the tenant entry, including optional ones
+ */
+public record TenantConfig(
+        String tenantId,
+        String host,
+        int port,
+        String user,
+        String password,
+        String database,
+        String schema,
+        int poolSize,
+        long connectionTimeoutMs,
+        Map<String, Object> properties) {
+
+    /**
+     * Read an optional numeric key of the tenant entry.
+     *
+     * @param key          the key in tenants.yml
+     * @param defaultValue value returned when the key is absent
+     * @return the configured value, or the default
+     */
+    public long longProperty(String key, long defaultValue) {
+        Object value = properties.get(key);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value != null) {
+            return Long.parseLong(value.toString().trim());
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Read an optional boolean key of the tenant entry.
+     *
+     * @param key          the key in tenants.yml
+     * @param defaultValue value returned when the key is absent
+     * @return the configured value, or the default
+     */
+    public boolean booleanProperty(String key, boolean defaultValue) {
+        Object value = properties.get(key);
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value != null) {
+            return Boolean.parseBoolean(value.toString().trim());
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Read the optional {@code replicas} list of the tenant entry.
+     *
+     * Each element is a map with the keys of a tenant entry ({@code host}, {@code port},
+     * {@code user}, {@code password}, {@code database}, {@code poolSize}); missing keys
+     * default to the primary's values.
+     *
+     * @return the tenant's read replicas, empty if none are declared
+     * @throws IllegalArgumentException if the list is malformed
+     */
+    @SuppressWarnings("unchecked")
+    public List<TenantReplicaConfig> replicas() {
+        Object value = properties.get("replicas");
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List<?> entries)) {
+            throw new IllegalArgumentException("replicas of tenant " + tenantId + " must be a list");
+        }
+
+        List<TenantReplicaConfig> replicas = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            if (!(entry instanceof Map)) {
+                throw new IllegalArgumentException("Each replica of tenant " + tenantId + " must be a map");
+            }
+            Map<String, Object> values = (Map<String, Object>) entry;
+            replicas.add(new TenantReplicaConfig(
+                    values.get("host") != null ? values.get("host").toString() : host,
+                    values.get("port") != null ? Integer.parseInt(values.get("port").toString().trim()) : port,
+                    values.get("user") != null ? values.get("user").toString() : user,
+                    values.get("password") != null ? values.get("password").toString() : password,
+                    values.get("database") != null ? values.get("database").toString() : database,
+                    values.get("poolSize") != null
+                            ? Integer.parseInt(values.get("poolSize").toString().trim())
+                            : poolSize));
+        }
+        return replicas;
+    }
+
+    /**
+     * Whether another configuration of the same tenant would build an identical pool.
+     *
+     * Compares the connection and pool keys read by the library; the optional,
+     * application-level keys are ignored.
+     *
+     * @param other the other configuration
+     * @return true if both describe the same pool
+     */
+    public boolean hasSamePoolSettings(TenantConfig other) {
+        return other != null
+                && Objects.equals(host, other.host)
+                && port == other.port
+                && Objects.equals(user, other.user)
+                && Objects.equals(password, other.password)
+                && Objects.equals(database, other.database)
+                && Objects.equals(schema, other.schema)
+                && poolSize == other.poolSize
+                && connectionTimeoutMs == other.connectionTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "TenantConfig{" +
+                "tenantId='" + tenantId + '\'' +
+                ", host='" + host + '\'' +
+                ", port=" + port +
+                ", database='" + database + '\'' +
+                ", schema='" + schema + '\'' +
+                ", poolSize=" + poolSize +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.diovanes.multitenant.config;
+
+import java.util.Set;
+
+/**
+ * Difference between two versions of tenants.yml.
+ *
+ * @param added   tenants only present in the new version
+ * @param removed tenants only present in the old version
+ * @param changed tenants whose connection or pool settings differ, and need a new pool
+ * @param updated tenants whose pool settings are unchanged but whose optional keys differ
+ */
+public record TenantConfigChanges(
+        Set<String> added,
+        Set<String> removed,
+        Set<String> changed,
+        Set<String> updated) {
+
+    /**
+     * Whether the two versions declare exactly the same tenants and settings.
+     *
+     * @return true if nothing changed
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty() && updated.isEmpty();
+    }
+
+    /**
+     * Whether the library generation built from the old version can no longer be the default
+     * one: tenants need a pool built from the new version, or tenants it declares are gone.
+     *
+     * @return true if tenants were added, removed or had their pool settings changed
+     */
+    public boolean needsNewGeneration() {
+        return !added.isEmpty() || !removed.isEmpty() || !changed.isEmpty();
+    }
+}
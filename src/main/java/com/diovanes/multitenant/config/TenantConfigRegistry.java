@@ -0,0 +1,210 @@
+package com.diovanes.multitenant.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * View of the tenants declared in tenants.yml.
+ *
+ * Tenants keep the order in which they appear in the file. The view is replaced as a
+ * whole when tenants.yml is reloaded; readers always see one consistent version.
+ */
+public class TenantConfigRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantConfigRegistry.class);
+
+    private volatile Map<String, TenantConfig> tenants;
+
+    /**
+     * Constructor.
+     *
+     * @param tenants tenant configurations keyed by tenantId
+     */
+    public TenantConfigRegistry(Map<String, TenantConfig> tenants) {
+        this.tenants = Collections.unmodifiableMap(new LinkedHashMap<>(tenants));
+    }
+
+    /**
+     * Load the tenant configurations from a location: either {@code classpath:<resource>}
+     * or a file system path.
+     *
+     * @param location the location of the tenants file
+     * @return the registry
+     * @throws IOException if the file cannot be found or read
+     */
+    public static TenantConfigRegistry fromLocation(TenantsLocation location) throws IOException {
+        if (location.classpath()) {
+            return fromClasspath(location.path());
+        }
+        try (InputStream in = Files.newInputStream(Path.of(location.path()))) {
+            return parse(in);
+        }
+    }
+
+    /**
+     * Load the tenant configurations from a classpath resource.
+     *
+     * @param resource the classpath location of the tenants file
+     * @return the registry
+     * @throws IOException if the resource cannot be found or read
+     */
+    public static TenantConfigRegistry fromClasspath(String resource) throws IOException {
+        try (InputStream in = TenantConfigRegistry.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Tenants file not found on classpath: " + resource);
+            }
+            return parse(in);
+        }
+    }
+
+    /**
+     * Parse tenant configurations from a YAML stream with a top-level {@code tenants} map.
+     *
+     * @param in the YAML content
+     * @return the registry
+     */
+    @SuppressWarnings("unchecked")
+    public static TenantConfigRegistry parse(InputStream in) {
+        Map<String, Object> root = new Yaml().load(in);
+        Object section = root == null ? null : root.get("tenants");
+        if (!(section instanceof Map)) {
+            throw new IllegalArgumentException("tenants.yml must contain a 'tenants' map");
+        }
+
+        Map<String, TenantConfig> tenants = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) section).entrySet()) {
+            String tenantId = entry.getKey();
+            Map<String, Object> values = entry.getValue() instanceof Map
+                    ? (Map<String, Object>) entry.getValue()
+                    : Map.of();
+            tenants.put(tenantId, toTenantConfig(tenantId, values));
+        }
+
+        logger.info("Loaded {} tenant definitions", tenants.size());
+        return new TenantConfigRegistry(tenants);
+    }
+
+    private static TenantConfig toTenantConfig(String tenantId, Map<String, Object> values) {
+        TenantConfig tenant = new TenantConfig(
+                tenantId,
+                stringValue(values, "host", "localhost"),
+                (int) longValue(values, "port", 5432),
+                stringValue(values, "user", null),
+                stringValue(values, "password", null),
+                stringValue(values, "database", null),
+                stringValue(values, "schema", "public"),
+                (int) longValue(values, "poolSize", 10),
+                longValue(values, "connectionTimeoutMs", 30000),
+                Collections.unmodifiableMap(new LinkedHashMap<>(values))
+        );
+        // Reject a malformed replicas list when the file is loaded, not on first use
+        tenant.replicas();
+        return tenant;
+    }
+
+    private static String stringValue(Map<String, Object> values, String key, String defaultValue) {
+        Object value = values.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    private static long longValue(Map<String, Object> values, String key, long defaultValue) {
+        Object value = values.get(key);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+
+    /**
+     * Compare this registry with a newer version of tenants.yml.
+     *
+     * @param next the newer version
+     * @return the tenants added, removed, changed and updated in {@code next}
+     */
+    public TenantConfigChanges diff(TenantConfigRegistry next) {
+        Map<String, TenantConfig> current = tenants;
+        Map<String, TenantConfig> incoming = next.tenants;
+
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> changed = new LinkedHashSet<>();
+        Set<String> updated = new LinkedHashSet<>();
+        for (TenantConfig tenant : incoming.values()) {
+            TenantConfig previous = current.get(tenant.tenantId());
+            if (previous == null) {
+                added.add(tenant.tenantId());
+            } else if (!previous.hasSamePoolSettings(tenant)) {
+                changed.add(tenant.tenantId());
+            } else if (!previous.properties().equals(tenant.properties())) {
+                updated.add(tenant.tenantId());
+            }
+        }
+
+        Set<String> removed = new LinkedHashSet<>(current.keySet());
+        removed.removeAll(incoming.keySet());
+
+        return new TenantConfigChanges(
+                Collections.unmodifiableSet(added),
+                Collections.unmodifiableSet(removed),
+                Collections.unmodifiableSet(changed),
+                Collections.unmodifiableSet(updated));
+    }
+
+    /**
+     * Replace the declared tenants with those of a newer version of tenants.yml.
+     *
+     * @param next the newer version
+     */
+    public void replaceWith(TenantConfigRegistry next) {
+        this.tenants = next.tenants;
+    }
+
+    /**
+     * Get the configuration of a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the configuration, or null if the tenant is not declared
+     */
+    public TenantConfig get(String tenantId) {
+        return tenantId == null ? null : tenants.get(tenantId);
+    }
+
+    /**
+     * Whether a tenant is declared.
+     *
+     * @param tenantId the tenant identifier
+     * @return true if the tenant is declared in tenants.yml
+     */
+    public boolean contains(String tenantId) {
+        return tenantId != null && tenants.containsKey(tenantId);
+    }
+
+    /**
+     * All declared tenant identifiers.
+     *
+     * @return the tenant identifiers, in file order
+     */
+    public Set<String> tenantIds() {
+        return tenants.keySet();
+    }
+
+    /**
+     * All declared tenant configurations.
+     *
+     * @return the configurations, in file order
+     */
+    public Collection<TenantConfig> all() {
+        return tenants.values();
+    }
+}
@@ -0,0 +1,28 @@
+package com.diovanes.multitenant.config;
+
+/**
+ * Connection settings of a read replica of a tenant database, as declared under
+ * {@code replicas} in the tenant's tenants.yml entry.
+ *
+ * Keys left out of a replica entry are taken from the tenant's primary.
+ *
+ * @param host     replica host
+ * @param port     replica port
+ * @param user     database user
+ * @param password database password
+ * @param database database name
+ * @param poolSize maximum size of the replica's pool
+ */
+public record TenantReplicaConfig(
+        String host,
+        int port,
+        String user,
+        String password,
+        String database,
+        int poolSize) {
+
+    @Override
+    public String toString() {
+        return user + "@" + host + ":" + port + "/" + database;
+    }
+}
@@ -0,0 +1,40 @@
+package com.diovanes.multitenant.config;
+
+/**
+ * Where tenants.yml is read from.
+ *
+ * Configured with {@code app.tenants.location} as either {@code classpath:<resource>}
+ * or a file system path. Only a file system location can be watched for changes.
+ *
+ * @param path      the classpath resource or file path
+ * @param classpath whether {@code path} is a classpath resource
+ */
+public record TenantsLocation(String path, boolean classpath) {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    /**
+     * Parse a configured location.
+     *
+     * @param location {@code classpath:<resource>}, {@code file:<path>} or a plain file path
+     * @return the location
+     */
+    public static TenantsLocation parse(String location) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalArgumentException("app.tenants.location cannot be empty");
+        }
+        String trimmed = location.trim();
+        if (trimmed.startsWith(CLASSPATH_PREFIX)) {
+            return new TenantsLocation(trimmed.substring(CLASSPATH_PREFIX.length()), true);
+        }
+        if (trimmed.startsWith("file:")) {
+            return new TenantsLocation(trimmed.substring("file:".length()), false);
+        }
+        return new TenantsLocation(trimmed, false);
+    }
+
+    @Override
+    public String toString() {
+        return classpath ? CLASSPATH_PREFIX + path : path;
+    }
+}
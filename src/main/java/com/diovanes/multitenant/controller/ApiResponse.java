@@ -0,0 +1,16 @@
+package com.diovanes.multitenant.controller;
+
+/**
+ * Body of every cliente endpoint response.
+ *
+ * Implementations are immutable records, serialized in component order.
+ */
+public interface ApiResponse {
+
+    /**
+     * Whether the request succeeded.
+     *
+     * @return true for data responses, false for errors
+     */
+    boolean success();
+}
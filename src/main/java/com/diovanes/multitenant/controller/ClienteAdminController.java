@@ -0,0 +1,165 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.repository.ClienteExporter;
+import com.diovanes.multitenant.service.ClienteExportService;
+import com.diovanes.multitenant.service.ClienteExportSummary;
+import com.diovanes.multitenant.service.ClienteService;
+import com.diovanes.multitenant.service.TenantFanOutSummary;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * REST Controller for cross-tenant cliente queries, meant for administration and reporting.
+ */
+@RestController
+@RequestMapping("/api/admin/clientes")
+public class ClienteAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteAdminController.class);
+
+    private final ClienteService clienteService;
+    private final ClienteExportService clienteExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param clienteService       the cliente service
+     * @param clienteExportService the cliente export service
+     * @param objectMapper         the Jackson mapper used for streamed responses
+     */
+    public ClienteAdminController(ClienteService clienteService, ClienteExportService clienteExportService,
+                                  ObjectMapper objectMapper) {
+        this.clienteService = clienteService;
+        this.clienteExportService = clienteExportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Find the clientes with an email across tenants.
+     *
+     * Endpoint: GET /api/admin/clientes/search?email={email}&amp;tenants={tenantId},...
+     *
+     * Tenants are queried in parallel. The response is NDJSON: one line per tenant, written
+     * as soon as that tenant completes, with its clientes or its error, followed by a summary
+     * line. A failing, unavailable or slow tenant does not fail the request.
+     *
+     * @param email   the exact email to look for
+     * @param tenants the tenants to search; all declared tenants if omitted
+     * @return ResponseEntity streaming one line per tenant, or an error body
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchByEmail(@RequestParam(required = false) String email,
+                                           @RequestParam(required = false) List<String> tenants) {
+        logger.info("REST: GET request to search clientes by email across tenants: {}",
+                tenants == null ? "all" : tenants);
+
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ErrorResponse.invalidParameter("email must not be blank"));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                // One value per line instead of Jackson's space-separated root values
+                generator.setRootValueSeparator(null);
+
+                TenantFanOutSummary summary = clienteService.findClientesByEmailAcrossTenants(email, tenants,
+                        result -> writeLine(generator, TenantFanOutLine.of(result)));
+                writeLine(generator, TenantFanOutSummaryLine.of(summary));
+
+                logger.info("REST: Searched clientes by email across {} tenant(s) in {} ms",
+                        summary.tenants(), summary.elapsedMillis());
+            } catch (UncheckedIOException e) {
+                logger.warn("REST: Client aborted cross-tenant search");
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // Headers are already committed at this point; the missing summary line signals the failure
+                logger.error("REST: Error searching clientes across tenants", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Export the clientes of many tenants to files on the server, one file per tenant.
+     *
+     * Endpoint: POST /api/admin/clientes/export?format=csv|ndjson&amp;gzip=true|false&amp;tenants={tenantId},...
+     *
+     * Files are written to {@code app.clientes.export.directory}, a few tenants at a time. The
+     * response is NDJSON: one line per tenant, written as soon as that tenant's file is complete,
+     * with its path and row count or its error, followed by a summary line. A failing tenant
+     * does not fail the job.
+     *
+     * @param format  csv (default) or ndjson
+     * @param gzip    whether to gzip the files
+     * @param tenants the tenants to export; all declared tenants if omitted
+     * @return ResponseEntity streaming one line per tenant, or an error body
+     */
+    @PostMapping("/export")
+    public ResponseEntity<?> exportTenants(@RequestParam(defaultValue = "csv") String format,
+                                           @RequestParam(defaultValue = "false") boolean gzip,
+                                           @RequestParam(required = false) List<String> tenants) {
+        logger.info("REST: POST request to export clientes of tenants: {}", tenants == null ? "all" : tenants);
+
+        ClienteExporter.Format exportFormat;
+        try {
+            exportFormat = ClienteExportService.formatOf(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.setRootValueSeparator(null);
+
+                ClienteExportSummary summary = clienteExportService.exportTenantsToDirectory(tenants, exportFormat, gzip,
+                        result -> writeLine(generator, ClienteExportLine.of(result)));
+                writeLine(generator, ClienteExportSummaryLine.of(summary));
+
+                logger.info("REST: Exported {} tenant(s) in {} ms", summary.tenants(), summary.elapsedMillis());
+            } catch (UncheckedIOException e) {
+                // Tenants already queued still finish their files
+                logger.warn("REST: Client aborted export job");
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                logger.error("REST: Error exporting clientes of tenants", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(JsonGenerator generator, Object line) {
+        try {
+            objectMapper.writeValue(generator, line);
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.diovanes.multitenant.controller;
+
+import java.util.List;
+
+/**
+ * Request body of the batch lookup endpoint.
+ *
+ * @param ids the cliente ids to fetch
+ */
+public record ClienteBatchRequest(List<Long> ids) {
+}
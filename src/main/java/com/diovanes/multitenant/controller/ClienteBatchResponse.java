@@ -0,0 +1,30 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.service.ClienteBatchResult;
+
+import java.util.List;
+
+/**
+ * Response body of a batch lookup.
+ *
+ * @param success  always true
+ * @param tenantId the tenant identifier
+ * @param total    number of clientes in {@code data}
+ * @param data     the clientes found
+ * @param missing  the requested ids that do not exist
+ */
+public record ClienteBatchResponse(boolean success, String tenantId, int total, List<Cliente> data,
+                                   List<Long> missing) implements ApiResponse {
+
+    /**
+     * Build the response for a batch lookup result.
+     *
+     * @param tenantId the tenant identifier
+     * @param result   the lookup result
+     * @return the response
+     */
+    public static ClienteBatchResponse of(String tenantId, ClienteBatchResult result) {
+        return new ClienteBatchResponse(true, tenantId, result.found().size(), result.found(), result.missing());
+    }
+}
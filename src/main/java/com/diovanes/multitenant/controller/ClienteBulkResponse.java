@@ -0,0 +1,30 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.repository.ClienteBulkResult;
+
+/**
+ * Response body of a bulk load.
+ *
+ * @param success       always true
+ * @param tenantId      the tenant identifier
+ * @param received      rows read from the request body
+ * @param inserted      clientes created
+ * @param updated       existing clientes whose nome changed
+ * @param elapsedMs     load time in milliseconds
+ * @param rowsPerSecond load throughput
+ */
+public record ClienteBulkResponse(boolean success, String tenantId, long received, long inserted, long updated,
+                                  long elapsedMs, long rowsPerSecond) implements ApiResponse {
+
+    /**
+     * Build the response for a bulk load result.
+     *
+     * @param tenantId the tenant identifier
+     * @param result   the load result
+     * @return the response
+     */
+    public static ClienteBulkResponse of(String tenantId, ClienteBulkResult result) {
+        return new ClienteBulkResponse(true, tenantId, result.received(), result.inserted(), result.updated(),
+                result.elapsedMillis(), result.rowsPerSecond());
+    }
+}
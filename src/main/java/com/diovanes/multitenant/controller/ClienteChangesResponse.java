@@ -0,0 +1,32 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.service.ClienteChanges;
+
+import java.util.List;
+
+/**
+ * Response body with one page of a tenant's change feed.
+ *
+ * @param success   always true
+ * @param tenantId  the tenant identifier
+ * @param total     number of clientes in {@code data}
+ * @param data      the clientes written after the requested watermark
+ * @param nextSince watermark for the next call
+ * @param hasMore   whether more changes can be fetched right away
+ */
+public record ClienteChangesResponse(boolean success, String tenantId, int total, List<Cliente> data,
+                                     String nextSince, boolean hasMore) implements ApiResponse {
+
+    /**
+     * Build the response for a page of changes.
+     *
+     * @param tenantId the tenant identifier
+     * @param changes  the page of changes
+     * @return the response
+     */
+    public static ClienteChangesResponse of(String tenantId, ClienteChanges changes) {
+        return new ClienteChangesResponse(true, tenantId, changes.clientes().size(), changes.clientes(),
+                changes.nextSince(), changes.hasMore());
+    }
+}
@@ -1,25 +1,67 @@
 package com.diovanes.multitenant.controller;
 
 import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.ClienteBulkLoader;
+import com.diovanes.multitenant.repository.ClienteBulkResult;
+import com.diovanes.multitenant.repository.ClienteExporter;
+import com.diovanes.multitenant.repository.ClienteSearch;
+import com.diovanes.multitenant.repository.RequestDeadlineExceededException;
+import com.diovanes.multitenant.repository.TenantHealth;
+import com.diovanes.multitenant.repository.TenantHealthMonitor;
+import com.diovanes.multitenant.repository.TenantUnavailableException;
+import com.diovanes.multitenant.service.ClienteBatchResult;
+import com.diovanes.multitenant.service.ClienteCache;
+import com.diovanes.multitenant.service.ClienteChanges;
+import com.diovanes.multitenant.service.ClienteExportService;
+import com.diovanes.multitenant.service.ClientePage;
 import com.diovanes.multitenant.service.ClienteService;
+import com.diovanes.multitenant.service.ClienteSnapshotManager;
+import com.diovanes.multitenant.service.ClienteSnapshotStats;
+import com.diovanes.multitenant.service.TenantExecutors;
+import com.diovanes.multitenant.service.TenantThrottledException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for Cliente API endpoints.
  * 
  * Provides REST endpoints to query cliente data for specific tenants.
  * All endpoints require a tenantId parameter to identify the tenant.
+ *
+ * The read endpoints are asynchronous: the servlet thread is released at once and the work
+ * runs on the tenant's executor (see {@link TenantExecutors}) under a deadline, taken from the
+ * {@value #REQUEST_TIMEOUT_HEADER} header and capped by the tenant's {@code requestTimeoutMs}.
+ * A request that runs out of time is answered with 504 and its query is cancelled.
  */
 @RestController
 @RequestMapping("/api/clientes")
@@ -27,15 +69,50 @@ public class ClienteController {
 
     private static final Logger logger = LoggerFactory.getLogger(ClienteController.class);
 
+    /** Request header with the time, in milliseconds, the client is willing to wait. */
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
     private final ClienteService clienteService;
+    private final ClienteExportService clienteExportService;
+    private final ClienteCache clienteCache;
+    private final ClienteSnapshotManager clienteSnapshotManager;
+    private final TenantExecutors tenantExecutors;
+    private final TenantHealthMonitor tenantHealthMonitor;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     /**
      * Constructor with dependencies injection.
      *
-     * @param clienteService the cliente service
+     * @param clienteService  the cliente service
+     * @param clienteExportService the cliente export service
+     * @param clienteCache    the cliente cache, for statistics
+     * @param clienteSnapshotManager the cliente snapshots, for statistics
+     * @param tenantExecutors the per-tenant executors running the asynchronous endpoints
+     * @param tenantHealthMonitor the tenant health monitor, for the health endpoint
+     * @param objectMapper    the Jackson mapper used for streamed responses
+     * @param defaultPageSize page size used when only a cursor is given
+     * @param maxPageSize     upper bound for the requested page size
      */
-    public ClienteController(ClienteService clienteService) {
+    public ClienteController(ClienteService clienteService,
+                             ClienteExportService clienteExportService,
+                             ClienteCache clienteCache,
+                             ClienteSnapshotManager clienteSnapshotManager,
+                             TenantExecutors tenantExecutors,
+                             TenantHealthMonitor tenantHealthMonitor,
+                             ObjectMapper objectMapper,
+                             @Value("${app.clientes.default-page-size:100}") int defaultPageSize,
+                             @Value("${app.clientes.max-page-size:1000}") int maxPageSize) {
         this.clienteService = clienteService;
+        this.clienteExportService = clienteExportService;
+        this.clienteCache = clienteCache;
+        this.clienteSnapshotManager = clienteSnapshotManager;
+        this.tenantExecutors = tenantExecutors;
+        this.tenantHealthMonitor = tenantHealthMonitor;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -43,46 +120,399 @@ public class ClienteController {
      * 
      * Endpoint: GET /api/clientes/{tenantId}
      *
-     * @param tenantId the tenant identifier
-     * @return ResponseEntity containing a list of clientes in JSON format
+     * When {@code after} or {@code limit} is given, a single keyset page is returned
+     * instead of the whole table, together with the cursor for the next page.
+     *
+     * Responses carry an ETag built from the tenant's table version. A request whose
+     * If-None-Match still matches gets 304 without the rows being read or serialized.
+     *
+     * @param tenantId    the tenant identifier
+     * @param after       optional cursor: return clientes with an id greater than this value
+     * @param limit       optional page size, capped at the configured maximum
+     * @param ifNoneMatch the client's ETags, for conditional GET
+     * @param timeoutMs   optional time the client is willing to wait
+     * @return future ResponseEntity containing a list of clientes in JSON format, or 304
      */
     @GetMapping("/{tenantId}")
-    public ResponseEntity<Map<String, Object>> getAllClientes(@PathVariable String tenantId) {
+    public CompletableFuture<ResponseEntity<ApiResponse>> getAllClientes(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutMs) {
+
+        if (after != null || limit != null) {
+            return async(tenantId, timeoutMs, () -> getClientesPage(tenantId, after == null ? 0L : after,
+                    limit == null ? defaultPageSize : limit, ifNoneMatch));
+        }
+        return async(tenantId, timeoutMs, () -> getAllClientes(tenantId, ifNoneMatch));
+    }
+
+    /**
+     * Get all clientes for a specific tenant, on the tenant's executor.
+     *
+     * @param tenantId    the tenant identifier
+     * @param ifNoneMatch the client's ETags, for conditional GET
+     * @return ResponseEntity containing a list of clientes in JSON format, or 304
+     */
+    private ResponseEntity<ApiResponse> getAllClientes(String tenantId, String ifNoneMatch) {
         logger.info("REST: GET request to fetch all clientes for tenantId: {}", tenantId);
         
         try {
+            // Answer 304 from the tenant's version alone when the client's copy is current
+            String eTag = ClienteETags.forList(clienteService.getClienteListVersion(tenantId));
+            if (ClienteETags.matches(ifNoneMatch, eTag)) {
+                logger.info("REST: Clientes not modified for tenantId: {}", tenantId);
+                return notModified(eTag);
+            }
+
             // Fetch clientes from service
             List<Cliente> clientes = clienteService.getAllClientesByTenant(tenantId);
             
-            // Build response
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("tenantId", tenantId);
-            response.put("total", clientes.size());
-            response.put("data", clientes);
+            ClienteListResponse response = ClienteListResponse.of(tenantId, clientes);
             
             logger.info("REST: Successfully returned {} clientes for tenantId: {}", clientes.size(), tenantId);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(response);
             
         } catch (IllegalArgumentException e) {
             logger.error("REST: Invalid tenant - {}", e.getMessage());
             
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Invalid tenant identifier");
-            errorResponse.put("message", e.getMessage());
-            
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidTenant(e.getMessage()));
             
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
         } catch (Exception e) {
             logger.error("REST: Error fetching clientes for tenantId: {}", tenantId, e);
             
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Internal server error");
-            errorResponse.put("message", "An error occurred while processing your request");
-            
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Stream all clientes for a specific tenant.
+     *
+     * Endpoint: GET /api/clientes/{tenantId}?stream=true
+     *
+     * Rows are written to the response as the database cursor produces them, so neither
+     * the full list nor the response envelope is ever held in memory. The envelope has the
+     * same fields as the non-streaming response, with "total" written after "data".
+     *
+     * The stream always covers the whole table: {@code after} and {@code limit} are
+     * rejected with 400 rather than ignored; use the paged listing for keyset pages.
+     *
+     * @param tenantId the tenant identifier
+     * @param after    must be absent
+     * @param limit    must be absent
+     * @return ResponseEntity streaming the clientes in JSON format, or an error body
+     */
+    @GetMapping(value = "/{tenantId}", params = "stream=true")
+    public ResponseEntity<?> streamAllClientes(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("REST: GET request to stream all clientes for tenantId: {}", tenantId);
+
+        if (after != null || limit != null) {
+            logger.error("REST: Invalid parameter - after and limit cannot be combined with stream=true");
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(
+                    "after and limit cannot be combined with stream=true"));
+        }
+
+        // The status line is sent with the first row, so reject up front what we can
+        try {
+            clienteService.checkTenantAvailable(tenantId);
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid tenant - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidTenant(e.getMessage()));
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeStringField("tenantId", tenantId);
+                generator.writeArrayFieldStart("data");
+
+                long total = clienteService.streamAllClientesByTenant(tenantId, cliente -> {
+                    try {
+                        ClienteJsonSerializer.write(cliente, generator);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                generator.writeEndArray();
+                generator.writeNumberField("total", total);
+                generator.writeEndObject();
+
+                logger.info("REST: Successfully streamed {} clientes for tenantId: {}", total, tenantId);
+            } catch (UncheckedIOException e) {
+                logger.warn("REST: Client aborted stream for tenantId: {}", tenantId);
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // Headers are already committed at this point; the truncated body signals the failure
+                logger.error("REST: Error streaming clientes for tenantId: {}", tenantId, e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Export all clientes of a tenant as a file download.
+     *
+     * Endpoint: GET /api/clientes/{tenantId}/export?format=csv|ndjson&amp;gzip=true|false
+     *
+     * The rows are produced by PostgreSQL with {@code COPY ... TO STDOUT} and written to the
+     * response as they arrive, optionally gzipped, without being turned into objects; memory
+     * use does not depend on the size of the tenant. CSV has an {@code id,nome,email} header
+     * line; NDJSON has one {@code {"id":..,"nome":..,"email":..}} object per line.
+     *
+     * @param tenantId the tenant identifier
+     * @param format   csv (default) or ndjson
+     * @param gzip     whether to gzip the file
+     * @return ResponseEntity streaming the file, or an error body
+     */
+    @GetMapping("/{tenantId}/export")
+    public ResponseEntity<?> exportClientes(@PathVariable String tenantId,
+                                            @RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("REST: GET request to export clientes as {} for tenantId: {}", format, tenantId);
+
+        // The status line is sent with the first bytes, so reject up front what we can
+        ClienteExporter.Format exportFormat;
+        try {
+            exportFormat = ClienteExportService.formatOf(format);
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+        }
+        try {
+            clienteService.checkTenantAvailable(tenantId);
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid tenant - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidTenant(e.getMessage()));
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try {
+                long total = clienteExportService.exportClientesByTenant(tenantId, exportFormat, gzip, outputStream);
+
+                logger.info("REST: Successfully exported {} clientes for tenantId: {}", total, tenantId);
+            } catch (UncheckedIOException e) {
+                logger.warn("REST: Client aborted export for tenantId: {}", tenantId);
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // Headers are already committed at this point; the truncated body signals the failure
+                logger.error("REST: Error exporting clientes for tenantId: {}", tenantId, e);
+                throw e;
+            }
+        };
+
+        MediaType contentType = exportFormat == ClienteExporter.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String filename = tenantId + "-clientes." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? new MediaType("application", "gzip") : contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Get one keyset page of clientes for a specific tenant.
+     *
+     * @param tenantId    the tenant identifier
+     * @param after       cursor: return clientes with an id greater than this value
+     * @param limit       requested page size
+     * @param ifNoneMatch the client's ETags, for conditional GET
+     * @return ResponseEntity containing the page and the next cursor, or 304
+     */
+    private ResponseEntity<ApiResponse> getClientesPage(String tenantId, long after, int limit, String ifNoneMatch) {
+        logger.info("REST: GET request to fetch clientes after id: {} (limit {}) for tenantId: {}", after, limit, tenantId);
+
+        try {
+            int pageSize = Math.min(limit, maxPageSize);
+            String eTag = ClienteETags.forPage(clienteService.getClienteListVersion(tenantId), after, pageSize);
+            if (ClienteETags.matches(ifNoneMatch, eTag)) {
+                logger.info("REST: Page of clientes not modified for tenantId: {}", tenantId);
+                return notModified(eTag);
+            }
+
+            ClientePage page = clienteService.getClientesPageByTenant(tenantId, after, pageSize);
+
+            ClientePageResponse response = ClientePageResponse.of(tenantId, page);
+
+            logger.info("REST: Successfully returned page of {} clientes for tenantId: {}", page.clientes().size(), tenantId);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
+        } catch (Exception e) {
+            logger.error("REST: Error fetching page of clientes for tenantId: {}", tenantId, e);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Get the clientes created or updated since a watermark for a specific tenant.
+     *
+     * Endpoint: GET /api/clientes/{tenantId}/changes?since=&lt;token&gt;&amp;limit=100
+     *
+     * Without {@code since}, the feed starts from the oldest row. Each response carries
+     * {@code nextSince}, to be sent back on the next call; while {@code hasMore} is true the
+     * next page can be fetched at once, otherwise the client is caught up and polls later.
+     *
+     * @param tenantId  the tenant identifier
+     * @param since     watermark token from a previous response
+     * @param limit     requested page size
+     * @param timeoutMs optional time the client is willing to wait
+     * @return future ResponseEntity containing the changed clientes and the next watermark
+     */
+    @GetMapping("/{tenantId}/changes")
+    public CompletableFuture<ResponseEntity<ApiResponse>> getClienteChanges(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutMs) {
+
+        return async(tenantId, timeoutMs, () -> getClienteChanges(tenantId, since, limit));
+    }
+
+    /**
+     * Get the changes since a watermark for a specific tenant, on the tenant's executor.
+     *
+     * @param tenantId the tenant identifier
+     * @param since    watermark token from a previous response
+     * @param limit    requested page size
+     * @return ResponseEntity containing the changed clientes and the next watermark
+     */
+    private ResponseEntity<ApiResponse> getClienteChanges(String tenantId, String since, Integer limit) {
+        logger.info("REST: GET request to fetch changes since {} for tenantId: {}", since, tenantId);
+
+        try {
+            int pageSize = Math.min(limit == null ? defaultPageSize : limit, maxPageSize);
+            ClienteChanges changes = clienteService.getClienteChangesByTenant(tenantId, since, pageSize);
+
+            logger.info("REST: Successfully returned {} changes for tenantId: {}", changes.clientes().size(), tenantId);
+            return ResponseEntity.ok(ClienteChangesResponse.of(tenantId, changes));
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
+        } catch (Exception e) {
+            logger.error("REST: Error fetching changes for tenantId: {}", tenantId, e);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Search the clientes of a specific tenant by nome and email.
+     *
+     * Endpoint: GET /api/clientes/{tenantId}/search?nomePrefix=mar&amp;limit=20
+     *
+     * Filters: {@code nome} and {@code email} (exact), {@code nomePrefix} and
+     * {@code emailPrefix} (case-insensitive prefix) and {@code q} (case-insensitive text
+     * anywhere in nome or email, when enabled). Given filters must all match. Results come in
+     * id order, one keyset page at a time like the list endpoint, with the page size capped at
+     * {@code app.clientes.search.max-page-size}.
+     *
+     * @param tenantId    the tenant identifier
+     * @param nome        exact nome
+     * @param nomePrefix  start of the nome
+     * @param email       exact email
+     * @param emailPrefix start of the email
+     * @param q           text anywhere in the nome or the email
+     * @param after       optional cursor: return clientes with an id greater than this value
+     * @param limit       optional page size
+     * @param timeoutMs   optional time the client is willing to wait
+     * @return future ResponseEntity containing the page of matching clientes and the next cursor
+     */
+    @GetMapping("/{tenantId}/search")
+    public CompletableFuture<ResponseEntity<ApiResponse>> searchClientes(
+            @PathVariable String tenantId,
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) String nomePrefix,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String emailPrefix,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutMs) {
+
+        ClienteSearch search = new ClienteSearch(nome, nomePrefix, email, emailPrefix, q);
+        return async(tenantId, timeoutMs, () -> searchClientes(tenantId, search,
+                after == null ? 0L : after, limit == null ? defaultPageSize : limit));
+    }
+
+    /**
+     * Search the clientes of a specific tenant, on the tenant's executor.
+     *
+     * @param tenantId the tenant identifier
+     * @param search   the filters
+     * @param after    cursor: return clientes with an id greater than this value
+     * @param limit    requested page size
+     * @return ResponseEntity containing the page of matching clientes and the next cursor
+     */
+    private ResponseEntity<ApiResponse> searchClientes(String tenantId, ClienteSearch search, long after, int limit) {
+        logger.info("REST: GET request to search clientes after id: {} for tenantId: {}", after, tenantId);
+
+        try {
+            ClientePage page = clienteService.searchClientesByTenant(tenantId, search, after, limit);
+
+            logger.info("REST: Successfully returned {} matching clientes for tenantId: {}", page.clientes().size(), tenantId);
+            return ResponseEntity.ok(ClientePageResponse.of(tenantId, page));
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
+        } catch (Exception e) {
+            logger.error("REST: Error searching clientes for tenantId: {}", tenantId, e);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
         }
     }
 
@@ -91,15 +521,34 @@ public class ClienteController {
      * 
      * Endpoint: GET /api/clientes/{tenantId}/{id}
      *
-     * @param tenantId the tenant identifier
-     * @param id       the cliente id
-     * @return ResponseEntity containing the cliente in JSON format, or error if not found
+     * The ETag is derived from the cliente itself; with the cliente cache enabled a
+     * matching If-None-Match is answered with 304 without touching the database.
+     *
+     * @param tenantId    the tenant identifier
+     * @param id          the cliente id
+     * @param ifNoneMatch the client's ETags, for conditional GET
+     * @param timeoutMs   optional time the client is willing to wait
+     * @return future ResponseEntity containing the cliente in JSON format, or error if not found, or 304
      */
     @GetMapping("/{tenantId}/{id}")
-    public ResponseEntity<Map<String, Object>> getClienteById(
+    public CompletableFuture<ResponseEntity<ApiResponse>> getClienteById(
             @PathVariable String tenantId,
-            @PathVariable Long id) {
-        
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutMs) {
+
+        return async(tenantId, timeoutMs, () -> getClienteById(tenantId, id, ifNoneMatch));
+    }
+
+    /**
+     * Get a specific cliente for a specific tenant, on the tenant's executor.
+     *
+     * @param tenantId    the tenant identifier
+     * @param id          the cliente id
+     * @param ifNoneMatch the client's ETags, for conditional GET
+     * @return ResponseEntity containing the cliente, 404 if not found, or 304
+     */
+    private ResponseEntity<ApiResponse> getClienteById(String tenantId, Long id, String ifNoneMatch) {
         logger.info("REST: GET request to fetch cliente with id: {} for tenantId: {}", id, tenantId);
         
         try {
@@ -109,43 +558,147 @@ public class ClienteController {
             if (cliente == null) {
                 logger.warn("REST: Cliente with id: {} not found for tenantId: {}", id, tenantId);
                 
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("error", "Cliente not found");
-                errorResponse.put("tenantId", tenantId);
-                errorResponse.put("id", id);
-                
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorResponse.clienteNotFound(tenantId, id));
             }
             
-            // Build response
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("tenantId", tenantId);
-            response.put("data", cliente);
+            String eTag = ClienteETags.forCliente(cliente);
+            if (ClienteETags.matches(ifNoneMatch, eTag)) {
+                logger.info("REST: Cliente with id: {} not modified for tenantId: {}", id, tenantId);
+                return notModified(eTag);
+            }
+
+            ClienteResponse response = ClienteResponse.of(tenantId, cliente);
             
             logger.info("REST: Successfully returned cliente with id: {} for tenantId: {}", id, tenantId);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(response);
             
         } catch (IllegalArgumentException e) {
             logger.error("REST: Invalid parameter - {}", e.getMessage());
             
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Invalid request parameter");
-            errorResponse.put("message", e.getMessage());
-            
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
             
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
         } catch (Exception e) {
             logger.error("REST: Error fetching cliente with id: {} for tenantId: {}", id, tenantId, e);
             
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("error", "Internal server error");
-            errorResponse.put("message", "An error occurred while processing your request");
-            
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Get many clientes by id for a specific tenant in one request.
+     *
+     * Endpoint: POST /api/clientes/{tenantId}/batch
+     *
+     * @param tenantId  the tenant identifier
+     * @param request   the ids to fetch
+     * @param timeoutMs optional time the client is willing to wait
+     * @return future ResponseEntity containing the found clientes and the missing ids
+     */
+    @PostMapping("/{tenantId}/batch")
+    public CompletableFuture<ResponseEntity<ApiResponse>> getClientesBatch(
+            @PathVariable String tenantId,
+            @RequestBody ClienteBatchRequest request,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long timeoutMs) {
+
+        return async(tenantId, timeoutMs, () -> getClientesBatch(tenantId, request));
+    }
+
+    /**
+     * Get many clientes by id for a specific tenant, on the tenant's executor.
+     *
+     * @param tenantId the tenant identifier
+     * @param request  the ids to fetch
+     * @return ResponseEntity containing the found clientes and the missing ids
+     */
+    private ResponseEntity<ApiResponse> getClientesBatch(String tenantId, ClienteBatchRequest request) {
+        logger.info("REST: POST batch lookup of {} clientes for tenantId: {}",
+                request.ids() == null ? 0 : request.ids().size(), tenantId);
+
+        try {
+            ClienteBatchResult result = clienteService.getClientesByIdsAndTenant(tenantId, request.ids());
+
+            ClienteBatchResponse response = ClienteBatchResponse.of(tenantId, result);
+
+            logger.info("REST: Successfully returned {} clientes ({} missing) for tenantId: {}",
+                    result.found().size(), result.missing().size(), tenantId);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+
+        } catch (RequestDeadlineExceededException e) {
+            return deadlineExceeded(e);
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
+        } catch (Exception e) {
+            logger.error("REST: Error in batch lookup for tenantId: {}", tenantId, e);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Insert or update clientes for a specific tenant from the request body, keyed by email.
+     *
+     * Endpoint: POST /api/clientes/{tenantId}/bulk
+     *
+     * The body is CSV ({@code text/csv}, columns {@code nome,email}) or NDJSON
+     * ({@code application/x-ndjson}, one {@code {"nome":..,"email":..}} object per line). It is
+     * streamed into the tenant's database with COPY and never buffered whole, and is applied
+     * all or nothing.
+     *
+     * @param tenantId    the tenant identifier
+     * @param contentType the body format
+     * @param header      whether the first CSV line is a header to skip
+     * @param body        the request body
+     * @return ResponseEntity containing the row counts and the load throughput
+     */
+    @PostMapping(value = "/{tenantId}/bulk", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse> bulkUpsertClientes(
+            @PathVariable String tenantId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(defaultValue = "true") boolean header,
+            InputStream body) {
+
+        ClienteBulkLoader.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ClienteBulkLoader.Format.NDJSON
+                : ClienteBulkLoader.Format.CSV;
+        logger.info("REST: POST bulk load ({}) of clientes for tenantId: {}", format, tenantId);
+
+        try {
+            ClienteBulkResult result = clienteService.bulkUpsertClientes(tenantId, format, body, header);
+
+            logger.info("REST: Successfully loaded {} clientes for tenantId: {}", result.received(), tenantId);
+            return ResponseEntity.ok(ClienteBulkResponse.of(tenantId, result));
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid parameter - {}", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.invalidParameter(e.getMessage()));
+
+        } catch (UncheckedIOException e) {
+            logger.warn("REST: Could not read bulk load body for tenantId: {} - {}", tenantId, e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ErrorResponse.invalidParameter("Request body could not be read"));
+
+        } catch (TenantUnavailableException e) {
+            return serviceUnavailable(e);
+
+        } catch (Exception e) {
+            logger.error("REST: Error in bulk load for tenantId: {}", tenantId, e);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
         }
     }
 
@@ -154,17 +707,165 @@ public class ClienteController {
      * 
      * Endpoint: GET /api/clientes/health
      *
+     * Reports the aggregate status and the last probe result of every tenant, as
+     * recorded by the background health monitor. No database access happens here.
+     *
      * @return ResponseEntity with health status
      */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         logger.info("REST: Health check endpoint called");
+
+        Map<String, Object> tenants = new HashMap<>();
+        for (TenantHealth tenantHealth : tenantHealthMonitor.getAllHealth().values()) {
+            Map<String, Object> tenantStatus = new HashMap<>();
+            tenantStatus.put("status", tenantHealth.status());
+            tenantStatus.put("latencyMs", tenantHealth.lastLatencyMs());
+            tenantStatus.put("lastCheckedAt", tenantHealth.lastCheckedAt());
+            tenantStatus.put("consecutiveFailures", tenantHealth.consecutiveFailures());
+            if (tenantHealth.lastError() != null) {
+                tenantStatus.put("error", tenantHealth.lastError());
+            }
+            tenants.put(tenantHealth.tenantId(), tenantStatus);
+        }
         
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", tenantHealthMonitor.getOverallStatus());
         response.put("message", "Multitenant API is running");
         response.put("timestamp", System.currentTimeMillis());
+        response.put("tenants", tenants);
         
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Cliente cache statistics endpoint.
+     *
+     * Endpoint: GET /api/clientes/cache/stats
+     *
+     * @return ResponseEntity with hit/miss statistics per tenant
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        logger.info("REST: Cache statistics endpoint called");
+
+        Map<String, Long> sizes = clienteCache.sizes();
+        Map<String, Object> tenants = new HashMap<>();
+        clienteCache.stats().forEach((tenantId, stats) -> {
+            Map<String, Object> tenantStats = new HashMap<>();
+            tenantStats.put("size", sizes.getOrDefault(tenantId, 0L));
+            tenantStats.put("hits", stats.hitCount());
+            tenantStats.put("misses", stats.missCount());
+            tenantStats.put("hitRate", stats.hitRate());
+            tenantStats.put("evictions", stats.evictionCount());
+            tenantStats.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+            tenants.put(tenantId, tenantStats);
+        });
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", clienteCache.isEnabled());
+        response.put("tenants", tenants);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cliente snapshot statistics endpoint.
+     *
+     * Endpoint: GET /api/clientes/snapshot/stats
+     *
+     * @return ResponseEntity with the state and memory footprint of each tenant's snapshot
+     */
+    @GetMapping("/snapshot/stats")
+    public ResponseEntity<Map<String, Object>> snapshotStats() {
+        logger.info("REST: Snapshot statistics endpoint called");
+
+        Map<String, Object> tenants = new HashMap<>();
+        long totalBytes = 0;
+        for (ClienteSnapshotStats stats : clienteSnapshotManager.stats()) {
+            Map<String, Object> tenantStats = new HashMap<>();
+            tenantStats.put("state", stats.state());
+            tenantStats.put("rows", stats.rows());
+            tenantStats.put("bytes", stats.bytes());
+            tenantStats.put("maxBytes", stats.maxBytes());
+            tenantStats.put("refreshedAt", stats.refreshedAt().toString());
+            tenants.put(stats.tenantId(), tenantStats);
+            totalBytes += stats.bytes();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", clienteSnapshotManager.isEnabled());
+        response.put("totalBytes", totalBytes);
+        response.put("tenants", tenants);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Run a handler on the tenant's executor under the request's deadline.
+     *
+     * @param tenantId  the tenant identifier
+     * @param timeoutMs time the client asked for, or null
+     * @param handler   the handler body
+     * @return the future response; a deadline or a full queue is turned into its error response
+     */
+    private CompletableFuture<ResponseEntity<ApiResponse>> async(String tenantId, Long timeoutMs,
+                                                                 Supplier<ResponseEntity<ApiResponse>> handler) {
+        return tenantExecutors.submit(tenantId, tenantExecutors.deadlineFor(tenantId, timeoutMs), handler)
+                .exceptionally(failure -> {
+                    Throwable e = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause()
+                            : failure;
+                    if (e instanceof RequestDeadlineExceededException deadline) {
+                        return deadlineExceeded(deadline);
+                    }
+                    if (e instanceof TenantThrottledException throttled) {
+                        logger.warn("REST: {} - retry after {}s", throttled.getMessage(), throttled.getRetryAfterSeconds());
+
+                        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, Long.toString(throttled.getRetryAfterSeconds()))
+                                .body(ErrorResponse.tenantThrottled(tenantId, throttled.getMessage()));
+                    }
+                    logger.error("REST: Error processing request for tenantId: {}", tenantId, e);
+
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.INTERNAL_ERROR);
+                });
+    }
+
+    /**
+     * Build the 304 response for a client whose copy is current.
+     *
+     * @param eTag the current ETag
+     * @return ResponseEntity with status 304 and no body
+     */
+    private ResponseEntity<ApiResponse> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    /**
+     * Build the 504 response for a request that ran out of time.
+     *
+     * @param e the deadline failure
+     * @return ResponseEntity with status 504
+     */
+    private ResponseEntity<ApiResponse> deadlineExceeded(RequestDeadlineExceededException e) {
+        logger.warn("REST: {}", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ErrorResponse.deadlineExceeded(e.getTenantId(), e.getMessage()));
+    }
+
+    /**
+     * Build the 503 response for a tenant whose database is known to be unavailable.
+     *
+     * @param e the rejection
+     * @return ResponseEntity with status 503 and a Retry-After header
+     */
+    private ResponseEntity<ApiResponse> serviceUnavailable(TenantUnavailableException e) {
+        logger.warn("REST: Tenant unavailable - {} (retry after {}s)", e.getTenantId(), e.getRetryAfterSeconds());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(ErrorResponse.tenantUnavailable(e.getTenantId(), e.getMessage()));
+    }
 }
@@ -0,0 +1,74 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+/**
+ * ETag values of the cliente endpoints.
+ *
+ * Tags are weak: two responses with the same tag carry the same data, not necessarily the
+ * same bytes.
+ */
+final class ClienteETags {
+
+    private ClienteETags() {
+    }
+
+    /**
+     * ETag of the full list of a tenant's clientes.
+     *
+     * @param version the tenant's table version
+     * @return the ETag
+     */
+    static String forList(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    /**
+     * ETag of one keyset page of a tenant's clientes.
+     *
+     * @param version the tenant's table version
+     * @param after   the page cursor
+     * @param limit   the effective page size
+     * @return the ETag
+     */
+    static String forPage(String version, long after, int limit) {
+        return "W/\"" + version + "-" + after + "-" + limit + "\"";
+    }
+
+    /**
+     * ETag of a single cliente, derived from its content.
+     *
+     * @param cliente the cliente
+     * @return the ETag
+     */
+    static String forCliente(Cliente cliente) {
+        return "W/\"" + cliente.getId()
+                + "-" + Integer.toHexString(String.valueOf(cliente.getNome()).hashCode())
+                + "-" + Integer.toHexString(String.valueOf(cliente.getEmail()).hashCode()) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header matches an ETag, by weak comparison.
+     *
+     * @param ifNoneMatch the header value, possibly a list of tags or {@code *}
+     * @param eTag        the current ETag
+     * @return true if the client's copy is current
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,32 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.service.ClienteExportResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a streamed export job response: the outcome of one tenant.
+ *
+ * @param tenantId      the tenant identifier
+ * @param success       whether the tenant's file was written
+ * @param file          the file written
+ * @param rows          clientes written
+ * @param bytes         size of the file
+ * @param elapsedMs     time taken by this tenant's export
+ * @param rowsPerSecond export throughput
+ * @param error         what went wrong, if the export failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClienteExportLine(String tenantId, boolean success, String file, long rows, long bytes, long elapsedMs,
+                                long rowsPerSecond, String error) {
+
+    /**
+     * Build the line for a tenant's outcome.
+     *
+     * @param result the tenant's outcome
+     * @return the line
+     */
+    public static ClienteExportLine of(ClienteExportResult result) {
+        return new ClienteExportLine(result.tenantId(), result.succeeded(), result.file(), result.rows(),
+                result.bytes(), result.elapsedMillis(), result.rowsPerSecond(), result.error());
+    }
+}
@@ -0,0 +1,30 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.service.ClienteExportSummary;
+
+/**
+ * Last line of a streamed export job response. Its absence means the job was cut short.
+ *
+ * @param done      always true
+ * @param directory the directory the files were written to
+ * @param tenants   tenants exported
+ * @param succeeded tenants whose file was written
+ * @param failed    tenants that failed or were unavailable
+ * @param rows      clientes written across tenants
+ * @param bytes     bytes written across tenants
+ * @param elapsedMs wall time of the job
+ */
+public record ClienteExportSummaryLine(boolean done, String directory, int tenants, int succeeded, int failed,
+                                       long rows, long bytes, long elapsedMs) {
+
+    /**
+     * Build the line for the totals of an export job.
+     *
+     * @param summary the totals
+     * @return the line
+     */
+    public static ClienteExportSummaryLine of(ClienteExportSummary summary) {
+        return new ClienteExportSummaryLine(true, summary.directory(), summary.tenants(), summary.succeeded(),
+                summary.failed(), summary.rows(), summary.bytes(), summary.elapsedMillis());
+    }
+}
@@ -0,0 +1,59 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Cliente} as {@code {"id":..,"nome":..,"email":..}} field by field.
+ *
+ * Registered with Spring's ObjectMapper, so every response containing clientes uses it
+ * instead of reflective bean serialization; the streaming endpoint calls
+ * {@link #write(Cliente, JsonGenerator)} directly. Field names are encoded once.
+ */
+@JsonComponent
+public class ClienteJsonSerializer extends StdSerializer<Cliente> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NOME = new SerializedString("nome");
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    /**
+     * Default constructor.
+     */
+    public ClienteJsonSerializer() {
+        super(Cliente.class);
+    }
+
+    @Override
+    public void serialize(Cliente cliente, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(cliente, generator);
+    }
+
+    /**
+     * Write one cliente as a JSON object.
+     *
+     * @param cliente   the cliente
+     * @param generator the generator to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(Cliente cliente, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (cliente.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(cliente.getId());
+        }
+        generator.writeFieldName(NOME);
+        generator.writeString(cliente.getNome());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(cliente.getEmail());
+        generator.writeEndObject();
+    }
+}
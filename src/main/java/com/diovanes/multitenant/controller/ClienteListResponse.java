@@ -0,0 +1,27 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.util.List;
+
+/**
+ * Response body with all clientes of a tenant.
+ *
+ * @param success  always true
+ * @param tenantId the tenant identifier
+ * @param total    number of clientes in {@code data}
+ * @param data     the clientes
+ */
+public record ClienteListResponse(boolean success, String tenantId, int total, List<Cliente> data) implements ApiResponse {
+
+    /**
+     * Build the response for a list of clientes.
+     *
+     * @param tenantId the tenant identifier
+     * @param clientes the clientes
+     * @return the response
+     */
+    public static ClienteListResponse of(String tenantId, List<Cliente> clientes) {
+        return new ClienteListResponse(true, tenantId, clientes.size(), clientes);
+    }
+}
@@ -0,0 +1,32 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.service.ClientePage;
+
+import java.util.List;
+
+/**
+ * Response body with one keyset page of clientes.
+ *
+ * @param success   always true
+ * @param tenantId  the tenant identifier
+ * @param total     number of clientes in {@code data}
+ * @param data      the clientes of the page
+ * @param nextAfter cursor for the next page, or null on the last page
+ * @param hasMore   whether another page follows
+ */
+public record ClientePageResponse(boolean success, String tenantId, int total, List<Cliente> data,
+                                  Long nextAfter, boolean hasMore) implements ApiResponse {
+
+    /**
+     * Build the response for a page.
+     *
+     * @param tenantId the tenant identifier
+     * @param page     the page
+     * @return the response
+     */
+    public static ClientePageResponse of(String tenantId, ClientePage page) {
+        return new ClientePageResponse(true, tenantId, page.clientes().size(), page.clientes(),
+                page.nextAfter(), page.hasMore());
+    }
+}
@@ -0,0 +1,24 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+/**
+ * Response body with a single cliente.
+ *
+ * @param success  always true
+ * @param tenantId the tenant identifier
+ * @param data     the cliente
+ */
+public record ClienteResponse(boolean success, String tenantId, Cliente data) implements ApiResponse {
+
+    /**
+     * Build the response for a cliente.
+     *
+     * @param tenantId the tenant identifier
+     * @param cliente  the cliente
+     * @return the response
+     */
+    public static ClienteResponse of(String tenantId, Cliente cliente) {
+        return new ClienteResponse(true, tenantId, cliente);
+    }
+}
@@ -0,0 +1,100 @@
+package com.diovanes.multitenant.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Error body of the cliente endpoints.
+ *
+ * Bodies without request-specific content are shared constants instead of being
+ * rebuilt on every failure.
+ *
+ * @param error    short error description
+ * @param message  detail, when available
+ * @param tenantId the tenant concerned, when relevant
+ * @param id       the cliente id concerned, when relevant
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"success", "error", "message", "tenantId", "id"})
+public record ErrorResponse(String error, String message, String tenantId, Long id) implements ApiResponse {
+
+    /** Body of every 500 response. */
+    public static final ErrorResponse INTERNAL_ERROR =
+            new ErrorResponse("Internal server error", "An error occurred while processing your request", null, null);
+
+    /**
+     * Errors are never successful.
+     *
+     * @return false
+     */
+    @Override
+    @JsonProperty("success")
+    public boolean success() {
+        return false;
+    }
+
+    /**
+     * Body of a 400 response for an invalid tenant identifier.
+     *
+     * @param message the validation message
+     * @return the error body
+     */
+    public static ErrorResponse invalidTenant(String message) {
+        return new ErrorResponse("Invalid tenant identifier", message, null, null);
+    }
+
+    /**
+     * Body of a 400 response for an invalid request parameter.
+     *
+     * @param message the validation message
+     * @return the error body
+     */
+    public static ErrorResponse invalidParameter(String message) {
+        return new ErrorResponse("Invalid request parameter", message, null, null);
+    }
+
+    /**
+     * Body of a 404 response for an unknown cliente.
+     *
+     * @param tenantId the tenant identifier
+     * @param id       the cliente id
+     * @return the error body
+     */
+    public static ErrorResponse clienteNotFound(String tenantId, Long id) {
+        return new ErrorResponse("Cliente not found", null, tenantId, id);
+    }
+
+    /**
+     * Body of a 503 response for a tenant whose database is unavailable.
+     *
+     * @param tenantId the tenant identifier
+     * @param message  the rejection message
+     * @return the error body
+     */
+    public static ErrorResponse tenantUnavailable(String tenantId, String message) {
+        return new ErrorResponse("Tenant unavailable", message, tenantId, null);
+    }
+
+    /**
+     * Body of a 429 response for a tenant over its request rate or concurrency limit.
+     *
+     * @param tenantId the tenant identifier
+     * @param message  the rejection message
+     * @return the error body
+     */
+    public static ErrorResponse tenantThrottled(String tenantId, String message) {
+        return new ErrorResponse("Too many requests", message, tenantId, null);
+    }
+
+    /**
+     * Body of a 504 response for a request that ran out of time.
+     *
+     * @param tenantId the tenant identifier
+     * @param message  the deadline message
+     * @return the error body
+     */
+    public static ErrorResponse deadlineExceeded(String tenantId, String message) {
+        return new ErrorResponse("Request deadline exceeded", message, tenantId, null);
+    }
+}
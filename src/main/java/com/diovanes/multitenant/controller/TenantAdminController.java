@@ -0,0 +1,100 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.config.TenantConfigChanges;
+import com.diovanes.multitenant.repository.TenantReplicaPools;
+import com.diovanes.multitenant.repository.TenantReplicaStatus;
+import com.diovanes.multitenant.service.TenantReloadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for tenant administration endpoints.
+ */
+@RestController
+@RequestMapping("/api/admin/tenants")
+public class TenantAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantAdminController.class);
+
+    private final TenantReloadService tenantReloadService;
+    private final TenantReplicaPools tenantReplicaPools;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantReloadService the tenants.yml reload service
+     * @param tenantReplicaPools  the pools of the tenants' read replicas
+     */
+    public TenantAdminController(TenantReloadService tenantReloadService, TenantReplicaPools tenantReplicaPools) {
+        this.tenantReloadService = tenantReloadService;
+        this.tenantReplicaPools = tenantReplicaPools;
+    }
+
+    /**
+     * Reload tenants.yml and apply the difference without a restart.
+     *
+     * Endpoint: POST /api/admin/tenants/reload
+     *
+     * @return ResponseEntity with the tenants added, removed, changed and updated
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        logger.info("REST: POST request to reload tenants");
+
+        try {
+            TenantConfigChanges changes = tenantReloadService.reload();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("added", changes.added());
+            response.put("removed", changes.removed());
+            response.put("changed", changes.changed());
+            response.put("updated", changes.updated());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            logger.error("REST: Invalid tenants file - {}", e.getMessage());
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Invalid tenants file");
+            errorResponse.put("message", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+
+        } catch (Exception e) {
+            logger.error("REST: Error reloading tenants", e);
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Internal server error");
+            errorResponse.put("message", "An error occurred while reloading tenants");
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    /**
+     * Show the read replicas of every tenant and whether they receive reads.
+     *
+     * Endpoint: GET /api/admin/tenants/replicas
+     *
+     * @return ResponseEntity with one entry per replica: health, replication lag, latency and load
+     */
+    @GetMapping("/replicas")
+    public ResponseEntity<List<TenantReplicaStatus>> replicas() {
+        logger.info("REST: GET request for tenant replica status");
+        return ResponseEntity.ok(tenantReplicaPools.status());
+    }
+}
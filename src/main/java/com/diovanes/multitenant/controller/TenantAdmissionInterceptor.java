@@ -0,0 +1,89 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.service.TenantAdmissionControl;
+import com.diovanes.multitenant.service.TenantThrottledException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies {@link TenantAdmissionControl} to every request with a {@code tenantId} path
+ * variable, before the controller runs.
+ *
+ * Refused requests get 429 Too Many Requests with a Retry-After header and the usual error
+ * body. An admitted request holds its concurrency slot until the response is complete,
+ * including the asynchronous part of a streamed response.
+ */
+@Component
+public class TenantAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantAdmissionInterceptor.class);
+
+    private static final String ADMITTED_TENANT = TenantAdmissionInterceptor.class.getName() + ".tenantId";
+
+    private final TenantAdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param admissionControl the per-tenant admission control
+     * @param objectMapper     the JSON mapper, for the 429 body
+     */
+    public TenantAdmissionInterceptor(TenantAdmissionControl admissionControl, ObjectMapper objectMapper) {
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getAttribute(ADMITTED_TENANT) != null) {
+            // Asynchronous dispatch of a request admitted earlier
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String tenantId = pathVariables == null ? null : pathVariables.get("tenantId");
+        if (tenantId == null) {
+            return true;
+        }
+
+        try {
+            admissionControl.admit(tenantId);
+        } catch (TenantThrottledException e) {
+            logger.warn("REST: {} - retry after {}s", e.getMessage(), e.getRetryAfterSeconds());
+
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), ErrorResponse.tenantThrottled(tenantId, e.getMessage()));
+            return false;
+        }
+
+        request.setAttribute(ADMITTED_TENANT, tenantId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Not called when the request went asynchronous; the final dispatch releases the slot
+        Object tenantId = request.getAttribute(ADMITTED_TENANT);
+        if (tenantId != null) {
+            request.removeAttribute(ADMITTED_TENANT);
+            admissionControl.release((String) tenantId);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.service.TenantFanOutResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a streamed cross-tenant response: the outcome of one tenant.
+ *
+ * @param tenantId  the tenant identifier
+ * @param status    OK, ERROR, UNAVAILABLE or TIMEOUT
+ * @param elapsedMs time from the start of the request to this tenant's outcome
+ * @param data      the tenant's result, when the status is OK
+ * @param error     what went wrong, otherwise
+ * @param <T>       the result type
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TenantFanOutLine<T>(String tenantId, TenantFanOutResult.Status status, long elapsedMs, T data,
+                                  String error) {
+
+    /**
+     * Build the line for a tenant's outcome.
+     *
+     * @param result the tenant's outcome
+     * @param <T>    the result type
+     * @return the line
+     */
+    public static <T> TenantFanOutLine<T> of(TenantFanOutResult<T> result) {
+        return new TenantFanOutLine<>(result.tenantId(), result.status(), result.elapsedMillis(), result.value(),
+                result.error());
+    }
+}
@@ -0,0 +1,28 @@
+package com.diovanes.multitenant.controller;
+
+import com.diovanes.multitenant.service.TenantFanOutSummary;
+
+/**
+ * Last line of a streamed cross-tenant response. Its absence means the response was cut short.
+ *
+ * @param done      always true
+ * @param tenants   tenants queried
+ * @param succeeded tenants that returned a result
+ * @param failed    tenants that failed or were unavailable
+ * @param timedOut  tenants with no result within the timeout
+ * @param elapsedMs wall time of the request
+ */
+public record TenantFanOutSummaryLine(boolean done, int tenants, int succeeded, int failed, int timedOut,
+                                      long elapsedMs) {
+
+    /**
+     * Build the line for the totals of a fan-out.
+     *
+     * @param summary the totals
+     * @return the line
+     */
+    public static TenantFanOutSummaryLine of(TenantFanOutSummary summary) {
+        return new TenantFanOutSummaryLine(true, summary.tenants(), summary.succeeded(), summary.failed(),
+                summary.timedOut(), summary.elapsedMillis());
+    }
+}
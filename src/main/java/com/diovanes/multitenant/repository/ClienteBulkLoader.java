@@ -0,0 +1,252 @@
+package com.diovanes.multitenant.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bulk upsert of clientes through the PostgreSQL COPY protocol.
+ *
+ * Rows are copied into a temporary staging table and merged into {@code clientes} with a
+ * single {@code INSERT ... ON CONFLICT (email) DO UPDATE}, all in one transaction on one
+ * connection of the tenant's pool: a load either applies completely or not at all. When the
+ * same email appears more than once in a load, the last occurrence wins.
+ *
+ * The input is never held in memory. CSV is handed to the driver as it is read; NDJSON is
+ * transcoded to CSV one object at a time and sent in chunks of
+ * {@code app.clientes.bulk-buffer-size} bytes.
+ */
+@Repository
+public class ClienteBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteBulkLoader.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE clientes_staging ("
+                    + "line BIGINT GENERATED ALWAYS AS IDENTITY, "
+                    + "nome VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL"
+                    + ") ON COMMIT DROP";
+    private static final String COPY_STAGING_SQL =
+            "COPY pg_temp.clientes_staging (nome, email) FROM STDIN WITH (FORMAT csv, HEADER %s)";
+    private static final String UPSERT_FROM_STAGING_SQL =
+            "WITH upserted AS ("
+                    + "INSERT INTO clientes (nome, email) "
+                    + "SELECT DISTINCT ON (email) nome, email FROM pg_temp.clientes_staging ORDER BY email, line DESC "
+                    + "ON CONFLICT (email) DO UPDATE SET nome = EXCLUDED.nome, updated_at = CURRENT_TIMESTAMP "
+                    + "WHERE clientes.nome IS DISTINCT FROM EXCLUDED.nome "
+                    + "RETURNING (xmax = 0) AS inserted) "
+                    + "SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM upserted";
+
+    private final TenantJdbcTemplateRegistry jdbcTemplateRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final int bufferSize;
+
+    /**
+     * Input formats accepted by {@link #upsert(String, Format, InputStream, boolean)}.
+     */
+    public enum Format {
+        /** Comma-separated {@code nome,email} rows, RFC 4180 quoting. */
+        CSV,
+        /** One JSON object per line with {@code nome} and {@code email} fields; other fields are ignored. */
+        NDJSON
+    }
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param jdbcTemplateRegistry the per-tenant JdbcTemplate registry
+     * @param tenantMetrics        the per-tenant metrics
+     * @param bufferSize           bytes sent to the server per COPY chunk
+     */
+    public ClienteBulkLoader(TenantJdbcTemplateRegistry jdbcTemplateRegistry,
+                             TenantMetrics tenantMetrics,
+                             @Value("${app.clientes.bulk-buffer-size:65536}") int bufferSize) {
+        this.jdbcTemplateRegistry = jdbcTemplateRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Upsert clientes read from a stream into a tenant's database.
+     *
+     * @param tenantId the tenant identifier
+     * @param format   the format of the input
+     * @param input    the rows; read to the end but not closed
+     * @param header   whether the first CSV line is a header to skip (ignored for NDJSON)
+     * @return the number of rows read, inserted and updated
+     * @throws IllegalArgumentException if the input is malformed or violates a constraint;
+     *                                  nothing is written in that case
+     */
+    public ClienteBulkResult upsert(String tenantId, Format format, InputStream input, boolean header) {
+        logger.debug("Bulk loading {} clientes for tenantId: {}", format, tenantId);
+
+        long started = System.nanoTime();
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
+
+            ClienteBulkResult result = tenantJdbcTemplate.execute((ConnectionCallback<ClienteBulkResult>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    ClienteBulkResult loaded = load(connection, format, input, header, started);
+                    connection.commit();
+                    return loaded;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (isRejectedInput(e)) {
+                        throw new IllegalArgumentException("Rejected bulk load: " + e.getMessage(), e);
+                    }
+                    throw e;
+                } catch (RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+
+            logger.info("Bulk loaded {} clientes for tenantId: {} ({} inserted, {} updated) at {} rows/s",
+                    result.received(), tenantId, result.inserted(), result.updated(), result.rowsPerSecond());
+            return result;
+
+        } catch (TenantUnavailableException | IllegalArgumentException | UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error bulk loading clientes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error loading clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "bulkUpsert"));
+        }
+    }
+
+    private ClienteBulkResult load(Connection connection, Format format, InputStream input, boolean header, long started)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        long received;
+        try {
+            if (format == Format.CSV) {
+                received = copyManager.copyIn(COPY_STAGING_SQL.formatted(header), input, bufferSize);
+            } else {
+                received = copyNdjson(copyManager.copyIn(COPY_STAGING_SQL.formatted(false)), input);
+            }
+        } catch (JsonProcessingException e) {
+            String line = e.getLocation() == null ? "" : " (line " + e.getLocation().getLineNr() + ")";
+            throw new IllegalArgumentException("Invalid NDJSON: " + e.getOriginalMessage() + line, e);
+        } catch (IOException e) {
+            // The request body could not be read, typically because the client went away
+            throw new UncheckedIOException(e);
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(UPSERT_FROM_STAGING_SQL)) {
+            rs.next();
+            return new ClienteBulkResult(received, rs.getLong(1), rs.getLong(2), System.nanoTime() - started);
+        }
+    }
+
+    private long copyNdjson(CopyIn copyIn, InputStream input) throws IOException, SQLException {
+        StringBuilder chunk = new StringBuilder(bufferSize);
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Invalid NDJSON: expected an object (line "
+                            + parser.currentTokenLocation().getLineNr() + ")");
+                }
+
+                String nome = null;
+                String email = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("nome".equals(field)) {
+                        nome = parser.getValueAsString();
+                    } else if ("email".equals(field)) {
+                        email = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+
+                // Missing fields are sent as NULL and rejected by the staging table with the row number
+                appendCsvField(chunk, nome).append(',');
+                appendCsvField(chunk, email).append('\n');
+                if (chunk.length() >= bufferSize) {
+                    flush(copyIn, chunk);
+                }
+            }
+
+            flush(copyIn, chunk);
+            return copyIn.endCopy();
+        } catch (IOException | SQLException | RuntimeException e) {
+            if (copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException cancelFailure) {
+                    e.addSuppressed(cancelFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder chunk, String value) {
+        if (value == null) {
+            // An unquoted empty field is NULL in COPY's CSV format
+            return chunk;
+        }
+        chunk.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                chunk.append('"');
+            }
+            chunk.append(c);
+        }
+        return chunk.append('"');
+    }
+
+    private static boolean isRejectedInput(SQLException e) {
+        String state = e.getSQLState();
+        // Class 22 is bad data (malformed CSV, value too long), class 23 a constraint violation
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.diovanes.multitenant.repository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a bulk upsert of clientes.
+ *
+ * Rows whose email already existed with the same nome are counted in {@code received} but
+ * neither inserted nor updated, as are earlier duplicates of an email within the load.
+ *
+ * @param received     rows read from the input
+ * @param inserted     clientes created
+ * @param updated      existing clientes whose nome changed
+ * @param elapsedNanos time from the start of the load to the end of the upsert
+ */
+public record ClienteBulkResult(long received, long inserted, long updated, long elapsedNanos) {
+
+    /**
+     * Elapsed time in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Load throughput.
+     *
+     * @return rows read per second, or 0 if nothing was read
+     */
+    public long rowsPerSecond() {
+        return elapsedNanos <= 0 ? 0 : received * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,14 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cliente read by the change feed, with the time it was last written.
+ *
+ * @param cliente   the cliente
+ * @param updatedAt the value of {@code updated_at}
+ */
+public record ClienteChange(Cliente cliente, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,121 @@
+package com.diovanes.multitenant.repository;
+
+import io.micrometer.core.instrument.Timer;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Export of all clientes of a tenant through the PostgreSQL COPY protocol.
+ *
+ * The server formats the rows itself ({@code COPY ... TO STDOUT}) and streams them as it
+ * scans the table in id order; the bytes go through a buffer of
+ * {@code app.clientes.export.buffer-size} bytes straight to the output. No row is ever turned
+ * into a Java object, so memory stays constant whatever the size of the tenant.
+ *
+ * The export runs on the tenant's read template and may be served by a read replica.
+ */
+@Repository
+public class ClienteExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteExporter.class);
+
+    private static final String COPY_CSV_SQL =
+            "COPY (SELECT id, nome, email FROM clientes ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER true)";
+    /**
+     * One JSON object per line. CSV format with control characters as delimiter and quote never
+     * quotes nor escapes a line: JSON text has no raw newlines or control characters.
+     */
+    private static final String COPY_NDJSON_SQL =
+            "COPY (SELECT row_to_json(c) FROM (SELECT id, nome, email FROM clientes ORDER BY id) c) "
+                    + "TO STDOUT WITH (FORMAT csv, DELIMITER E'\\x01', QUOTE E'\\x02')";
+
+    private final TenantJdbcTemplateRegistry jdbcTemplateRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final int bufferSize;
+
+    /**
+     * Output formats of {@link #export(String, Format, OutputStream)}.
+     */
+    public enum Format {
+        /** Comma-separated {@code id,nome,email} rows with a header line, RFC 4180 quoting. */
+        CSV,
+        /** One {@code {"id":..,"nome":..,"email":..}} object per line. */
+        NDJSON;
+
+        /**
+         * File extension of the format.
+         *
+         * @return the extension, without the dot
+         */
+        public String extension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param jdbcTemplateRegistry the per-tenant JdbcTemplate registry
+     * @param tenantMetrics        the per-tenant metrics
+     * @param bufferSize           bytes buffered before each write to the output
+     */
+    public ClienteExporter(TenantJdbcTemplateRegistry jdbcTemplateRegistry,
+                           TenantMetrics tenantMetrics,
+                           @Value("${app.clientes.export.buffer-size:65536}") int bufferSize) {
+        this.jdbcTemplateRegistry = jdbcTemplateRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Write all clientes of a tenant to a stream, in id order.
+     *
+     * @param tenantId the tenant identifier
+     * @param format   the output format
+     * @param output   the destination; flushed but not closed
+     * @return the number of clientes written
+     * @throws UncheckedIOException if the output cannot be written, typically because the client went away
+     */
+    public long export(String tenantId, Format format, OutputStream output) {
+        logger.debug("Exporting clientes as {} for tenantId: {}", format, tenantId);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getReadJdbcTemplate(tenantId);
+
+            Long exported = tenantJdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                BufferedOutputStream buffered = new BufferedOutputStream(output, bufferSize);
+                try {
+                    long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut(format == Format.CSV ? COPY_CSV_SQL : COPY_NDJSON_SQL, buffered);
+                    buffered.flush();
+                    return rows;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            long rows = exported == null ? 0 : exported;
+            logger.info("Successfully exported {} clientes as {} for tenantId: {}", rows, format, tenantId);
+            return rows;
+
+        } catch (TenantUnavailableException | UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error exporting clientes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error exporting clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "export"));
+        }
+    }
+}
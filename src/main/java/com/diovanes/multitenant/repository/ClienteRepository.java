@@ -1,15 +1,23 @@
 package com.diovanes.multitenant.repository;
 
 import com.diovanes.multitenant.entity.Cliente;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository class for Cliente entity.
@@ -17,24 +25,86 @@ import java.util.List;
  * This repository is responsible for database operations related to Cliente records.
  * It uses JdbcTemplate for direct SQL execution and integrates with the
  * multitenant-datasource-hikari library to manage connections based on tenantId.
+ * Templates are reused per tenant through {@link TenantJdbcTemplateRegistry}.
+ * Every query is timed in {@link TenantMetrics} under a short query name.
+ *
+ * Lookups by id, email and search, and the full stream, go through the tenant's read template
+ * and may be served by a read replica. List, page, table version, change feed and snapshot
+ * queries stay on the primary: the ETags and watermarks they produce must never be ahead of
+ * the rows served with them.
  */
 @Repository
 public class ClienteRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(ClienteRepository.class);
 
-    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final TenantJdbcTemplateRegistry jdbcTemplateRegistry;
+    private final TenantMetrics tenantMetrics;
 
     private static final String SELECT_ALL_CLIENTES_SQL = "SELECT id, nome, email FROM clientes ORDER BY id";
     private static final String SELECT_CLIENTE_BY_ID_SQL = "SELECT id, nome, email FROM clientes WHERE id = ?";
+    private static final String SELECT_CLIENTES_BY_EMAIL_SQL = "SELECT id, nome, email FROM clientes WHERE email = ?";
+    private static final String SELECT_CLIENTES_PAGE_SQL =
+            "SELECT id, nome, email FROM clientes WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SEARCH_CLIENTES_SQL = "SELECT id, nome, email FROM clientes WHERE id > ?";
+    private static final String SELECT_CLIENTES_BY_IDS_SQL = "SELECT id, nome, email FROM clientes WHERE id = ANY(?)";
+    /** The lowercased prefix with its last character incremented, skipping the surrogate range. */
+    private static final String PREFIX_UPPER_BOUND_SQL =
+            "(left(lower(?), -1) || chr(ascii(right(lower(?), 1)) "
+                    + "+ CASE WHEN ascii(right(lower(?), 1)) = 55295 THEN 2049 ELSE 1 END))";
+    private static final String SELECT_TABLE_VERSION_SQL = "SELECT coalesce(sum(changes), 0) FROM clientes_version";
+    /**
+     * Newest {@code updated_at} the change feed and snapshots may read: the visibility lag
+     * before now, and never the start of a transaction still writing to the database, whose
+     * rows carry its start time but only become visible when it commits.
+     */
+    private static final String VISIBLE_UPDATED_AT_SQL =
+            "LEAST(LOCALTIMESTAMP - ? * INTERVAL '1 millisecond', "
+                    + "(SELECT min(xact_start)::timestamp FROM pg_stat_activity "
+                    + "WHERE datname = current_database() AND backend_xid IS NOT NULL))";
+    private static final String SELECT_SNAPSHOT_SQL =
+            "SELECT id, nome, email, updated_at FROM clientes "
+                    + "WHERE updated_at < " + VISIBLE_UPDATED_AT_SQL + " ORDER BY id";
+    private static final String COUNT_UP_TO_ID_SQL = "SELECT count(*) FROM clientes WHERE id <= ?";
+    private static final String SELECT_CHANGES_SQL =
+            "SELECT id, nome, email, updated_at FROM clientes "
+                    + "WHERE updated_at < " + VISIBLE_UPDATED_AT_SQL + " "
+                    + "ORDER BY updated_at, id LIMIT ?";
+    private static final String SELECT_CHANGES_SINCE_SQL =
+            "SELECT id, nome, email, updated_at FROM clientes "
+                    + "WHERE (updated_at, id) > (?, ?) AND updated_at < " + VISIBLE_UPDATED_AT_SQL + " "
+                    + "ORDER BY updated_at, id LIMIT ?";
+
+    private static final RowMapper<Cliente> CLIENTE_ROW_MAPPER = (rs, rowNum) -> new Cliente(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getString(3)
+    );
+
+    private static final RowMapper<ClienteChange> CLIENTE_CHANGE_ROW_MAPPER = (rs, rowNum) -> new ClienteChange(
+            CLIENTE_ROW_MAPPER.mapRow(rs, rowNum),
+            rs.getObject(4, LocalDateTime.class)
+    );
+
+    private final int streamFetchSize;
+    private final int batchChunkSize;
 
     /**
      * Constructor with dependencies injection.
      *
-     * @param multitenantDataSourceManager     the multitenant data source manager
+     * @param jdbcTemplateRegistry             the per-tenant JdbcTemplate registry
+     * @param tenantMetrics                    the per-tenant metrics
+     * @param streamFetchSize                  rows fetched per round trip when streaming
+     * @param batchChunkSize                   maximum ids bound to a single batch lookup query
      */
-    public ClienteRepository(MultitenantDataSourceManager multitenantDataSourceManager) {
-        this.multitenantDataSourceManager = multitenantDataSourceManager;
+    public ClienteRepository(TenantJdbcTemplateRegistry jdbcTemplateRegistry,
+                             TenantMetrics tenantMetrics,
+                             @Value("${app.clientes.stream-fetch-size:500}") int streamFetchSize,
+                             @Value("${app.clientes.batch-chunk-size:1000}") int batchChunkSize) {
+        this.jdbcTemplateRegistry = jdbcTemplateRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.streamFetchSize = streamFetchSize;
+        this.batchChunkSize = batchChunkSize;
     }
 
     /**
@@ -46,10 +116,10 @@ public class ClienteRepository {
     public List<Cliente> findAllByTenant(String tenantId) {
         logger.debug("Fetching all clientes for tenantId: {}", tenantId);
         
+        Timer.Sample sample = Timer.start();
         try {
-            // Get the correct datasource for the tenant from the multitenant library
-            var datasource = multitenantDataSourceManager.getDataSource(tenantId);
-            var tenantJdbcTemplate = new JdbcTemplate(datasource);
+            // Get the JdbcTemplate bound to the tenant's datasource
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
             
             List<Cliente> clientes = tenantJdbcTemplate.query(
                     SELECT_ALL_CLIENTES_SQL,
@@ -59,9 +129,118 @@ public class ClienteRepository {
             logger.info("Successfully fetched {} clientes for tenantId: {}", clientes.size(), tenantId);
             return clientes;
             
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching clientes for tenantId: {}", tenantId, e);
             throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findAll"));
+        }
+    }
+
+    /**
+     * Find one page of clientes for a specific tenant using keyset pagination.
+     *
+     * Rows are read in primary key order starting after the given id, so each page
+     * is a bounded range scan on the primary key index regardless of table size.
+     *
+     * @param tenantId the tenant identifier
+     * @param afterId  only clientes with an id greater than this value are returned
+     * @param limit    maximum number of rows to return
+     * @return a list of at most {@code limit} Cliente objects
+     */
+    public List<Cliente> findPageByTenant(String tenantId, long afterId, int limit) {
+        logger.debug("Fetching page of clientes after id: {} (limit {}) for tenantId: {}", afterId, limit, tenantId);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
+
+            List<Cliente> clientes = tenantJdbcTemplate.query(
+                    SELECT_CLIENTES_PAGE_SQL,
+                    clienteRowMapper(),
+                    afterId,
+                    limit
+            );
+
+            logger.debug("Fetched page of {} clientes for tenantId: {}", clientes.size(), tenantId);
+            return clientes;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching page of clientes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findPage"));
+        }
+    }
+
+    /**
+     * Stream all clientes for a specific tenant to the given consumer.
+     *
+     * The query runs inside a read-only transaction with a bounded fetch size, which makes
+     * the PostgreSQL driver use a server-side cursor instead of buffering the whole result.
+     * Each row is handed to the consumer as soon as it is read, so memory use does not
+     * grow with the size of the tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @param consumer callback invoked once per row, in id order
+     * @return the number of rows streamed
+     */
+    public long streamAllByTenant(String tenantId, Consumer<Cliente> consumer) {
+        logger.debug("Streaming all clientes for tenantId: {} with fetch size {}", tenantId, streamFetchSize);
+
+        long streamed = stream(jdbcTemplateRegistry.getReadJdbcTemplate(tenantId), tenantId, "streamAll",
+                SELECT_ALL_CLIENTES_SQL, clienteRowMapper(), consumer);
+
+        logger.info("Successfully streamed {} clientes for tenantId: {}", streamed, tenantId);
+        return streamed;
+    }
+
+    /**
+     * Stream the clientes of a tenant with their {@code updated_at}, in id order, to build
+     * an in-memory snapshot.
+     *
+     * Rows written in the last {@code visibilityLagMs} or by transactions still in progress are
+     * left out, as in {@link #findChangesByTenant}, so the highest {@code (updated_at, id)}
+     * streamed is a watermark from which the change feed picks up every later write.
+     *
+     * @param tenantId        the tenant identifier
+     * @param visibilityLagMs how far behind the current time to stop
+     * @param consumer        callback invoked once per row, in id order
+     * @return the number of rows streamed
+     */
+    public long streamSnapshotByTenant(String tenantId, long visibilityLagMs, Consumer<ClienteChange> consumer) {
+        logger.debug("Streaming clientes snapshot for tenantId: {} with fetch size {}", tenantId, streamFetchSize);
+
+        return stream(jdbcTemplateRegistry.getJdbcTemplate(tenantId), tenantId, "streamSnapshot",
+                SELECT_SNAPSHOT_SQL, CLIENTE_CHANGE_ROW_MAPPER, consumer, visibilityLagMs);
+    }
+
+    /**
+     * Count the clientes of a tenant up to an id, to detect rows deleted behind a snapshot.
+     *
+     * @param tenantId the tenant identifier
+     * @param maxId    the highest id to count
+     * @return the number of clientes with an id up to {@code maxId}
+     */
+    public long countUpToIdByTenant(String tenantId, long maxId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
+
+            Long count = tenantJdbcTemplate.queryForObject(COUNT_UP_TO_ID_SQL, Long.class, maxId);
+            return count == null ? 0 : count;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error counting clientes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "countUpToId"));
         }
     }
 
@@ -75,15 +254,15 @@ public class ClienteRepository {
     public Cliente findByIdAndTenant(String tenantId, Long id) {
         logger.debug("Fetching cliente with id: {} for tenantId: {}", id, tenantId);
         
+        Timer.Sample sample = Timer.start();
         try {
-            // Get the correct datasource for the tenant from the multitenant library
-            var datasource = multitenantDataSourceManager.getDataSource(tenantId);
-            var tenantJdbcTemplate = new JdbcTemplate(datasource);
+            // Get the JdbcTemplate bound to the tenant's read datasource
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getReadJdbcTemplate(tenantId);
             
             List<Cliente> clientes = tenantJdbcTemplate.query(
                     SELECT_CLIENTE_BY_ID_SQL,
-                    new Object[]{id},
-                    clienteRowMapper()
+                    clienteRowMapper(),
+                    id
             );
             
             if (!clientes.isEmpty()) {
@@ -94,9 +273,231 @@ public class ClienteRepository {
             logger.warn("Cliente with id: {} not found for tenantId: {}", id, tenantId);
             return null;
             
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching cliente with id: {} for tenantId: {}", id, tenantId, e);
             throw new RuntimeException("Error fetching cliente for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findById"));
+        }
+    }
+
+    /**
+     * Find the clientes with an email for a specific tenant.
+     *
+     * Emails are unique per tenant, so the lookup uses the unique index and returns at most
+     * one cliente.
+     *
+     * @param tenantId the tenant identifier
+     * @param email    the exact email
+     * @return the clientes found, empty if none
+     */
+    public List<Cliente> findByEmailAndTenant(String tenantId, String email) {
+        logger.debug("Fetching clientes by email for tenantId: {}", tenantId);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getReadJdbcTemplate(tenantId);
+
+            return tenantJdbcTemplate.query(
+                    SELECT_CLIENTES_BY_EMAIL_SQL,
+                    clienteRowMapper(),
+                    email
+            );
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching clientes by email for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findByEmail"));
+        }
+    }
+
+    /**
+     * Search the clientes of a specific tenant, one keyset page at a time.
+     *
+     * Each filter maps to a condition an index can answer: exact matches use
+     * {@code idx_clientes_nome} and the unique email index; prefixes become a range on
+     * {@code lower(nome)} / {@code lower(email)} with the pattern operators
+     * ({@code ~>=~}, {@code ~<~}), which the {@code text_pattern_ops} indexes serve in any
+     * collation and, unlike {@code LIKE ?}, also in the generic plan of a prepared statement;
+     * {@code contains} is an {@code ILIKE '%...%'} served by the {@code pg_trgm} indexes. Only
+     * the filters present are put in the SQL, so each combination is a distinct prepared
+     * statement with its own plan.
+     *
+     * @param tenantId the tenant identifier
+     * @param search   the filters, at least one set
+     * @param afterId  only clientes with a greater id are returned
+     * @param limit    maximum number of rows to return
+     * @return the matching clientes, in id order
+     */
+    public List<Cliente> searchByTenant(String tenantId, ClienteSearch search, long afterId, int limit) {
+        logger.debug("Searching clientes after id: {} (limit {}) for tenantId: {}", afterId, limit, tenantId);
+
+        StringBuilder sql = new StringBuilder(SEARCH_CLIENTES_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (search.nome() != null) {
+            sql.append(" AND nome = ?");
+            args.add(search.nome());
+        }
+        if (search.email() != null) {
+            sql.append(" AND email = ?");
+            args.add(search.email());
+        }
+        appendPrefix(sql, args, "lower(nome)", search.nomePrefix());
+        appendPrefix(sql, args, "lower(email)", search.emailPrefix());
+        if (search.contains() != null) {
+            sql.append(" AND (nome ILIKE ? OR email ILIKE ?)");
+            String pattern = "%" + escapeLike(search.contains()) + "%";
+            args.add(pattern);
+            args.add(pattern);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getReadJdbcTemplate(tenantId);
+
+            List<Cliente> clientes = tenantJdbcTemplate.query(sql.toString(), clienteRowMapper(), args.toArray());
+
+            logger.debug("Found {} clientes for tenantId: {}", clientes.size(), tenantId);
+            return clientes;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error searching clientes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "search"));
+        }
+    }
+
+    /**
+     * Find many clientes by id for a specific tenant.
+     *
+     * The ids are bound as a single array parameter ({@code WHERE id = ANY(?)}), so each
+     * query is one round trip and one statement regardless of how many ids it carries.
+     * Very large inputs are split into chunks of {@code app.clientes.batch-chunk-size}.
+     *
+     * @param tenantId the tenant identifier
+     * @param ids      the cliente ids; duplicates are allowed
+     * @return the clientes found, in no particular order
+     */
+    public List<Cliente> findByIdsAndTenant(String tenantId, List<Long> ids) {
+        logger.debug("Fetching {} clientes by id for tenantId: {}", ids.size(), tenantId);
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getReadJdbcTemplate(tenantId);
+
+            List<Cliente> clientes = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += batchChunkSize) {
+                Object[] chunk = ids.subList(from, Math.min(from + batchChunkSize, ids.size())).toArray();
+                clientes.addAll(tenantJdbcTemplate.query(
+                        SELECT_CLIENTES_BY_IDS_SQL,
+                        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", chunk)),
+                        clienteRowMapper()
+                ));
+            }
+
+            logger.info("Found {} of {} requested clientes for tenantId: {}", clientes.size(), ids.size(), tenantId);
+            return clientes;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching clientes by id for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findByIds"));
+        }
+    }
+
+    /**
+     * Read the version of a tenant's clientes table.
+     *
+     * The version is the number of statements that changed the table, counted by the
+     * {@code trg_clientes_bump_version} trigger in the 16 rows of {@code clientes_version}.
+     * It grows with every committed insert, update, delete or truncate, and costs a read of
+     * those rows whatever the size of the table.
+     *
+     * @param tenantId the tenant identifier
+     * @return the table version
+     */
+    public long findTableVersionByTenant(String tenantId) {
+        logger.debug("Fetching clientes table version for tenantId: {}", tenantId);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
+
+            Long version = tenantJdbcTemplate.queryForObject(SELECT_TABLE_VERSION_SQL, Long.class);
+            return version == null ? 0 : version;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching clientes table version for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "tableVersion"));
+        }
+    }
+
+    /**
+     * Find clientes written after a watermark for a specific tenant, in write order.
+     *
+     * Rows are read in {@code (updated_at, id)} order starting after the given position, so
+     * each call is a bounded range scan on {@code idx_clientes_updated_at_id}.
+     *
+     * {@code updated_at} is the start time of the writing transaction, not its commit time, so
+     * a position could be passed before a slower transaction with an earlier timestamp becomes
+     * visible. Rows are therefore only read up to the start of the oldest transaction still
+     * writing to the database (from {@code pg_stat_activity}, which shows the sessions of other
+     * roles only to members of {@code pg_read_all_stats}), and never from the last
+     * {@code visibilityLagMs}, which covers a transaction in the moment between its start and
+     * its first write.
+     *
+     * @param tenantId        the tenant identifier
+     * @param sinceUpdatedAt  watermark timestamp, or null to start from the oldest row
+     * @param sinceId         watermark id, used to order rows with the same timestamp
+     * @param visibilityLagMs how far behind the current time to stop
+     * @param limit           maximum number of rows to return
+     * @return at most {@code limit} changes, oldest first
+     */
+    public List<ClienteChange> findChangesByTenant(String tenantId, LocalDateTime sinceUpdatedAt, long sinceId,
+                                                   long visibilityLagMs, int limit) {
+        logger.debug("Fetching changes after ({}, {}) (limit {}) for tenantId: {}", sinceUpdatedAt, sinceId, limit, tenantId);
+
+        Timer.Sample sample = Timer.start();
+        try {
+            var tenantJdbcTemplate = jdbcTemplateRegistry.getJdbcTemplate(tenantId);
+
+            List<ClienteChange> changes = sinceUpdatedAt == null
+                    ? tenantJdbcTemplate.query(SELECT_CHANGES_SQL, CLIENTE_CHANGE_ROW_MAPPER, visibilityLagMs, limit)
+                    : tenantJdbcTemplate.query(SELECT_CHANGES_SINCE_SQL, CLIENTE_CHANGE_ROW_MAPPER,
+                            sinceUpdatedAt, sinceId, visibilityLagMs, limit);
+
+            logger.debug("Fetched {} changes for tenantId: {}", changes.size(), tenantId);
+            return changes;
+
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching changes for tenantId: {}", tenantId, e);
+            throw new RuntimeException("Error fetching clientes for tenant: " + tenantId, e);
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, "findChanges"));
         }
     }
 
@@ -104,18 +505,81 @@ public class ClienteRepository {
      * RowMapper implementation for Cliente entity.
      * Maps each row from the ResultSet to a Cliente object.
      *
+     * The mapper is stateless and shared by all queries; it reads columns by position
+     * and therefore expects the select list to be {@code id, nome, email}.
+     *
      * @return a RowMapper for Cliente objects
      */
-    private RowMapper<Cliente> clienteRowMapper() {
-        return new RowMapper<Cliente>() {
-            @Override
-            public Cliente mapRow(ResultSet rs, int rowNum) throws SQLException {
-                Cliente cliente = new Cliente();
-                cliente.setId(rs.getLong("id"));
-                cliente.setNome(rs.getString("nome"));
-                cliente.setEmail(rs.getString("email"));
-                return cliente;
+    static RowMapper<Cliente> clienteRowMapper() {
+        return CLIENTE_ROW_MAPPER;
+    }
+
+    /**
+     * Append a case-insensitive prefix condition as a range of the pattern operators: every
+     * string starting with the prefix sorts, byte by byte, at or after the prefix and before
+     * the prefix with its last character incremented.
+     *
+     * The prefix is lowercased by PostgreSQL's {@code lower()}, like the indexed column, so
+     * both agree on every character whatever the JVM's case rules.
+     */
+    private static void appendPrefix(StringBuilder sql, List<Object> args, String column, String prefix) {
+        if (prefix == null) {
+            return;
+        }
+        sql.append(" AND ").append(column).append(" ~>=~ lower(?)");
+        args.add(prefix);
+
+        // lower() never maps other characters to the last code point, which has no successor
+        if (prefix.codePointBefore(prefix.length()) != Character.MAX_CODE_POINT) {
+            sql.append(" AND ").append(column).append(" ~<~ ").append(PREFIX_UPPER_BOUND_SQL);
+            for (int i = 0; i < 3; i++) {
+                args.add(prefix);
             }
-        };
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Run a query inside a read-only transaction with a bounded fetch size, which makes the
+     * PostgreSQL driver use a server-side cursor, and hand each row to the consumer as it is read.
+     */
+    private <T> long stream(JdbcTemplate tenantJdbcTemplate, String tenantId, String query, String sql,
+                            RowMapper<T> rowMapper, Consumer<T> consumer, Object... args) {
+        Timer.Sample sample = Timer.start();
+        Long streamed;
+        try {
+            streamed = tenantJdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(streamFetchSize);
+                    new ArgumentPreparedStatementSetter(args).setValues(statement);
+
+                    long rowNum = 0;
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            consumer.accept(rowMapper.mapRow(rs, (int) rowNum));
+                            rowNum++;
+                        }
+                    }
+                    connection.commit();
+                    return rowNum;
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setReadOnly(false);
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        } finally {
+            sample.stop(tenantMetrics.queryTimer(tenantId, query));
+        }
+        return streamed == null ? 0 : streamed;
     }
 }
@@ -0,0 +1,22 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Filters of a cliente search. Null filters are ignored; the others must all match.
+ *
+ * @param nome        exact nome
+ * @param nomePrefix  start of the nome, case-insensitive
+ * @param email       exact email
+ * @param emailPrefix start of the email, case-insensitive
+ * @param contains    text anywhere in the nome or the email, case-insensitive
+ */
+public record ClienteSearch(String nome, String nomePrefix, String email, String emailPrefix, String contains) {
+
+    /**
+     * Whether no filter is set.
+     *
+     * @return true if every filter is null
+     */
+    public boolean isEmpty() {
+        return nome == null && nomePrefix == null && email == null && emailPrefix == null && contains == null;
+    }
+}
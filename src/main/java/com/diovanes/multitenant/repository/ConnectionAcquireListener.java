@@ -0,0 +1,19 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Callback for components that react to how long tenants wait for pool connections.
+ *
+ * Listeners are registered with {@link TenantMetrics} and are called on the borrowing
+ * thread after every acquisition attempt, so implementations must be cheap.
+ */
+public interface ConnectionAcquireListener {
+
+    /**
+     * Called after a connection was borrowed from a tenant's pool, or the attempt failed.
+     *
+     * @param tenantId  the tenant identifier
+     * @param waitNanos time spent waiting for the pool
+     * @param success   whether a connection was obtained
+     */
+    void onConnectionAcquired(String tenantId, long waitNanos, boolean success);
+}
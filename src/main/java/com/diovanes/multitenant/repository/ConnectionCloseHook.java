@@ -0,0 +1,76 @@
+package com.diovanes.multitenant.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection proxy that runs a callback the first time the connection is closed.
+ *
+ * Used to return per-tenant resources (permits, budget slots) that were taken
+ * when the connection was borrowed.
+ */
+final class ConnectionCloseHook implements InvocationHandler {
+
+    private final Connection target;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ConnectionCloseHook(Connection target, Runnable onClose) {
+        this.target = target;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Wrap a connection.
+     *
+     * @param target  the connection to wrap
+     * @param onClose callback run once, after the first {@code close()}
+     * @return the proxied connection
+     */
+    static Connection wrap(Connection target, Runnable onClose) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionCloseHook.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionCloseHook(target, onClose));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("close".equals(name) && method.getParameterCount() == 0) {
+            try {
+                target.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    onClose.run();
+                }
+            }
+            return null;
+        }
+        if ("unwrap".equals(name) && Connection.class.equals(args[0])) {
+            return target;
+        }
+        if ("isWrapperFor".equals(name) && Connection.class.equals(args[0])) {
+            return true;
+        }
+        if ("equals".equals(name)) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(name)) {
+            return System.identityHashCode(proxy);
+        }
+        if ("toString".equals(name)) {
+            return "ConnectionCloseHook[" + target + "]";
+        }
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
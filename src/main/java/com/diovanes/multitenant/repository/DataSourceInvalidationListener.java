@@ -0,0 +1,23 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Callback for components that keep per-tenant state derived from a tenant's DataSource.
+ *
+ * Listeners are registered with {@link MultitenantDataSourceManager} and are notified
+ * whenever a tenant's datasource is invalidated or all datasources are closed, so they
+ * can drop anything that still references the old connection pool.
+ */
+public interface DataSourceInvalidationListener {
+
+    /**
+     * Called after the datasource of a tenant has been invalidated.
+     *
+     * @param tenantId the tenant identifier
+     */
+    void onDataSourceInvalidated(String tenantId);
+
+    /**
+     * Called after all datasources have been closed.
+     */
+    void onAllDataSourcesClosed();
+}
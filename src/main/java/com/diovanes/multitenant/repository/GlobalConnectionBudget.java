@@ -0,0 +1,535 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection budget shared by all tenant pools of this JVM.
+ *
+ * Every connection borrowed from a tenant pool takes one slot of a global budget of
+ * {@code app.jdbc.global-budget.max-connections} slots and gives it back when closed, so
+ * the number of connections in use against the database servers never exceeds the budget,
+ * however many tenant pools are open.
+ *
+ * Slots are shared as follows:
+ * <ul>
+ *   <li>Each tenant that is using or waiting for connections has a guaranteed minimum
+ *       ({@code minConnections} in tenants.yml, or {@code app.jdbc.global-budget.min-per-tenant}).
+ *       Slots reserved for active tenants are never lent to others.</li>
+ *   <li>The remaining slots, including the minimum of tenants that are idle, are lent to
+ *       whichever tenants need them, up to each tenant's {@code poolSize}.</li>
+ *   <li>When the budget is exhausted, callers queue. Freed slots go first to tenants below
+ *       their minimum, then by weighted fair queueing on the tenant's {@code weight} in
+ *       tenants.yml (default 1): a tenant with weight 2 is served twice as often as one with
+ *       weight 1 while both have callers waiting. Callers of one tenant are served in FIFO order.</li>
+ * </ul>
+ *
+ * Slots count borrowed connections, but a tenant pool keeps the connections it returned open
+ * and idle, so the budget also bounds the physical connections of the tenant pools: their minimum
+ * idle connections are set to zero, and when a granted slot would make a pool open a connection
+ * while the budget's worth of connections is already open, the idle connections of other tenant
+ * pools are evicted first (see {@link #configurePool(String, HikariDataSource)}). The minimum of
+ * a tenant is a share of the budget, not a number of warm connections.
+ *
+ * Enabled by {@code app.jdbc.global-budget.enabled}.
+ */
+@Component
+public class GlobalConnectionBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalConnectionBudget.class);
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final boolean enabled;
+    private final int maxConnections;
+    private final int defaultMinPerTenant;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, TenantShare> shares = new HashMap<>();
+    private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private int inUse;
+    private int waiting;
+    private int reservedUnused;
+    private double virtualTime;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry the declared tenants, for pool sizes, weights and minimums
+     * @param meterRegistry        the meter registry
+     * @param enabled              whether the budget is active
+     * @param maxConnections       total connections shared by all tenant pools
+     * @param defaultMinPerTenant  guaranteed connections of a tenant without {@code minConnections}
+     */
+    public GlobalConnectionBudget(TenantConfigRegistry tenantConfigRegistry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.jdbc.global-budget.enabled:false}") boolean enabled,
+                                  @Value("${app.jdbc.global-budget.max-connections:200}") int maxConnections,
+                                  @Value("${app.jdbc.global-budget.min-per-tenant:1}") int defaultMinPerTenant) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("app.jdbc.global-budget.max-connections must be at least 1");
+        }
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.enabled = enabled;
+        this.maxConnections = maxConnections;
+        this.defaultMinPerTenant = Math.max(0, defaultMinPerTenant);
+
+        if (enabled) {
+            long declaredMinimum = 0;
+            for (TenantConfig tenant : tenantConfigRegistry.all()) {
+                declaredMinimum += minimumOf(tenant);
+            }
+            if (declaredMinimum > maxConnections) {
+                logger.warn("Sum of tenant minimum connections ({}) exceeds the global budget of {}; "
+                        + "minimums hold only while fewer tenants are active at once", declaredMinimum, maxConnections);
+            }
+            logger.info("Global connection budget enabled with {} connections", maxConnections);
+
+            Gauge.builder("jdbc.budget.max", () -> this.maxConnections)
+                    .description("Connections shared by all tenant pools")
+                    .register(meterRegistry);
+            Gauge.builder("jdbc.budget.in.use", this, GlobalConnectionBudget::getInUse)
+                    .description("Connections currently borrowed against the global budget")
+                    .register(meterRegistry);
+            Gauge.builder("jdbc.budget.waiting", this, GlobalConnectionBudget::getWaiting)
+                    .description("Callers waiting for a slot of the global budget")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Whether the budget is active.
+     *
+     * @return true if acquisitions are budgeted
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait for a slot of the budget, waiting at most the tenant's connection timeout, or less
+     * if the current thread's {@link RequestDeadline} comes first.
+     *
+     * Once the slot is granted, idle connections of other tenant pools are evicted if the
+     * tenant's pool has none to reuse and the budget's worth of connections is already open.
+     *
+     * @param tenantId the tenant identifier
+     * @throws SQLException if no slot became available in time or the wait was interrupted
+     */
+    public void acquire(String tenantId) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        long timeoutMs = RequestDeadline.boundWaitMillis(tenant != null ? tenant.connectionTimeoutMs() : 30000);
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        lock.lock();
+        try {
+            TenantShare share = shareFor(tenantId);
+            Waiter waiter = enqueue(share);
+            dispatch();
+
+            while (!waiter.granted) {
+                if (remainingNanos <= 0L) {
+                    abandon(tenantId, share, waiter);
+                    throw new SQLTransientConnectionException(
+                            "Timed out after " + timeoutMs + " ms waiting for a slot of the global connection budget for tenant " + tenantId);
+                }
+                try {
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                } catch (InterruptedException e) {
+                    if (!waiter.granted) {
+                        abandon(tenantId, share, waiter);
+                        Thread.currentThread().interrupt();
+                        throw new SQLTransientConnectionException(
+                                "Interrupted waiting for a slot of the global connection budget for tenant " + tenantId, e);
+                    }
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        reclaimIdleConnections(tenantId);
+    }
+
+    /**
+     * Return a slot taken with {@link #acquire(String)} and hand it to the next waiter.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void release(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            TenantShare share = shares.get(tenantId);
+            if (share == null || share.inUse == 0) {
+                logger.warn("Budget slot released for tenantId: {} without a matching acquire", tenantId);
+                return;
+            }
+            reservedUnused -= share.unusedReserve();
+            share.inUse--;
+            inUse--;
+            reservedUnused += share.unusedReserve();
+            dropIfUndeclared(tenantId, share);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply the tenant's current minimum, maximum and weight after tenants.yml was reloaded.
+     *
+     * Slots already held are kept; the new share applies to the next acquisitions.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void reconfigure(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            TenantShare share = shares.get(tenantId);
+            if (share == null) {
+                return;
+            }
+            reservedUnused -= share.unusedReserve();
+            TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+            share.maximum = tenant != null ? tenant.poolSize() : 10;
+            share.minimum = Math.min(minimumOf(tenant), share.maximum);
+            share.weight = weightOf(tenant);
+            reservedUnused += share.unusedReserve();
+            logger.debug("Budget share of tenantId: {} reconfigured (minimum {}, maximum {}, weight {})",
+                    tenantId, share.minimum, share.maximum, share.weight);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget a tenant removed from tenants.yml.
+     *
+     * Its share stops reserving slots at once, and is dropped as soon as the tenant holds
+     * no slot and has no waiter, so connections still borrowed while its pool drains are
+     * given back normally.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void remove(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+
+        pools.remove(tenantId);
+        lock.lock();
+        try {
+            TenantShare share = shares.get(tenantId);
+            if (share == null) {
+                return;
+            }
+            reservedUnused -= share.unusedReserve();
+            share.minimum = 0;
+            reservedUnused += share.unusedReserve();
+            dropIfUndeclared(tenantId, share);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Align a newly opened tenant pool with the budget.
+     *
+     * Sets the pool's minimum idle connections to zero, so evicted and timed-out idle
+     * connections are not opened again in the background, and caps its maximum size at the
+     * budget. The pool's open connections are counted from then on, and its idle connections
+     * may be evicted to make room for other tenants.
+     *
+     * @param tenantId the tenant identifier
+     * @param pool     the tenant's pool
+     */
+    public void configurePool(String tenantId, HikariDataSource pool) {
+        if (!enabled) {
+            return;
+        }
+
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        if (config == null) {
+            return;
+        }
+        if (config.getMaximumPoolSize() > maxConnections) {
+            config.setMaximumPoolSize(maxConnections);
+        }
+        config.setMinimumIdle(0);
+        pools.put(tenantId, pool);
+        logger.debug("Pool of tenantId: {} aligned with the global budget (minimumIdle {}, maximumPoolSize {})",
+                tenantId, config.getMinimumIdle(), config.getMaximumPoolSize());
+    }
+
+    /**
+     * Connections currently borrowed against the budget.
+     *
+     * @return the number of slots in use
+     */
+    public int getInUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Callers currently waiting for a slot.
+     *
+     * @return the number of waiters
+     */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Make room for the connection a tenant is about to borrow. If its pool has no idle
+     * connection, Hikari opens one; when that would take the open connections of the tenant
+     * pools past the budget, the pools holding idle connections are soft-evicted, pools with
+     * nothing borrowed first. Soft eviction also closes the borrowed connections of a pool
+     * when they are returned, so busier pools are only evicted when idle ones are not enough.
+     */
+    private void reclaimIdleConnections(String tenantId) {
+        HikariPoolMXBean own = poolMXBeanOf(tenantId, pools.get(tenantId));
+        if (own != null && own.getIdleConnections() > 0) {
+            // The borrow reuses an open connection
+            return;
+        }
+
+        int open = 0;
+        List<Lender> lenders = new ArrayList<>();
+        for (Map.Entry<String, HikariDataSource> entry : pools.entrySet()) {
+            HikariPoolMXBean poolMXBean = poolMXBeanOf(entry.getKey(), entry.getValue());
+            if (poolMXBean == null) {
+                continue;
+            }
+            int idle = poolMXBean.getIdleConnections();
+            if (idle > 0 && !entry.getKey().equals(tenantId)) {
+                lenders.add(new Lender(poolMXBean, idle, poolMXBean.getActiveConnections() > 0));
+            }
+            open += poolMXBean.getTotalConnections();
+        }
+
+        int excess = open + 1 - maxConnections;
+        if (excess <= 0 || lenders.isEmpty()) {
+            return;
+        }
+        lenders.sort(Comparator.comparing(Lender::busy).thenComparing(Lender::idle, Comparator.reverseOrder()));
+        for (Lender lender : lenders) {
+            lender.pool().softEvictConnections();
+            excess -= lender.idle();
+            if (excess <= 0) {
+                break;
+            }
+        }
+        logger.debug("Evicted idle connections of other tenant pools to open one for tenantId: {}", tenantId);
+    }
+
+    private HikariPoolMXBean poolMXBeanOf(String tenantId, HikariDataSource pool) {
+        if (pool == null) {
+            return null;
+        }
+        HikariPoolMXBean poolMXBean = pool.isClosed() ? null : pool.getHikariPoolMXBean();
+        if (poolMXBean == null) {
+            pools.remove(tenantId, pool);
+        }
+        return poolMXBean;
+    }
+
+    private Waiter enqueue(TenantShare share) {
+        reservedUnused -= share.unusedReserve();
+        double start = Math.max(virtualTime, share.lastFinish);
+        Waiter waiter = new Waiter(start, start + 1.0 / share.weight, lock.newCondition());
+        share.lastFinish = waiter.finish;
+        share.waiters.addLast(waiter);
+        waiting++;
+        reservedUnused += share.unusedReserve();
+        return waiter;
+    }
+
+    private void abandon(String tenantId, TenantShare share, Waiter waiter) {
+        reservedUnused -= share.unusedReserve();
+        if (share.waiters.remove(waiter)) {
+            waiting--;
+        }
+        reservedUnused += share.unusedReserve();
+        dropIfUndeclared(tenantId, share);
+        // A waiter that leaves may unblock tenants it was reserving slots for
+        dispatch();
+    }
+
+    /**
+     * Hand free slots to waiting callers: tenants below their minimum first, then the
+     * head waiter with the smallest virtual finish time.
+     */
+    private void dispatch() {
+        while (inUse < maxConnections && waiting > 0) {
+            TenantShare next = null;
+            for (TenantShare share : shares.values()) {
+                if (share.waiters.isEmpty() || !isEligible(share)) {
+                    continue;
+                }
+                if (next == null || precedes(share, next)) {
+                    next = share;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+
+            reservedUnused -= next.unusedReserve();
+            Waiter waiter = next.waiters.pollFirst();
+            waiting--;
+            next.inUse++;
+            inUse++;
+            reservedUnused += next.unusedReserve();
+
+            virtualTime = Math.max(virtualTime, waiter.start);
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    private boolean isEligible(TenantShare share) {
+        if (share.inUse >= share.maximum) {
+            return false;
+        }
+        if (share.inUse < share.minimum) {
+            return true;
+        }
+        int free = maxConnections - inUse;
+        int reservedForOthers = reservedUnused - share.unusedReserve();
+        return free > reservedForOthers;
+    }
+
+    private static boolean precedes(TenantShare candidate, TenantShare current) {
+        boolean candidateBelowMin = candidate.inUse < candidate.minimum;
+        boolean currentBelowMin = current.inUse < current.minimum;
+        if (candidateBelowMin != currentBelowMin) {
+            return candidateBelowMin;
+        }
+        return candidate.waiters.peekFirst().finish < current.waiters.peekFirst().finish;
+    }
+
+    private void dropIfUndeclared(String tenantId, TenantShare share) {
+        if (share.inUse == 0 && share.waiters.isEmpty() && !tenantConfigRegistry.contains(tenantId)) {
+            shares.remove(tenantId, share);
+        }
+    }
+
+    private TenantShare shareFor(String tenantId) {
+        return shares.computeIfAbsent(tenantId, key -> {
+            TenantConfig tenant = tenantConfigRegistry.get(key);
+            int maximum = tenant != null ? tenant.poolSize() : 10;
+            int minimum = Math.min(minimumOf(tenant), maximum);
+            double weight = weightOf(tenant);
+            logger.debug("Budget share of tenantId: {} (minimum {}, maximum {}, weight {})", key, minimum, maximum, weight);
+            return new TenantShare(minimum, maximum, weight);
+        });
+    }
+
+    private static double weightOf(TenantConfig tenant) {
+        return tenant != null ? Math.max(1L, tenant.longProperty("weight", 1L)) : 1.0;
+    }
+
+    private int minimumOf(TenantConfig tenant) {
+        if (tenant == null) {
+            return defaultMinPerTenant;
+        }
+        return (int) Math.max(0L, tenant.longProperty("minConnections", defaultMinPerTenant));
+    }
+
+    /**
+     * Budget state of one tenant. Guarded by the budget lock.
+     */
+    private static final class TenantShare {
+
+        private int minimum;
+        private int maximum;
+        private double weight;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int inUse;
+        private double lastFinish;
+
+        private TenantShare(int minimum, int maximum, double weight) {
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.weight = weight;
+        }
+
+        /**
+         * Slots held back for this tenant: its unused minimum while it is active.
+         */
+        private int unusedReserve() {
+            boolean active = inUse > 0 || !waiters.isEmpty();
+            return active ? Math.max(0, minimum - inUse) : 0;
+        }
+    }
+
+    /**
+     * A tenant pool holding idle connections, as seen when room is made for another tenant.
+     */
+    private record Lender(HikariPoolMXBean pool, int idle, boolean busy) {
+    }
+
+    /**
+     * A caller queued for a slot. Guarded by the budget lock.
+     */
+    private static final class Waiter {
+
+        private final double start;
+        private final double finish;
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(double start, double finish, Condition condition) {
+            this.start = start;
+            this.finish = finish;
+            this.condition = condition;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.diovanes.multitenant.repository;
 
 import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.TenantConfigChanges;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,14 @@ import javax.sql.DataSource;
 import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -18,34 +28,86 @@ import java.sql.SQLException;
  * This class acts as a wrapper/adapter between the application and the multitenant-datasource-hikari
  * library, providing the correct DataSource for each tenant.
  *
- * The actual DataSourceManager is injected via Spring configuration.
+ * The actual DataSourceManager is injected via Spring configuration and reached through
+ * {@link TenantPoolRouter}, which keeps tenants on the right pool generation across
+ * reloads of tenants.yml.
+ *
+ * Every pool is handed out wrapped in a {@link TenantDataSource}, which routes
+ * connection acquisition through the tenant's circuit breaker and, when enabled,
+ * the {@link GlobalConnectionBudget}.
+ *
+ * Tenants that declare read replicas also get a read DataSource, which serves read-only
+ * queries from a healthy replica (see {@link TenantReplicaPools}) and falls back to the primary.
  */
 @Component
 public class MultitenantDataSourceManager {
 
     private static final Logger logger = LoggerFactory.getLogger(MultitenantDataSourceManager.class);
 
-    private final DataSourceManager dataSourceManager;
+    private final TenantPoolRouter tenantPoolRouter;
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final TenantHealthMonitor tenantHealthMonitor;
+    private final TenantCircuitBreakerRegistry circuitBreakers;
+    private final TenantConcurrencyLimiter concurrencyLimiter;
+    private final GlobalConnectionBudget connectionBudget;
+    private final TenantMetrics tenantMetrics;
+    private final SharedTenantPools sharedTenantPools;
+    private final TenantReplicaPools tenantReplicaPools;
+
+    private final List<DataSourceInvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, TenantDataSource> tenantDataSources = new ConcurrentHashMap<>();
+    private final Map<String, TenantReadDataSource> readDataSources = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<TenantDataSource>> pendingResolutions = new ConcurrentHashMap<>();
 
     /**
      * Constructor with dependency injection.
      *
-     * @param dataSourceManager the DataSourceManager instance from Spring config
+     * @param tenantPoolRouter     the router to each tenant's pool generation
+     * @param tenantConfigRegistry the declared tenants
+     * @param tenantHealthMonitor  the background tenant health monitor
+     * @param circuitBreakers      the per-tenant circuit breakers
+     * @param concurrencyLimiter   the per-tenant connection concurrency limiter
+     * @param connectionBudget     the connection budget shared by all tenant pools
+     * @param tenantMetrics        the per-tenant metrics
+     * @param sharedTenantPools    the pools shared per database in shared-pool mode
+     * @param tenantReplicaPools   the pools of the tenants' read replicas
      */
-    public MultitenantDataSourceManager(DataSourceManager dataSourceManager) {
-        this.dataSourceManager = dataSourceManager;
+    public MultitenantDataSourceManager(TenantPoolRouter tenantPoolRouter,
+                                        TenantConfigRegistry tenantConfigRegistry,
+                                        TenantHealthMonitor tenantHealthMonitor,
+                                        TenantCircuitBreakerRegistry circuitBreakers,
+                                        TenantConcurrencyLimiter concurrencyLimiter,
+                                        GlobalConnectionBudget connectionBudget,
+                                        TenantMetrics tenantMetrics,
+                                        SharedTenantPools sharedTenantPools,
+                                        TenantReplicaPools tenantReplicaPools) {
+        this.tenantPoolRouter = tenantPoolRouter;
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.tenantHealthMonitor = tenantHealthMonitor;
+        this.circuitBreakers = circuitBreakers;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.connectionBudget = connectionBudget;
+        this.tenantMetrics = tenantMetrics;
+        this.sharedTenantPools = sharedTenantPools;
+        this.tenantReplicaPools = tenantReplicaPools;
     }
 
     /**
-     * Get the HikariDataSource for a specific tenant.
+     * Get the DataSource for a specific tenant.
      *
      * This method calls the multitenant-datasource-hikari library API to retrieve
-     * the correct HikariDataSource for the given tenantId.
-     * The datasource is cached automatically by the library.
+     * the correct HikariDataSource for the given tenantId, and returns it wrapped in a
+     * {@link TenantDataSource}. The pool is cached automatically by the library; the
+     * wrapper is served directly for as long as its pool is open. When the pool has to be
+     * (re)built, concurrent callers for the same tenant wait for a single build. A
+     * hibernating pool is woken up.
+     * Use {@code unwrap(HikariDataSource.class)} to reach the pool itself.
      *
      * @param tenantId the tenant identifier
-     * @return the HikariDataSource for the tenant
-     * @throws RuntimeException if tenant is not found or datasource retrieval fails
+     * @return the DataSource for the tenant
+     * @throws IllegalArgumentException if the tenant is not declared in tenants.yml
+     * @throws TenantUnavailableException if the tenant's circuit breaker is open
+     * @throws RuntimeException if datasource retrieval fails
      */
     public DataSource getDataSource(String tenantId) {
         logger.debug("Getting datasource for tenantId: {}", tenantId);
@@ -55,15 +117,36 @@ public class MultitenantDataSourceManager {
             throw new IllegalArgumentException("tenantId cannot be null or empty");
         }
 
+        // Undeclared tenants never reach the breakers or the pools, so they leave no state behind
+        if (!tenantConfigRegistry.contains(tenantId)) {
+            logger.warn("Rejected request for undeclared tenantId: {}", tenantId);
+            throw new IllegalArgumentException("Unknown tenantId: " + tenantId);
+        }
+
+        // Fail fast while the tenant's breaker is open
+        ensureAvailable(tenantId);
+
+        // Fast path: the tenant's pool is open, no need to ask the library
+        TenantDataSource current = tenantDataSources.get(tenantId);
+        if (current != null && !current.isPoolClosed()) {
+            current.markUsed();
+            if (current.isHibernating() && current.wake()) {
+                tenantHealthMonitor.resume(tenantId, current);
+                logger.info("Woke up hibernating pool for tenantId: {}", tenantId);
+            }
+            return current;
+        }
+
         try {
-            // Get the HikariDataSource from the library
+            // Get the HikariDataSource from the library, once for all concurrent callers
             // The datasource is automatically cached and reused
-            HikariDataSource dataSource = dataSourceManager.getDataSource(tenantId);
+            TenantDataSource dataSource = resolveCoalesced(tenantId);
 
             logger.debug("DataSource retrieved successfully for tenantId: {}", tenantId);
             return dataSource;
         } catch (SQLException e) {
             logger.error("SQL error retrieving datasource for tenantId: {}", tenantId, e);
+            circuitBreakers.onFailure(tenantId);
             throw new RuntimeException("Error retrieving datasource for tenantId: " + tenantId, e);
         } catch (Exception e) {
             logger.error("Error retrieving datasource for tenantId: {}", tenantId, e);
@@ -71,6 +154,39 @@ public class MultitenantDataSourceManager {
         }
     }
 
+    /**
+     * Get the DataSource for the read-only queries of a specific tenant.
+     *
+     * For a tenant with read replicas, the returned DataSource hands out connections to the
+     * replica picked for each read, and to the primary when none is healthy or the tenant was
+     * written to by this instance in the last {@code app.replicas.max-lag-ms}. For other
+     * tenants it is the primary DataSource from {@link #getDataSource(String)}.
+     *
+     * Only queries that tolerate data a little behind the primary may use it.
+     *
+     * @param tenantId the tenant identifier
+     * @return the read DataSource for the tenant
+     * @throws TenantUnavailableException if the tenant has no replicas and its circuit breaker is open
+     * @throws RuntimeException if tenant is not found or datasource retrieval fails
+     */
+    public DataSource getReadDataSource(String tenantId) {
+        if (!tenantReplicaPools.hasReplicas(tenantId)) {
+            return getDataSource(tenantId);
+        }
+        return readDataSources.computeIfAbsent(tenantId,
+                key -> new TenantReadDataSource(key, tenantReplicaPools, this));
+    }
+
+    /**
+     * Record a write to a tenant's primary, so the tenant's reads stay on the primary until
+     * its replicas have caught up.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void markWritten(String tenantId) {
+        tenantReplicaPools.markWritten(tenantId);
+    }
+
     /**
      * Get a direct Connection for a specific tenant.
      *
@@ -89,10 +205,14 @@ public class MultitenantDataSourceManager {
             throw new IllegalArgumentException("tenantId cannot be null or empty");
         }
 
+        DataSource dataSource = getDataSource(tenantId);
+
         try {
-            Connection connection = dataSourceManager.getConnection(tenantId);
+            Connection connection = dataSource.getConnection();
             logger.debug("Connection retrieved successfully for tenantId: {}", tenantId);
             return connection;
+        } catch (TenantUnavailableException | RequestDeadlineExceededException e) {
+            throw e;
         } catch (SQLException e) {
             logger.error("SQL error retrieving connection for tenantId: {}", tenantId, e);
             throw new RuntimeException("Error retrieving connection for tenantId: " + tenantId, e);
@@ -102,24 +222,53 @@ public class MultitenantDataSourceManager {
         }
     }
 
+    /**
+     * Fail fast if the tenant's circuit breaker rejects calls.
+     *
+     * This does not consume the half-open probe; it only rejects while the breaker is
+     * open and its retry interval has not elapsed.
+     *
+     * @param tenantId the tenant identifier
+     * @throws TenantUnavailableException if the breaker is open
+     */
+    public void ensureAvailable(String tenantId) {
+        circuitBreakers.rejectIfOpen(tenantId);
+    }
+
+    /**
+     * Whether a tenant is declared in tenants.yml.
+     *
+     * @param tenantId the tenant identifier
+     * @return true if the tenant is declared
+     */
+    public boolean isTenantDeclared(String tenantId) {
+        return tenantConfigRegistry.contains(tenantId);
+    }
+
     /**
      * Validates if a tenant exists and has a valid datasource.
      *
+     * Answered from the last result of {@link TenantHealthMonitor}, without borrowing
+     * a connection from the pool.
+     *
      * @param tenantId the tenant identifier
-     * @return true if tenant is valid and datasource is available, false otherwise
+     * @return true if tenant is declared and not known to be down, false otherwise
      */
     public boolean isTenantValid(String tenantId) {
-        logger.debug("Validating tenant: {}", tenantId);
-        
-        try {
-            DataSource dataSource = getDataSource(tenantId);
-            var connection = dataSource.getConnection();
-            connection.close();
-            return true;
-        } catch (Exception e) {
-            logger.warn("Tenant validation failed for tenantId: {}", tenantId, e);
-            return false;
+        boolean valid = tenantHealthMonitor.isTenantValid(tenantId);
+        if (!valid) {
+            logger.debug("Tenant validation failed for tenantId: {}", tenantId);
         }
+        return valid;
+    }
+
+    /**
+     * Register a listener to be notified when datasources are invalidated or closed.
+     *
+     * @param listener the listener to register
+     */
+    public void addInvalidationListener(DataSourceInvalidationListener listener) {
+        invalidationListeners.add(listener);
     }
 
     /**
@@ -129,11 +278,22 @@ public class MultitenantDataSourceManager {
     public void closeAll() {
         logger.info("Closing all datasources and clearing cache");
         try {
-            dataSourceManager.closeAll();
+            tenantPoolRouter.closeAll();
+            tenantDataSources.forEach(tenantHealthMonitor::suspend);
+            tenantDataSources.clear();
+            tenantMetrics.untrackAllPools();
             logger.info("All datasources closed successfully");
         } catch (Exception e) {
             logger.error("Error closing datasources", e);
         }
+
+        for (DataSourceInvalidationListener listener : invalidationListeners) {
+            try {
+                listener.onAllDataSourcesClosed();
+            } catch (Exception e) {
+                logger.error("Error notifying datasource listener on close", e);
+            }
+        }
     }
 
     /**
@@ -145,10 +305,190 @@ public class MultitenantDataSourceManager {
     public void invalidateDataSourceCache(String tenantId) {
         logger.info("Invalidating datasource cache for tenantId: {}", tenantId);
         try {
-            dataSourceManager.invalidateDataSourceCache(tenantId);
+            tenantPoolRouter.invalidate(tenantId);
+            suspendProbes(tenantId, tenantDataSources.remove(tenantId));
+            tenantMetrics.untrackPool(tenantId);
+            circuitBreakers.reset(tenantId);
             logger.info("Datasource cache invalidated for tenantId: {}", tenantId);
         } catch (Exception e) {
             logger.error("Error invalidating datasource cache for tenantId: {}", tenantId, e);
         }
+
+        notifyInvalidated(tenantId);
+    }
+
+    /**
+     * Apply a reload of tenants.yml without touching unchanged tenants.
+     *
+     * Added and changed tenants are routed to {@code nextGeneration}, built from the new
+     * file; the pools of changed and removed tenants are drained and closed in the
+     * background. Per-tenant state derived from the old settings (wrappers, breakers,
+     * metrics, caches, concurrency limits, budget shares, health probes, replica pools) is
+     * refreshed for the affected tenants only. Callers of {@link #getDataSource(String)} are
+     * never blocked.
+     *
+     * The routes are swapped before {@code next} is published in the tenant registry, so an
+     * added tenant is never declared while it is still routed to a generation that does not
+     * know it.
+     *
+     * @param next           the new tenants.yml
+     * @param nextGeneration library DataSourceManager built from the new tenants.yml, or null
+     *                       if no tenant was added, changed or removed
+     * @param changes        the difference between the old and new tenants.yml
+     * @param kept           tenants whose pools are unchanged
+     */
+    public void applyTenantChanges(TenantConfigRegistry next, DataSourceManager nextGeneration,
+                                   TenantConfigChanges changes, Set<String> kept) {
+        Set<String> moved = new LinkedHashSet<>(changes.added());
+        moved.addAll(changes.changed());
+        tenantPoolRouter.swap(nextGeneration, kept, moved, changes.removed());
+        tenantConfigRegistry.replaceWith(next);
+
+        Set<String> replaced = new LinkedHashSet<>(changes.changed());
+        replaced.addAll(changes.removed());
+        for (String tenantId : replaced) {
+            suspendProbes(tenantId, tenantDataSources.remove(tenantId));
+            tenantMetrics.untrackPool(tenantId);
+            circuitBreakers.reset(tenantId);
+            notifyInvalidated(tenantId);
+        }
+        for (String tenantId : changes.removed()) {
+            circuitBreakers.remove(tenantId);
+            connectionBudget.remove(tenantId);
+        }
+
+        Set<String> reconfigured = new LinkedHashSet<>(moved);
+        reconfigured.addAll(changes.updated());
+        for (String tenantId : reconfigured) {
+            concurrencyLimiter.reconfigure(tenantId);
+            connectionBudget.reconfigure(tenantId);
+        }
+        tenantHealthMonitor.onTenantsChanged(changes);
+        sharedTenantPools.closeUnused();
+        tenantReplicaPools.onTenantsChanged();
+        readDataSources.keySet().removeIf(tenantId -> !tenantReplicaPools.hasReplicas(tenantId));
+
+        logger.info("Tenants reloaded: {} added, {} changed, {} removed, {} updated",
+                changes.added().size(), changes.changed().size(), changes.removed().size(), changes.updated().size());
+    }
+
+    private void suspendProbes(String tenantId, TenantDataSource dataSource) {
+        if (dataSource != null) {
+            tenantHealthMonitor.suspend(tenantId, dataSource);
+        }
+    }
+
+    private void notifyInvalidated(String tenantId) {
+        for (DataSourceInvalidationListener listener : invalidationListeners) {
+            try {
+                listener.onDataSourceInvalidated(tenantId);
+            } catch (Exception e) {
+                logger.error("Error notifying datasource listener for tenantId: {}", tenantId, e);
+            }
+        }
+    }
+
+    /**
+     * Shrink and release the pools of tenants without recent traffic.
+     *
+     * A pool idle for {@code hibernateAfterMs} is shrunk to zero connections; one idle for
+     * {@code releaseAfterMs} is closed and dropped from the library cache. Pools with
+     * borrowed connections are left alone. Health probes of those tenants pause until the
+     * next request, which wakes the pool up or builds a new one. A caller that got the
+     * wrapper of a released pool just before it was closed borrows from a new pool instead
+     * (see {@link TenantDataSource}).
+     *
+     * @param hibernateAfterMs idle time before the pool is shrunk to zero connections
+     * @param releaseAfterMs   idle time before the pool is closed
+     */
+    public void hibernateIdleDataSources(long hibernateAfterMs, long releaseAfterMs) {
+        long now = System.currentTimeMillis();
+        for (TenantDataSource dataSource : tenantDataSources.values()) {
+            String tenantId = dataSource.getTenantId();
+            long idleMs = dataSource.idleMillis(now);
+            if (idleMs < hibernateAfterMs || dataSource.activeConnections() > 0) {
+                continue;
+            }
+
+            if (idleMs >= releaseAfterMs) {
+                release(tenantId, dataSource);
+            } else if (dataSource.hibernate()) {
+                tenantHealthMonitor.suspend(tenantId, dataSource);
+                logger.info("Hibernating pool for tenantId: {} after {} ms without traffic", tenantId, idleMs);
+            }
+        }
+    }
+
+    private void release(String tenantId, TenantDataSource dataSource) {
+        if (!tenantDataSources.remove(tenantId, dataSource)) {
+            return;
+        }
+        tenantHealthMonitor.suspend(tenantId, dataSource);
+        try {
+            tenantPoolRouter.invalidate(tenantId);
+            tenantMetrics.untrackPool(tenantId);
+            logger.info("Released idle pool for tenantId: {}", tenantId);
+        } catch (Exception e) {
+            logger.error("Error releasing idle pool for tenantId: {}", tenantId, e);
+        }
+        notifyInvalidated(tenantId);
+    }
+
+    private TenantDataSource resolveCoalesced(String tenantId) throws SQLException {
+        CompletableFuture<TenantDataSource> build = new CompletableFuture<>();
+        CompletableFuture<TenantDataSource> inFlight = pendingResolutions.putIfAbsent(tenantId, build);
+        if (inFlight != null) {
+            return awaitResolution(inFlight);
+        }
+
+        try {
+            HikariDataSource pool = tenantPoolRouter.getDataSource(tenantId);
+            TenantDataSource dataSource = tenantDataSourceFor(tenantId, pool);
+            dataSource.markUsed();
+            tenantHealthMonitor.resume(tenantId, dataSource);
+            build.complete(dataSource);
+            return dataSource;
+        } catch (SQLException | RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingResolutions.remove(tenantId, build);
+        }
+    }
+
+    private static TenantDataSource awaitResolution(CompletableFuture<TenantDataSource> inFlight) throws SQLException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private TenantDataSource tenantDataSourceFor(String tenantId, HikariDataSource pool) {
+        TenantDataSource current = tenantDataSources.get(tenantId);
+        if (current != null && current.getTargetDataSource() == pool) {
+            return current;
+        }
+
+        return tenantDataSources.compute(tenantId, (key, existing) -> {
+            if (existing != null && existing.getTargetDataSource() == pool) {
+                return existing;
+            }
+            if (sharedTenantPools.isShared(pool)) {
+                // Shared pools are sized and measured per database, not per tenant
+                return new TenantDataSource(key, pool, circuitBreakers, concurrencyLimiter, connectionBudget,
+                        tenantMetrics, sharedTenantPools, sharedTenantPools.schemaOf(key), this::resolveCoalesced);
+            }
+            connectionBudget.configurePool(key, pool);
+            tenantMetrics.trackPool(key, pool);
+            return new TenantDataSource(key, pool, circuitBreakers, concurrencyLimiter, connectionBudget,
+                    tenantMetrics, sharedTenantPools, null, this::resolveCoalesced);
+        });
     }
 }
@@ -0,0 +1,143 @@
+package com.diovanes.multitenant.repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end deadline of the request being served on the current thread.
+ *
+ * Installed around a unit of work with {@link #call(Supplier)}, and read by the data access
+ * layer to shorten every wait it would otherwise bound only by the tenant's
+ * {@code connectionTimeoutMs}: the {@link TenantConcurrencyLimiter} permit, the
+ * {@link GlobalConnectionBudget} slot, the Hikari acquisition and the JDBC query timeout.
+ * Threads without a deadline behave as before.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String tenantId;
+    private final long timeoutMs;
+    private final long expiresAtNanos;
+
+    private RequestDeadline(String tenantId, long timeoutMs) {
+        this.tenantId = tenantId;
+        this.timeoutMs = timeoutMs;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * Start a deadline now.
+     *
+     * @param tenantId  the tenant the request is for
+     * @param timeoutMs time the request has, from now
+     * @return the deadline
+     */
+    public static RequestDeadline after(String tenantId, long timeoutMs) {
+        return new RequestDeadline(tenantId, Math.max(0, timeoutMs));
+    }
+
+    /**
+     * Deadline of the work running on the current thread.
+     *
+     * @return the deadline, or null if none is installed
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bound a configured wait by the current thread's deadline.
+     *
+     * @param configuredMs the wait configured for the operation
+     * @return the smaller of the configured wait and the time left, at least 1 ms
+     * @throws RequestDeadlineExceededException if the deadline has already passed
+     */
+    public static long boundWaitMillis(long configuredMs) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return configuredMs;
+        }
+        if (deadline.isExpired()) {
+            throw deadline.exceeded(null);
+        }
+        return Math.min(configuredMs, deadline.remainingMillis());
+    }
+
+    /**
+     * Gets the tenant identifier.
+     *
+     * @return the tenantId
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Time the request was given.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long timeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Time left before the deadline.
+     *
+     * @return nanoseconds left, 0 or negative once expired
+     */
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    /**
+     * Time left before the deadline, rounded up.
+     *
+     * @return milliseconds left, at least 1 while not expired and 0 after
+     */
+    public long remainingMillis() {
+        long remaining = remainingNanos();
+        return remaining <= 0 ? 0 : (remaining + 999_999) / 1_000_000;
+    }
+
+    /**
+     * Whether the deadline has passed.
+     *
+     * @return true once no time is left
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Run work with this deadline installed on the current thread.
+     *
+     * @param work the work to run
+     * @param <T>  the result type
+     * @return the result of the work
+     */
+    public <T> T call(Supplier<T> work) {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Exception reporting that this deadline was exceeded.
+     *
+     * @param cause the failure the deadline caused, or null
+     * @return the exception
+     */
+    public RequestDeadlineExceededException exceeded(Throwable cause) {
+        return new RequestDeadlineExceededException(tenantId, timeoutMs, cause);
+    }
+}
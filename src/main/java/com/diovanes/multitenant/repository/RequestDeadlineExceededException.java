@@ -0,0 +1,46 @@
+package com.diovanes.multitenant.repository;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Thrown when a request for a tenant runs out of time, while waiting for a connection or
+ * while its query runs.
+ *
+ * The query, if one was running, has been cancelled by the JDBC query timeout.
+ */
+public class RequestDeadlineExceededException extends QueryTimeoutException {
+
+    private final String tenantId;
+    private final long timeoutMs;
+
+    /**
+     * Constructor.
+     *
+     * @param tenantId  the tenant identifier
+     * @param timeoutMs the time the request was given, in milliseconds
+     * @param cause     the failure the deadline caused, or null
+     */
+    public RequestDeadlineExceededException(String tenantId, long timeoutMs, Throwable cause) {
+        super("Request deadline of " + timeoutMs + " ms exceeded for tenant " + tenantId, cause);
+        this.tenantId = tenantId;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Gets the tenant identifier.
+     *
+     * @return the tenantId
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Gets the time the request was given.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+}
@@ -0,0 +1,213 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared-pool mode: one Hikari pool per physical database instead of one per tenant.
+ *
+ * Tenants whose tenants.yml entries share {@code host}, {@code port}, {@code user},
+ * {@code password} and {@code database} and differ only by {@code schema} get connections
+ * from the same pool. Isolation comes from the tenant's schema being set as the connection's
+ * {@code search_path} when it is checked out; the schema last set on each physical connection
+ * is remembered, so a connection handed to the same tenant again needs no round trip.
+ *
+ * A PostgreSQL connection is bound to one database, so tenants in different databases
+ * still get different pools, even on the same server.
+ *
+ * Enabled by {@code app.pools.shared.enabled}; a tenant opts out with
+ * {@code sharedPool: false} in tenants.yml. Shared pools are sized by
+ * {@code app.pools.shared.maximum-pool-size} and publish Hikari's own metrics.
+ */
+@Component
+public class SharedTenantPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedTenantPools.class);
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maximumPoolSize;
+    private final int minimumIdle;
+
+    private final Map<ServerKey, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private final Map<Connection, String> boundSchemas = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry the declared tenants
+     * @param meterRegistry        the meter registry for the shared pools' metrics
+     * @param enabled              whether tenants share pools per database
+     * @param maximumPoolSize      maximum size of each shared pool
+     * @param minimumIdle          minimum idle connections of each shared pool
+     */
+    public SharedTenantPools(TenantConfigRegistry tenantConfigRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.pools.shared.enabled:false}") boolean enabled,
+                             @Value("${app.pools.shared.maximum-pool-size:20}") int maximumPoolSize,
+                             @Value("${app.pools.shared.minimum-idle:2}") int minimumIdle) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maximumPoolSize = maximumPoolSize;
+        this.minimumIdle = minimumIdle;
+        if (enabled) {
+            logger.info("Shared-pool mode enabled: one pool of up to {} connections per database", maximumPoolSize);
+        }
+    }
+
+    /**
+     * Get the shared pool serving a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the shared pool, or null if the tenant uses a pool of its own
+     */
+    public HikariDataSource poolFor(String tenantId) {
+        if (!enabled) {
+            return null;
+        }
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        if (tenant == null || !tenant.booleanProperty("sharedPool", true)) {
+            return null;
+        }
+        return pools.computeIfAbsent(ServerKey.of(tenant), key -> createPool(key, tenant));
+    }
+
+    /**
+     * The schema a tenant's connections are bound to in a shared pool.
+     *
+     * @param tenantId the tenant identifier
+     * @return the schema from tenants.yml
+     */
+    public String schemaOf(String tenantId) {
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        return tenant != null && tenant.schema() != null ? tenant.schema() : "public";
+    }
+
+    /**
+     * Whether a pool is one of the shared pools.
+     *
+     * @param pool the pool
+     * @return true if the pool serves several tenants
+     */
+    public boolean isShared(HikariDataSource pool) {
+        return enabled && pools.containsValue(pool);
+    }
+
+    /**
+     * Point a connection checked out of a shared pool at the tenant's schema.
+     *
+     * If the statement fails, the connection is closed and the error is rethrown, so a
+     * connection is never handed out with another tenant's schema.
+     *
+     * @param connection the borrowed connection
+     * @param schema     the tenant's schema
+     * @throws SQLException if the search_path cannot be set
+     */
+    public void bindSchema(Connection connection, String schema) throws SQLException {
+        Connection physical = connection.unwrap(Connection.class);
+        if (schema.equals(boundSchemas.get(physical))) {
+            return;
+        }
+
+        boundSchemas.remove(physical);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + quoteIdentifier(schema));
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        boundSchemas.put(physical, schema);
+    }
+
+    /**
+     * Close shared pools that no declared tenant uses any more and that have no borrowed
+     * connections. Pools still in use are retried on the next call.
+     */
+    public void closeUnused() {
+        if (!enabled) {
+            return;
+        }
+        Set<ServerKey> inUse = new HashSet<>();
+        for (TenantConfig tenant : tenantConfigRegistry.all()) {
+            if (tenant.booleanProperty("sharedPool", true)) {
+                inUse.add(ServerKey.of(tenant));
+            }
+        }
+        pools.entrySet().removeIf(entry -> {
+            if (inUse.contains(entry.getKey())) {
+                return false;
+            }
+            HikariPoolMXBean poolBean = entry.getValue().getHikariPoolMXBean();
+            if (poolBean != null && poolBean.getActiveConnections() > 0) {
+                return false;
+            }
+            logger.info("Closing unused shared pool {}", entry.getKey());
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    /**
+     * Close every shared pool.
+     */
+    @PreDestroy
+    public void closeAll() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+    }
+
+    private HikariDataSource createPool(ServerKey key, TenantConfig tenant) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:postgresql://" + key.host() + ":" + key.port() + "/" + key.database());
+        config.setUsername(key.user());
+        config.setPassword(key.password());
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(Math.min(minimumIdle, maximumPoolSize));
+        config.setConnectionTimeout(tenant.connectionTimeoutMs());
+        config.setPoolName("shared-" + key);
+        config.setMetricRegistry(meterRegistry);
+
+        logger.info("Creating shared pool {} (first tenant: {})", key, tenant.tenantId());
+        return new HikariDataSource(config);
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * The physical database a tenant's connections go to.
+     */
+    private record ServerKey(String host, int port, String user, String password, String database) {
+
+        private static ServerKey of(TenantConfig tenant) {
+            return new ServerKey(tenant.host(), tenant.port(), tenant.user(), tenant.password(), tenant.database());
+        }
+
+        @Override
+        public String toString() {
+            return user + "@" + host + ":" + port + "/" + database;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.diovanes.multitenant.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant circuit breakers guarding access to tenant databases.
+ *
+ * A breaker opens after a number of consecutive failed or slow connection acquisitions.
+ * While open, calls for the tenant fail immediately with {@link TenantUnavailableException}
+ * instead of waiting for the pool's connection timeout. After the open interval a single
+ * call is let through (half-open); its outcome closes the breaker or opens it again. A
+ * call let through before the breaker opened that succeeds afterwards leaves it open.
+ *
+ * Breaker state is exported as the {@code tenant.circuit.state} gauge
+ * (0 = closed, 1 = half-open, 2 = open) and transitions as the
+ * {@code tenant.circuit.transitions} counter, tagged as described in {@link TenantMetrics}.
+ * Tenants sharing the {@code other} tag report the worst state among them.
+ *
+ * Breakers are only created for declared tenants: {@link MultitenantDataSourceManager} rejects
+ * any other tenantId before a connection is attempted, and drops the breakers of tenants removed
+ * from tenants.yml, so the number of breakers is bounded by the declared tenants.
+ */
+@Component
+public class TenantCircuitBreakerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantCircuitBreakerRegistry.class);
+
+    /**
+     * Breaker states.
+     */
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long slowCallThresholdNanos;
+    private final long openDurationNanos;
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final Set<String> registeredStateTags = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param meterRegistry        registry for breaker metrics
+     * @param tenantMetrics        tenant tagging policy
+     * @param enabled              whether breakers are active
+     * @param failureThreshold     consecutive failed or slow calls that open the breaker
+     * @param slowCallThresholdMs  connection acquisitions slower than this count as failures
+     * @param openDurationMs       how long the breaker stays open before probing
+     */
+    public TenantCircuitBreakerRegistry(MeterRegistry meterRegistry,
+                                        TenantMetrics tenantMetrics,
+                                        @Value("${app.circuit-breaker.enabled:true}") boolean enabled,
+                                        @Value("${app.circuit-breaker.failure-threshold:3}") int failureThreshold,
+                                        @Value("${app.circuit-breaker.slow-call-threshold-ms:2000}") long slowCallThresholdMs,
+                                        @Value("${app.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+        this.meterRegistry = meterRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+    }
+
+    /**
+     * Ask permission to call a tenant's database.
+     *
+     * @param tenantId the tenant identifier
+     * @throws TenantUnavailableException if the breaker is open, or half-open with a probe in flight
+     */
+    public void acquirePermission(String tenantId) {
+        if (enabled) {
+            breakerFor(tenantId).acquirePermission();
+        }
+    }
+
+    /**
+     * Reject the call if the breaker is open and its open interval has not elapsed.
+     *
+     * Unlike {@link #acquirePermission(String)} this never claims the half-open probe,
+     * so it can be used as a cheap pre-check before the real call.
+     *
+     * @param tenantId the tenant identifier
+     * @throws TenantUnavailableException if the breaker is open
+     */
+    public void rejectIfOpen(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+        Breaker breaker = breakers.get(tenantId);
+        if (breaker != null) {
+            breaker.rejectIfOpen();
+        }
+    }
+
+    /**
+     * Record a completed call.
+     *
+     * Calls slower than the slow-call threshold are recorded as failures.
+     *
+     * @param tenantId      the tenant identifier
+     * @param durationNanos how long the call took
+     */
+    public void onSuccess(String tenantId, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        if (durationNanos > slowCallThresholdNanos) {
+            logger.warn("Slow connection acquisition for tenantId: {} ({} ms)",
+                    tenantId, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            breakerFor(tenantId).onFailure();
+        } else {
+            breakerFor(tenantId).onSuccess();
+        }
+    }
+
+    /**
+     * Record a failed call.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void onFailure(String tenantId) {
+        if (enabled) {
+            breakerFor(tenantId).onFailure();
+        }
+    }
+
+    /**
+     * Give back a permission whose call ended without saying anything about the database,
+     * such as a call abandoned when its request ran out of time. The half-open probe, if
+     * this was it, is released for the next caller.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void onAbandoned(String tenantId) {
+        if (enabled) {
+            breakerFor(tenantId).onAbandoned();
+        }
+    }
+
+    /**
+     * Current state of a tenant's breaker.
+     *
+     * @param tenantId the tenant identifier
+     * @return the state; CLOSED for tenants that were never called
+     */
+    public State getState(String tenantId) {
+        Breaker breaker = breakers.get(tenantId);
+        return breaker == null ? State.CLOSED : breaker.state();
+    }
+
+    /**
+     * Forget the breaker of a tenant, resetting it to closed.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void reset(String tenantId) {
+        Breaker breaker = breakers.get(tenantId);
+        if (breaker != null) {
+            breaker.reset();
+        }
+    }
+
+    /**
+     * Drop the breaker of a tenant that is no longer declared.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void remove(String tenantId) {
+        breakers.remove(tenantId);
+    }
+
+    private Breaker breakerFor(String tenantId) {
+        Breaker breaker = breakers.get(tenantId);
+        if (breaker != null) {
+            return breaker;
+        }
+
+        breaker = breakers.computeIfAbsent(tenantId, Breaker::new);
+        String tag = tenantMetrics.tenantTag(tenantId);
+        if (registeredStateTags.add(tag)) {
+            Gauge.builder("tenant.circuit.state", () -> worstState(tag))
+                    .description("Circuit breaker state (0 = closed, 1 = half-open, 2 = open)")
+                    .tag("tenantId", tag)
+                    .register(meterRegistry);
+        }
+        return breaker;
+    }
+
+    private int worstState(String tag) {
+        int worst = State.CLOSED.ordinal();
+        for (Map.Entry<String, Breaker> entry : breakers.entrySet()) {
+            if (tag.equals(tenantMetrics.tenantTag(entry.getKey()))) {
+                worst = Math.max(worst, entry.getValue().state().ordinal());
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * State machine of a single tenant's breaker.
+     */
+    private final class Breaker {
+
+        private final String tenantId;
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAtNanos;
+        private boolean probeInFlight;
+
+        Breaker(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        synchronized void acquirePermission() {
+            if (state == State.CLOSED) {
+                return;
+            }
+
+            long elapsed = System.nanoTime() - openedAtNanos;
+            if (state == State.OPEN && elapsed >= openDurationNanos) {
+                transitionTo(State.HALF_OPEN);
+            }
+
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return;
+            }
+
+            throw unavailable(state == State.OPEN ? openDurationNanos - elapsed : 0);
+        }
+
+        synchronized void rejectIfOpen() {
+            if (state == State.OPEN) {
+                long elapsed = System.nanoTime() - openedAtNanos;
+                if (elapsed < openDurationNanos) {
+                    throw unavailable(openDurationNanos - elapsed);
+                }
+            }
+        }
+
+        private TenantUnavailableException unavailable(long remainingNanos) {
+            return new TenantUnavailableException(
+                    tenantId,
+                    (long) Math.ceil(remainingNanos / 1_000_000_000d),
+                    "Tenant database unavailable: " + tenantId);
+        }
+
+        synchronized void onSuccess() {
+            if (state == State.OPEN) {
+                // Admitted before the breaker opened; only the half-open probe may close it
+                return;
+            }
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            if (state != State.CLOSED) {
+                transitionTo(State.CLOSED);
+            }
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            probeInFlight = false;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                openedAtNanos = System.nanoTime();
+                transitionTo(State.OPEN);
+            }
+        }
+
+        synchronized void onAbandoned() {
+            probeInFlight = false;
+        }
+
+        synchronized void reset() {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            if (state != State.CLOSED) {
+                transitionTo(State.CLOSED);
+            }
+        }
+
+        private void transitionTo(State next) {
+            logger.warn("Circuit breaker for tenantId: {} changed from {} to {}", tenantId, state, next);
+            Counter.builder("tenant.circuit.transitions")
+                    .description("Circuit breaker state transitions")
+                    .tag("tenantId", tenantMetrics.tenantTag(tenantId))
+                    .tag("from", state.name())
+                    .tag("to", next.name())
+                    .register(meterRegistry)
+                    .increment();
+            state = next;
+        }
+    }
+}
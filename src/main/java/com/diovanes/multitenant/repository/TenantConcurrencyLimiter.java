@@ -0,0 +1,147 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant semaphore in front of connection acquisition.
+ *
+ * Each tenant gets as many permits as its {@code poolSize} in tenants.yml. A caller must
+ * hold a permit to borrow a connection and gives it back when the connection is closed,
+ * so excess callers wait here, in a fair FIFO queue, instead of piling up inside the pool.
+ * This matters when requests run on virtual threads: there is no thread-pool bound left,
+ * and thousands of concurrent waiters would otherwise contend for a handful of connections.
+ *
+ * Enabled by {@code app.jdbc.tenant-concurrency-limit.enabled}, which defaults to the
+ * value of {@code app.virtual-threads.enabled}.
+ */
+@Component
+public class TenantConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantConcurrencyLimiter.class);
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final boolean enabled;
+
+    private final Map<String, TenantPermits> semaphores = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry the declared tenants, for pool sizes and timeouts
+     * @param enabled              whether the limiter is active
+     */
+    public TenantConcurrencyLimiter(TenantConfigRegistry tenantConfigRegistry,
+                                    @Value("${app.jdbc.tenant-concurrency-limit.enabled:${app.virtual-threads.enabled:false}}") boolean enabled) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether the limiter is active.
+     *
+     * @return true if acquisitions are limited
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait for a permit, waiting at most the tenant's connection timeout, or less if the
+     * current thread's {@link RequestDeadline} comes first.
+     *
+     * @param tenantId the tenant identifier
+     * @throws SQLException if no permit became available in time or the wait was interrupted
+     */
+    public void acquire(String tenantId) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        long timeoutMs = RequestDeadline.boundWaitMillis(tenant != null ? tenant.connectionTimeoutMs() : 30000);
+        try {
+            if (!semaphoreFor(tenantId).tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + timeoutMs + " ms waiting for a connection slot for tenant " + tenantId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a connection slot for tenant " + tenantId, e);
+        }
+    }
+
+    /**
+     * Return a permit taken with {@link #acquire(String)}.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void release(String tenantId) {
+        if (enabled) {
+            semaphoreFor(tenantId).release();
+        }
+    }
+
+    /**
+     * Apply the tenant's current {@code poolSize} after tenants.yml was reloaded.
+     *
+     * Permits held by in-flight callers stay valid; the limit converges to the new size
+     * as they are returned.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void reconfigure(String tenantId) {
+        TenantPermits permits = semaphores.get(tenantId);
+        if (permits != null) {
+            permits.resize(permitsFor(tenantId));
+            logger.debug("Limiting tenantId: {} to {} concurrent connections", tenantId, permits.size);
+        }
+    }
+
+    private Semaphore semaphoreFor(String tenantId) {
+        return semaphores.computeIfAbsent(tenantId, key -> {
+            int permits = permitsFor(key);
+            logger.debug("Limiting tenantId: {} to {} concurrent connections", key, permits);
+            return new TenantPermits(permits);
+        });
+    }
+
+    private int permitsFor(String tenantId) {
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        return tenant != null ? tenant.poolSize() : 10;
+    }
+
+    /**
+     * Fair semaphore whose number of permits can be changed while permits are held.
+     */
+    private static final class TenantPermits extends Semaphore {
+
+        private int size;
+
+        private TenantPermits(int size) {
+            super(size, true);
+            this.size = size;
+        }
+
+        private synchronized void resize(int newSize) {
+            int delta = newSize - size;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+            size = newSize;
+        }
+    }
+}
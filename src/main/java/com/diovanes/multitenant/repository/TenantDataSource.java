@@ -0,0 +1,306 @@
+package com.diovanes.multitenant.repository;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource handed out by {@link MultitenantDataSourceManager} for a tenant.
+ *
+ * Delegates to the tenant's pool from the multitenant library and routes every
+ * connection acquisition through the tenant's circuit breaker, so an unreachable
+ * database fails fast instead of holding the caller for the pool timeout. When the
+ * {@link TenantConcurrencyLimiter} is enabled, a permit is also taken before borrowing
+ * from the pool and returned when the connection is closed, and likewise a slot of the
+ * {@link GlobalConnectionBudget} shared by all tenants. Acquisition time is recorded in
+ * {@link TenantMetrics}.
+ *
+ * In shared-pool mode the target is a pool shared with other tenants of the same
+ * database (see {@link SharedTenantPools}), and every connection is pointed at the
+ * tenant's schema before it is handed out.
+ *
+ * The wrapper also carries the pool's lifecycle state: when it was last used, and whether
+ * it is hibernating, i.e. shrunk to zero idle connections by
+ * {@link MultitenantDataSourceManager#hibernateIdleDataSources(long, long)}. A caller may
+ * still hold the wrapper when its pool is released or replaced; if the pool turns out to
+ * be closed when it borrows, the connection is taken from the tenant's current pool
+ * instead, so the caller neither fails nor counts a failure on the circuit breaker.
+ */
+public class TenantDataSource extends DelegatingDataSource {
+
+    private final String tenantId;
+    private final TenantCircuitBreakerRegistry circuitBreakers;
+    private final TenantConcurrencyLimiter concurrencyLimiter;
+    private final GlobalConnectionBudget connectionBudget;
+    private final TenantMetrics tenantMetrics;
+    private final SharedTenantPools sharedPools;
+    private final String sharedSchema;
+    private final PoolResolver poolResolver;
+
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+    private final AtomicBoolean hibernating = new AtomicBoolean();
+    private volatile int awakeMinimumIdle;
+
+    /**
+     * Constructor.
+     *
+     * @param tenantId           the tenant identifier
+     * @param target             the tenant's pool
+     * @param circuitBreakers    the circuit breaker registry
+     * @param concurrencyLimiter the per-tenant concurrency limiter
+     * @param connectionBudget   the connection budget shared by all tenants
+     * @param tenantMetrics      the per-tenant metrics
+     * @param sharedPools        the shared pools, used to bind the tenant's schema
+     * @param sharedSchema       the tenant's schema if {@code target} is a shared pool, otherwise null
+     * @param poolResolver       resolves the tenant's current DataSource once {@code target} is closed
+     */
+    public TenantDataSource(String tenantId,
+                            DataSource target,
+                            TenantCircuitBreakerRegistry circuitBreakers,
+                            TenantConcurrencyLimiter concurrencyLimiter,
+                            GlobalConnectionBudget connectionBudget,
+                            TenantMetrics tenantMetrics,
+                            SharedTenantPools sharedPools,
+                            String sharedSchema,
+                            PoolResolver poolResolver) {
+        super(target);
+        this.tenantId = tenantId;
+        this.circuitBreakers = circuitBreakers;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.connectionBudget = connectionBudget;
+        this.sharedPools = sharedPools;
+        this.sharedSchema = sharedSchema;
+        this.poolResolver = poolResolver;
+        this.tenantMetrics = tenantMetrics;
+    }
+
+    /**
+     * Gets the tenant identifier.
+     *
+     * @return the tenantId
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Record that the tenant is being served now.
+     */
+    public void markUsed() {
+        lastUsedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Time since the tenant was last served.
+     *
+     * @param nowMillis the current time
+     * @return idle time in milliseconds
+     */
+    public long idleMillis(long nowMillis) {
+        return nowMillis - lastUsedMillis;
+    }
+
+    /**
+     * Whether the underlying pool has been closed, by the library or on release.
+     *
+     * @return true if the pool can no longer hand out connections
+     */
+    public boolean isPoolClosed() {
+        return getTargetDataSource() instanceof HikariDataSource pool && pool.isClosed();
+    }
+
+    /**
+     * Connections currently borrowed from the underlying pool.
+     *
+     * @return the number of active connections, or 0 if unknown
+     */
+    public int activeConnections() {
+        HikariPoolMXBean poolBean = poolBean();
+        return poolBean == null ? 0 : poolBean.getActiveConnections();
+    }
+
+    /**
+     * Whether the target pool is shared with other tenants.
+     *
+     * @return true in shared-pool mode
+     */
+    public boolean isSharedPool() {
+        return sharedSchema != null;
+    }
+
+    /**
+     * Whether the pool is hibernating.
+     *
+     * @return true if the pool was shrunk to zero idle connections
+     */
+    public boolean isHibernating() {
+        return hibernating.get();
+    }
+
+    /**
+     * Shrink the pool to zero connections: no idle connections are kept, and the ones
+     * open now are closed as soon as they are idle. Shared pools are never shrunk on
+     * behalf of a single tenant.
+     *
+     * @return true if this call put the pool to sleep
+     */
+    boolean hibernate() {
+        if (isSharedPool() || !(getTargetDataSource() instanceof HikariDataSource pool)
+                || !hibernating.compareAndSet(false, true)) {
+            return false;
+        }
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        awakeMinimumIdle = config.getMinimumIdle();
+        config.setMinimumIdle(0);
+        HikariPoolMXBean poolBean = poolBean();
+        if (poolBean != null) {
+            poolBean.softEvictConnections();
+        }
+        return true;
+    }
+
+    /**
+     * Restore the minimum idle connections the pool had before hibernating.
+     *
+     * @return true if this call woke the pool up
+     */
+    boolean wake() {
+        if (!hibernating.compareAndSet(true, false)) {
+            return false;
+        }
+        if (getTargetDataSource() instanceof HikariDataSource pool) {
+            pool.getHikariConfigMXBean().setMinimumIdle(awakeMinimumIdle);
+        }
+        return true;
+    }
+
+    private HikariPoolMXBean poolBean() {
+        return getTargetDataSource() instanceof HikariDataSource pool ? pool.getHikariPoolMXBean() : null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return acquireConnection();
+        } catch (SQLException | RuntimeException e) {
+            if (deadlineExpired() && !(e instanceof RequestDeadlineExceededException)
+                    && !(e instanceof TenantUnavailableException)) {
+                throw RequestDeadline.current().exceeded(e);
+            }
+            throw e;
+        }
+    }
+
+    private Connection acquireConnection() throws SQLException {
+        concurrencyLimiter.acquire(tenantId);
+        try {
+            connectionBudget.acquire(tenantId);
+        } catch (SQLException | RuntimeException e) {
+            concurrencyLimiter.release(tenantId);
+            throw e;
+        }
+        // Claimed only once the local slots are held, so a slot timeout never strands the half-open probe
+        try {
+            circuitBreakers.acquirePermission(tenantId);
+        } catch (RuntimeException e) {
+            releaseSlots();
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = borrowFromOpenPool();
+        } catch (SQLException | RuntimeException e) {
+            releaseSlots();
+            tenantMetrics.recordAcquire(tenantId, System.nanoTime() - start, false);
+            if (deadlineExpired()) {
+                // Cut short by the request, not failed by the database
+                circuitBreakers.onAbandoned(tenantId);
+            } else {
+                circuitBreakers.onFailure(tenantId);
+            }
+            throw e;
+        }
+        long acquireNanos = System.nanoTime() - start;
+        tenantMetrics.recordAcquire(tenantId, acquireNanos, true);
+        circuitBreakers.onSuccess(tenantId, acquireNanos);
+        if (!concurrencyLimiter.isEnabled() && !connectionBudget.isEnabled()) {
+            return connection;
+        }
+        return ConnectionCloseHook.wrap(connection, this::releaseSlots);
+    }
+
+    private Connection borrowFromOpenPool() throws SQLException {
+        try {
+            return borrowFrom(this);
+        } catch (SQLException e) {
+            if (!isPoolClosed()) {
+                throw e;
+            }
+            // Released or replaced after the caller got this wrapper: the tenant has a new pool
+            return borrowFrom(poolResolver.resolve(tenantId));
+        }
+    }
+
+    private Connection borrowFrom(TenantDataSource dataSource) throws SQLException {
+        Connection connection = borrow(dataSource.obtainTargetDataSource());
+        if (dataSource.sharedSchema != null) {
+            sharedPools.bindSchema(connection, dataSource.sharedSchema);
+        }
+        return connection;
+    }
+
+    /**
+     * Borrow a connection from a pool, waiting no longer than the current thread's
+     * deadline allows.
+     */
+    static Connection borrow(DataSource target) throws SQLException {
+        if (RequestDeadline.current() != null && target instanceof HikariDataSource pool && !pool.isClosed()
+                && pool.getHikariPoolMXBean() instanceof HikariPool hikariPool) {
+            long timeoutMs = RequestDeadline.boundWaitMillis(pool.getConnectionTimeout());
+            if (timeoutMs < pool.getConnectionTimeout()) {
+                return hikariPool.getConnection(timeoutMs);
+            }
+        }
+        return target.getConnection();
+    }
+
+    static boolean deadlineExpired() {
+        RequestDeadline deadline = RequestDeadline.current();
+        return deadline != null && deadline.isExpired();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Tenant credentials are configured in tenants.yml");
+    }
+
+    private void releaseSlots() {
+        connectionBudget.release(tenantId);
+        concurrencyLimiter.release(tenantId);
+    }
+
+    /**
+     * Resolves the DataSource currently serving a tenant.
+     */
+    @FunctionalInterface
+    interface PoolResolver {
+
+        /**
+         * Get the tenant's current DataSource, opening its pool if needed.
+         *
+         * @param tenantId the tenant identifier
+         * @return the tenant's DataSource
+         * @throws SQLException if the pool cannot be created
+         */
+        TenantDataSource resolve(String tenantId) throws SQLException;
+    }
+}
@@ -0,0 +1,24 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Snapshot of a tenant's health, as recorded by the last probe.
+ *
+ * @param tenantId            the tenant identifier
+ * @param status              the current status
+ * @param lastLatencyMs       duration of the last probe in milliseconds, or -1 if never probed
+ * @param lastCheckedAt       epoch millis of the last probe, or 0 if never probed
+ * @param consecutiveFailures number of failed probes in a row
+ * @param lastError           message of the last failure, or null
+ */
+public record TenantHealth(
+        String tenantId,
+        TenantStatus status,
+        long lastLatencyMs,
+        long lastCheckedAt,
+        int consecutiveFailures,
+        String lastError) {
+
+    static TenantHealth unknown(String tenantId) {
+        return new TenantHealth(tenantId, TenantStatus.UNKNOWN, -1, 0, 0, null);
+    }
+}
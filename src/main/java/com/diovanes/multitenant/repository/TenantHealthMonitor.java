@@ -0,0 +1,299 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigChanges;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background health monitor for tenant databases.
+ *
+ * Each tenant declared in tenants.yml is probed on its own schedule
+ * ({@code healthCheckIntervalMs} in the tenant entry, or {@code app.health.interval-ms}).
+ * Only tenants with an open pool are probed: a tenant stays suspended until its first
+ * request opens the pool (see {@link #resume(String, DataSource)}), and again while the
+ * pool hibernates or after it is released, so probes never open or keep connections for
+ * a tenant without traffic. A probe borrows a connection through the tenant's
+ * {@link TenantDataSource}, so it goes through the circuit breaker and counts against the
+ * {@link GlobalConnectionBudget} like any request, and validates it; the outcome is
+ * stored so that status and validity checks are answered from memory without touching
+ * the pool. Probes follow reloads of tenants.yml: added tenants are scheduled, removed
+ * ones stop, and changed ones are rescheduled with their new interval.
+ */
+@Component
+public class TenantHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantHealthMonitor.class);
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final boolean enabled;
+    private final long defaultIntervalMs;
+    private final long degradedLatencyMs;
+    private final int downAfterFailures;
+    private final int validationTimeoutSeconds;
+    private final int probeThreads;
+
+    private final Map<String, TenantHealth> health = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> schedules = new ConcurrentHashMap<>();
+    private final Map<String, DataSource> probeTargets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry     the declared tenants
+     * @param enabled                  whether background probes run
+     * @param defaultIntervalMs        probe interval for tenants without their own setting
+     * @param degradedLatencyMs        probes slower than this mark the tenant DEGRADED
+     * @param downAfterFailures        consecutive failures before the tenant is DOWN
+     * @param validationTimeoutSeconds timeout passed to {@link Connection#isValid(int)}
+     * @param probeThreads             number of threads running probes
+     */
+    public TenantHealthMonitor(TenantConfigRegistry tenantConfigRegistry,
+                               @Value("${app.health.enabled:true}") boolean enabled,
+                               @Value("${app.health.interval-ms:30000}") long defaultIntervalMs,
+                               @Value("${app.health.degraded-latency-ms:500}") long degradedLatencyMs,
+                               @Value("${app.health.down-after-failures:2}") int downAfterFailures,
+                               @Value("${app.health.validation-timeout-seconds:5}") int validationTimeoutSeconds,
+                               @Value("${app.health.probe-threads:2}") int probeThreads) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.enabled = enabled;
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.degradedLatencyMs = degradedLatencyMs;
+        this.downAfterFailures = downAfterFailures;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.probeThreads = probeThreads;
+
+        for (String tenantId : tenantConfigRegistry.tenantIds()) {
+            health.put(tenantId, TenantHealth.unknown(tenantId));
+        }
+    }
+
+    /**
+     * Schedule the periodic probes of every declared tenant.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Tenant health monitor disabled");
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(probeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tenant-health-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (TenantConfig tenant : tenantConfigRegistry.all()) {
+            schedule(tenant);
+        }
+    }
+
+    /**
+     * Follow a reload of tenants.yml.
+     *
+     * The tenant registry must already hold the new tenants.yml.
+     *
+     * @param changes the difference between the old and new tenants.yml
+     */
+    public synchronized void onTenantsChanged(TenantConfigChanges changes) {
+        for (String tenantId : changes.removed()) {
+            cancel(tenantId);
+            probeTargets.remove(tenantId);
+            health.remove(tenantId);
+        }
+        for (String tenantId : changes.added()) {
+            health.put(tenantId, TenantHealth.unknown(tenantId));
+        }
+        if (scheduler == null) {
+            return;
+        }
+        for (String tenantId : tenantConfigRegistry.tenantIds()) {
+            boolean affected = changes.added().contains(tenantId)
+                    || changes.changed().contains(tenantId)
+                    || changes.updated().contains(tenantId);
+            if (affected) {
+                cancel(tenantId);
+                schedule(tenantConfigRegistry.get(tenantId));
+            }
+        }
+    }
+
+    private void schedule(TenantConfig tenant) {
+        long intervalMs = tenant.longProperty("healthCheckIntervalMs", defaultIntervalMs);
+        schedules.put(tenant.tenantId(), scheduler.scheduleWithFixedDelay(
+                () -> probeIfOpen(tenant.tenantId()), 0, intervalMs, TimeUnit.MILLISECONDS));
+        logger.info("Scheduled health probe for tenantId: {} every {} ms", tenant.tenantId(), intervalMs);
+    }
+
+    private void cancel(String tenantId) {
+        ScheduledFuture<?> scheduled = schedules.remove(tenantId);
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    /**
+     * Stop all probes.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Pause the periodic probes of a tenant whose pool is hibernating, released or
+     * replaced, so probes do not keep its connections open. The last recorded health is
+     * kept. Nothing changes if the tenant is already probed through another DataSource.
+     *
+     * @param tenantId   the tenant identifier
+     * @param dataSource the DataSource the tenant was probed through
+     */
+    public void suspend(String tenantId, DataSource dataSource) {
+        probeTargets.remove(tenantId, dataSource);
+    }
+
+    /**
+     * Resume the periodic probes of a tenant whose pool is open.
+     *
+     * @param tenantId   the tenant identifier
+     * @param dataSource the tenant's DataSource, which probes borrow from
+     */
+    public void resume(String tenantId, DataSource dataSource) {
+        if (tenantConfigRegistry.contains(tenantId)) {
+            probeTargets.put(tenantId, dataSource);
+        }
+    }
+
+    private void probeIfOpen(String tenantId) {
+        if (probeTargets.containsKey(tenantId)) {
+            probe(tenantId);
+        }
+    }
+
+    /**
+     * Probe a tenant now and record the result.
+     *
+     * A suspended tenant is not probed, so that no pool is opened on its behalf.
+     *
+     * @param tenantId the tenant identifier
+     * @return the recorded health
+     */
+    public TenantHealth probe(String tenantId) {
+        TenantHealth previous = health.getOrDefault(tenantId, TenantHealth.unknown(tenantId));
+        DataSource dataSource = probeTargets.get(tenantId);
+        if (dataSource == null) {
+            return previous;
+        }
+        long start = System.nanoTime();
+
+        TenantHealth next;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(validationTimeoutSeconds);
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!valid) {
+                next = failed(previous, latencyMs, "Connection validation failed");
+            } else {
+                TenantStatus status = latencyMs > degradedLatencyMs ? TenantStatus.DEGRADED : TenantStatus.UP;
+                next = new TenantHealth(tenantId, status, latencyMs, System.currentTimeMillis(), 0, null);
+            }
+        } catch (Exception e) {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            next = failed(previous, latencyMs, e.getMessage());
+        }
+
+        if (!tenantConfigRegistry.contains(tenantId)) {
+            // Removed by a reload while the probe was running
+            return next;
+        }
+        health.put(tenantId, next);
+        if (next.status() != previous.status()) {
+            logger.info("Tenant {} health changed from {} to {} ({} ms)",
+                    tenantId, previous.status(), next.status(), next.lastLatencyMs());
+        }
+        return next;
+    }
+
+    private TenantHealth failed(TenantHealth previous, long latencyMs, String error) {
+        int failures = previous.consecutiveFailures() + 1;
+        TenantStatus status = failures >= downAfterFailures ? TenantStatus.DOWN : TenantStatus.DEGRADED;
+        logger.warn("Health probe failed for tenantId: {} ({} in a row): {}", previous.tenantId(), failures, error);
+        return new TenantHealth(previous.tenantId(), status, latencyMs, System.currentTimeMillis(), failures, error);
+    }
+
+    /**
+     * Whether a tenant is declared and not known to be down.
+     *
+     * Tenants that have not been probed yet are considered valid.
+     *
+     * @param tenantId the tenant identifier
+     * @return true if requests for the tenant should be attempted
+     */
+    public boolean isTenantValid(String tenantId) {
+        TenantHealth tenantHealth = tenantId == null ? null : health.get(tenantId);
+        return tenantHealth != null && tenantHealth.status() != TenantStatus.DOWN;
+    }
+
+    /**
+     * Get the last recorded health of a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the health, or null if the tenant is not declared
+     */
+    public TenantHealth getHealth(String tenantId) {
+        return tenantId == null ? null : health.get(tenantId);
+    }
+
+    /**
+     * Last recorded health of every declared tenant.
+     *
+     * @return health keyed by tenantId, in tenants.yml order
+     */
+    public Map<String, TenantHealth> getAllHealth() {
+        Map<String, TenantHealth> snapshot = new LinkedHashMap<>();
+        for (String tenantId : tenantConfigRegistry.tenantIds()) {
+            snapshot.put(tenantId, health.getOrDefault(tenantId, TenantHealth.unknown(tenantId)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Aggregate status over all tenants: UP if every tenant is up, DOWN if every
+     * tenant is down, DEGRADED otherwise.
+     *
+     * @return the aggregate status
+     */
+    public TenantStatus getOverallStatus() {
+        boolean allUp = true;
+        boolean allDown = true;
+        for (TenantHealth tenantHealth : health.values()) {
+            TenantStatus status = tenantHealth.status();
+            allUp &= status == TenantStatus.UP || status == TenantStatus.UNKNOWN;
+            allDown &= status == TenantStatus.DOWN;
+        }
+        if (allUp) {
+            return TenantStatus.UP;
+        }
+        return allDown ? TenantStatus.DOWN : TenantStatus.DEGRADED;
+    }
+}
@@ -0,0 +1,156 @@
+package com.diovanes.multitenant.repository;
+
+import org.postgresql.PGStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of one JdbcTemplate per tenant.
+ *
+ * Templates are created on first use and reused by every subsequent request for the same
+ * tenant. An entry is rebuilt when the datasource returned by the multitenant library is no
+ * longer the one the template was created for (for example after the library evicted an
+ * expired pool), and dropped when {@link MultitenantDataSourceManager} invalidates the tenant.
+ * Tenants with read replicas get a second template, for read-only queries, bound to their read
+ * DataSource.
+ *
+ * Templates created here raise the PgJDBC prepare threshold so statements are prepared on the
+ * server on first use; the driver then keeps them in its per-connection statement cache and
+ * later executions on the same pooled connection skip parsing and planning. They also apply the
+ * calling thread's {@link RequestDeadline}: each statement gets a query timeout of the time left,
+ * and a statement cancelled by it is reported as a {@link RequestDeadlineExceededException}.
+ */
+@Component
+public class TenantJdbcTemplateRegistry implements DataSourceInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantJdbcTemplateRegistry.class);
+
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final int prepareThreshold;
+
+    private final Map<String, TenantTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, TenantTemplate> readTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param multitenantDataSourceManager the multitenant data source manager
+     * @param prepareThreshold             PgJDBC prepare threshold applied to every statement
+     */
+    public TenantJdbcTemplateRegistry(MultitenantDataSourceManager multitenantDataSourceManager,
+                                      @Value("${app.jdbc.prepare-threshold:1}") int prepareThreshold) {
+        this.multitenantDataSourceManager = multitenantDataSourceManager;
+        this.prepareThreshold = prepareThreshold;
+        multitenantDataSourceManager.addInvalidationListener(this);
+    }
+
+    /**
+     * Get the JdbcTemplate for a specific tenant, creating it if needed.
+     *
+     * @param tenantId the tenant identifier
+     * @return the JdbcTemplate bound to the tenant's current datasource
+     */
+    public JdbcTemplate getJdbcTemplate(String tenantId) {
+        return templateFor(templates, tenantId, multitenantDataSourceManager.getDataSource(tenantId));
+    }
+
+    /**
+     * Get the JdbcTemplate for the read-only queries of a specific tenant, creating it if needed.
+     *
+     * @param tenantId the tenant identifier
+     * @return the JdbcTemplate bound to the tenant's read DataSource, which is its primary
+     *         DataSource unless it has read replicas
+     * @see MultitenantDataSourceManager#getReadDataSource(String)
+     */
+    public JdbcTemplate getReadJdbcTemplate(String tenantId) {
+        DataSource dataSource = multitenantDataSourceManager.getReadDataSource(tenantId);
+        return dataSource instanceof TenantReadDataSource
+                ? templateFor(readTemplates, tenantId, dataSource)
+                : templateFor(templates, tenantId, dataSource);
+    }
+
+    private JdbcTemplate templateFor(Map<String, TenantTemplate> cache, String tenantId, DataSource dataSource) {
+        TenantTemplate current = cache.get(tenantId);
+        if (current != null && current.dataSource() == dataSource) {
+            return current.jdbcTemplate();
+        }
+
+        return cache.compute(tenantId, (key, existing) -> {
+            if (existing != null && existing.dataSource() == dataSource) {
+                return existing;
+            }
+            logger.debug("Creating JdbcTemplate for tenantId: {}", key);
+            return new TenantTemplate(dataSource, new PreparingJdbcTemplate(dataSource, prepareThreshold));
+        }).jdbcTemplate();
+    }
+
+    @Override
+    public void onDataSourceInvalidated(String tenantId) {
+        readTemplates.remove(tenantId);
+        if (templates.remove(tenantId) != null) {
+            logger.debug("Dropped JdbcTemplate for tenantId: {}", tenantId);
+        }
+    }
+
+    @Override
+    public void onAllDataSourcesClosed() {
+        templates.clear();
+        readTemplates.clear();
+    }
+
+    private record TenantTemplate(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    }
+
+    /**
+     * JdbcTemplate that applies the PgJDBC prepare threshold and the request deadline to each
+     * statement it creates.
+     */
+    private static final class PreparingJdbcTemplate extends JdbcTemplate {
+
+        private final int prepareThreshold;
+
+        PreparingJdbcTemplate(DataSource dataSource, int prepareThreshold) {
+            super(dataSource);
+            this.prepareThreshold = prepareThreshold;
+        }
+
+        @Override
+        protected void applyStatementSettings(Statement stmt) throws SQLException {
+            super.applyStatementSettings(stmt);
+            if (stmt.isWrapperFor(PGStatement.class)) {
+                stmt.unwrap(PGStatement.class).setPrepareThreshold(prepareThreshold);
+            }
+
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline != null) {
+                if (deadline.isExpired()) {
+                    throw deadline.exceeded(null);
+                }
+                // JDBC timeouts are whole seconds; the executor enforces the exact deadline
+                int seconds = (int) Math.min(Integer.MAX_VALUE, (deadline.remainingMillis() + 999) / 1000);
+                if (getQueryTimeout() <= 0 || seconds < getQueryTimeout()) {
+                    stmt.setQueryTimeout(seconds);
+                }
+            }
+        }
+
+        @Override
+        protected DataAccessException translateException(String task, String sql, SQLException ex) {
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline != null && deadline.isExpired()) {
+                return deadline.exceeded(ex);
+            }
+            return super.translateException(task, sql, ex);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-tenant Micrometer instrumentation of the data access layer.
+ *
+ * Publishes:
+ * <ul>
+ *   <li>{@code tenant.query}: repository query latency, with p50/p99/p999 and a histogram</li>
+ *   <li>{@code tenant.pool.acquire}: time to borrow a connection from the tenant's pool</li>
+ *   <li>{@code tenant.pool.active|idle|pending|total|max}: Hikari pool gauges</li>
+ * </ul>
+ *
+ * To keep tag cardinality bounded with thousands of tenants, only a fixed set of tenants gets
+ * its own {@code tenantId} tag value: those listed in {@code app.metrics.tagged-tenants}, or
+ * otherwise the first {@code app.metrics.max-tenant-tags} tenants of tenants.yml. Every other
+ * tenant is reported under {@code tenantId=other}; pool gauges of that bucket are summed.
+ *
+ * Connection acquisitions are also passed, untagged, to registered
+ * {@link ConnectionAcquireListener}s.
+ */
+@Component
+public class TenantMetrics {
+
+    /** Tag value shared by all tenants without their own tag. */
+    public static final String OTHER_TENANTS = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> taggedTenants;
+
+    private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+    private final Set<String> registeredPoolTags = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> queryTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final List<ConnectionAcquireListener> acquireListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param meterRegistry        the meter registry
+     * @param tenantConfigRegistry the declared tenants
+     * @param taggedTenants        tenants that get their own tag value; empty to use the first declared ones
+     * @param maxTenantTags        maximum number of tenants with their own tag value
+     */
+    public TenantMetrics(MeterRegistry meterRegistry,
+                         TenantConfigRegistry tenantConfigRegistry,
+                         @Value("${app.metrics.tagged-tenants:}") List<String> taggedTenants,
+                         @Value("${app.metrics.max-tenant-tags:100}") int maxTenantTags) {
+        this.meterRegistry = meterRegistry;
+
+        Set<String> tagged = new HashSet<>();
+        Iterable<String> candidates = taggedTenants.isEmpty() ? tenantConfigRegistry.tenantIds() : taggedTenants;
+        for (String tenantId : candidates) {
+            if (tagged.size() >= maxTenantTags) {
+                break;
+            }
+            if (!tenantId.isBlank()) {
+                tagged.add(tenantId.trim());
+            }
+        }
+        this.taggedTenants = Set.copyOf(tagged);
+    }
+
+    /**
+     * The tag value under which a tenant is reported.
+     *
+     * @param tenantId the tenant identifier
+     * @return the tenantId itself, or {@link #OTHER_TENANTS}
+     */
+    public String tenantTag(String tenantId) {
+        return tenantId != null && taggedTenants.contains(tenantId) ? tenantId : OTHER_TENANTS;
+    }
+
+    /**
+     * The latency timer of a repository query for a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @param query    a short, fixed name of the query
+     * @return the timer
+     */
+    public Timer queryTimer(String tenantId, String query) {
+        String tag = tenantTag(tenantId);
+        return queryTimers.computeIfAbsent(tag + '|' + query, key -> Timer.builder("tenant.query")
+                .description("Repository query latency")
+                .tag("tenantId", tag)
+                .tag("query", query)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Record the time spent borrowing a connection from a tenant's pool.
+     *
+     * @param tenantId      the tenant identifier
+     * @param durationNanos the acquisition time
+     * @param success       whether a connection was obtained
+     */
+    public void recordAcquire(String tenantId, long durationNanos, boolean success) {
+        String tag = tenantTag(tenantId);
+        String outcome = success ? "success" : "failure";
+        acquireTimers.computeIfAbsent(tag + '|' + outcome, key -> Timer.builder("tenant.pool.acquire")
+                        .description("Time to borrow a connection from the tenant pool")
+                        .tag("tenantId", tag)
+                        .tag("outcome", outcome)
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        for (ConnectionAcquireListener listener : acquireListeners) {
+            listener.onConnectionAcquired(tenantId, durationNanos, success);
+        }
+    }
+
+    /**
+     * Register a listener to be notified of every connection acquisition.
+     *
+     * @param listener the listener to register
+     */
+    public void addAcquireListener(ConnectionAcquireListener listener) {
+        acquireListeners.add(listener);
+    }
+
+    /**
+     * Track the current pool of a tenant for the pool gauges.
+     *
+     * Calling this again for the same tenant replaces the tracked pool.
+     *
+     * @param tenantId the tenant identifier
+     * @param pool     the tenant's pool
+     */
+    public void trackPool(String tenantId, HikariDataSource pool) {
+        pools.put(tenantId, pool);
+
+        String tag = tenantTag(tenantId);
+        if (registeredPoolTags.add(tag)) {
+            registerPoolGauge("tenant.pool.active", "Connections in use", tag, HikariPoolMXBean::getActiveConnections);
+            registerPoolGauge("tenant.pool.idle", "Idle connections", tag, HikariPoolMXBean::getIdleConnections);
+            registerPoolGauge("tenant.pool.pending", "Threads waiting for a connection", tag,
+                    HikariPoolMXBean::getThreadsAwaitingConnection);
+            registerPoolGauge("tenant.pool.total", "Open connections", tag, HikariPoolMXBean::getTotalConnections);
+            Gauge.builder("tenant.pool.max", () -> sumPools(tag, HikariDataSource::getMaximumPoolSize))
+                    .description("Maximum pool size")
+                    .tag("tenantId", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Stop tracking the pool of a tenant.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void untrackPool(String tenantId) {
+        pools.remove(tenantId);
+    }
+
+    /**
+     * Stop tracking all pools.
+     */
+    public void untrackAllPools() {
+        pools.clear();
+    }
+
+    private void registerPoolGauge(String name, String description, String tag, ToIntFunction<HikariPoolMXBean> metric) {
+        Gauge.builder(name, () -> sumPools(tag, pool -> {
+                    HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+                    return mxBean == null ? 0 : metric.applyAsInt(mxBean);
+                }))
+                .description(description)
+                .tag("tenantId", tag)
+                .register(meterRegistry);
+    }
+
+    private int sumPools(String tag, ToIntFunction<HikariDataSource> metric) {
+        int sum = 0;
+        for (Map.Entry<String, HikariDataSource> entry : pools.entrySet()) {
+            HikariDataSource pool = entry.getValue();
+            if (tag.equals(tenantTag(entry.getKey())) && !pool.isClosed()) {
+                sum += metric.applyAsInt(pool);
+            }
+        }
+        return sum;
+    }
+}
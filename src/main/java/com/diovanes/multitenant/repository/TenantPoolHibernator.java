@@ -0,0 +1,99 @@
+package com.diovanes.multitenant.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically hibernates and releases the pools of idle tenants.
+ *
+ * With thousands of tenants most pools see little traffic, yet each one keeps its minimum
+ * idle connections open until the library's cache TTL expires. Every
+ * {@code app.pools.hibernation.check-interval-ms} this asks
+ * {@link MultitenantDataSourceManager} to shrink pools idle for
+ * {@code app.pools.hibernation.hibernate-after-ms} to zero connections, and to close pools
+ * idle for {@code app.pools.hibernation.release-after-ms}.
+ */
+@Component
+public class TenantPoolHibernator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantPoolHibernator.class);
+
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final boolean enabled;
+    private final long checkIntervalMs;
+    private final long hibernateAfterMs;
+    private final long releaseAfterMs;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param multitenantDataSourceManager the manager owning the tenant pools
+     * @param enabled                      whether idle pools are hibernated and released
+     * @param checkIntervalMs              interval between sweeps
+     * @param hibernateAfterMs             idle time before a pool is shrunk to zero connections
+     * @param releaseAfterMs               idle time before a pool is closed
+     */
+    public TenantPoolHibernator(MultitenantDataSourceManager multitenantDataSourceManager,
+                                @Value("${app.pools.hibernation.enabled:true}") boolean enabled,
+                                @Value("${app.pools.hibernation.check-interval-ms:60000}") long checkIntervalMs,
+                                @Value("${app.pools.hibernation.hibernate-after-ms:600000}") long hibernateAfterMs,
+                                @Value("${app.pools.hibernation.release-after-ms:3600000}") long releaseAfterMs) {
+        if (releaseAfterMs < hibernateAfterMs) {
+            throw new IllegalArgumentException(
+                    "app.pools.hibernation.release-after-ms must not be lower than hibernate-after-ms");
+        }
+        this.multitenantDataSourceManager = multitenantDataSourceManager;
+        this.enabled = enabled;
+        this.checkIntervalMs = checkIntervalMs;
+        this.hibernateAfterMs = hibernateAfterMs;
+        this.releaseAfterMs = releaseAfterMs;
+    }
+
+    /**
+     * Schedule the periodic sweep.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Tenant pool hibernation disabled");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-pool-hibernation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Idle tenant pools hibernate after {} ms and are released after {} ms",
+                hibernateAfterMs, releaseAfterMs);
+    }
+
+    /**
+     * Stop the sweep.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void sweep() {
+        try {
+            multitenantDataSourceManager.hibernateIdleDataSources(hibernateAfterMs, releaseAfterMs);
+        } catch (Exception e) {
+            logger.error("Error hibernating idle tenant pools", e);
+        }
+    }
+}
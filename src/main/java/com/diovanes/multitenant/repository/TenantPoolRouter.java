@@ -0,0 +1,267 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes each tenant to the library DataSourceManager that owns its pool.
+ *
+ * The library builds every pool of a DataSourceManager from the tenants.yml it was
+ * created with. When tenants.yml is reloaded, a new DataSourceManager (a generation) is
+ * created for the new file, and only added or changed tenants are routed to it; unchanged
+ * tenants keep their warm pools in the generation they already use. The pools that a
+ * tenant leaves behind are drained in the background: they stop receiving new borrowers
+ * at once, and are closed when their last active connection is returned or after
+ * {@code app.tenants.reload.drain-timeout-ms}. A generation no tenant routes to any more
+ * is closed as a whole.
+ *
+ * In shared-pool mode, tenants served by {@link SharedTenantPools} bypass the library
+ * and its generations entirely.
+ *
+ * Routing is a lock-free map lookup, so a swap never blocks callers of
+ * {@link #getDataSource(String)}.
+ */
+@Component
+public class TenantPoolRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantPoolRouter.class);
+
+    private static final long DRAIN_POLL_MS = 100;
+
+    private final SharedTenantPools sharedTenantPools;
+    private final long drainTimeoutMs;
+
+    private final Map<String, Generation> routes = new ConcurrentHashMap<>();
+    private final List<Generation> generations = new CopyOnWriteArrayList<>();
+    private volatile Generation latest;
+    private final ScheduledExecutorService drainer;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param dataSourceManager the DataSourceManager built from tenants.yml at startup
+     * @param sharedTenantPools the pools shared per database in shared-pool mode
+     * @param drainTimeoutMs    maximum time to wait for in-flight work on a replaced pool
+     */
+    public TenantPoolRouter(DataSourceManager dataSourceManager,
+                            SharedTenantPools sharedTenantPools,
+                            @Value("${app.tenants.reload.drain-timeout-ms:30000}") long drainTimeoutMs) {
+        this.sharedTenantPools = sharedTenantPools;
+        this.drainTimeoutMs = drainTimeoutMs;
+        this.latest = new Generation(dataSourceManager, 1);
+        this.generations.add(latest);
+        this.drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-pool-drain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the pool of a tenant from the generation it is routed to.
+     *
+     * @param tenantId the tenant identifier
+     * @return the tenant's pool
+     * @throws SQLException if the tenant is not declared or the pool cannot be created
+     */
+    public HikariDataSource getDataSource(String tenantId) throws SQLException {
+        HikariDataSource shared = sharedTenantPools.poolFor(tenantId);
+        if (shared != null) {
+            return shared;
+        }
+
+        Generation generation = generationFor(tenantId);
+        HikariDataSource pool = generation.manager.getDataSource(tenantId);
+        if (generation.pools.get(tenantId) != pool) {
+            generation.pools.put(tenantId, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Drop a tenant's pool from its generation; the next request creates a new one.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void invalidate(String tenantId) {
+        Generation generation = generationFor(tenantId);
+        HikariDataSource pool = generation.pools.remove(tenantId);
+        generation.manager.invalidateDataSourceCache(tenantId);
+        closeIfOpen(pool);
+    }
+
+    /**
+     * Route tenants to a new generation and drain the pools they leave behind.
+     *
+     * Tenants in {@code kept} stay pinned to the generation they use today; {@code moved}
+     * tenants are routed to {@code next}; {@code removed} tenants lose their route. This
+     * returns as soon as the routes are swapped; draining happens in the background.
+     *
+     * @param next    the new generation, or null if no tenant moves or is removed
+     * @param kept    tenants whose pools are unchanged
+     * @param moved   tenants that must use a pool built from the new tenants.yml
+     * @param removed tenants no longer declared
+     */
+    public synchronized void swap(DataSourceManager next,
+                                  Collection<String> kept,
+                                  Collection<String> moved,
+                                  Collection<String> removed) {
+        Generation previous = latest;
+        List<Generation> touched = new ArrayList<>();
+
+        if (next != null) {
+            // Pin kept tenants before the default route changes under them
+            for (String tenantId : kept) {
+                routes.putIfAbsent(tenantId, previous);
+            }
+
+            Generation nextGeneration = new Generation(next, previous.number + 1);
+            generations.add(nextGeneration);
+            for (String tenantId : moved) {
+                Generation left = routes.put(tenantId, nextGeneration);
+                left = left == null ? previous : left;
+                drain(left, tenantId);
+                touched.add(left);
+            }
+            latest = nextGeneration;
+            logger.info("Tenant pool generation {} created for {} tenant(s)", nextGeneration.number, moved.size());
+        }
+
+        for (String tenantId : removed) {
+            Generation left = routes.remove(tenantId);
+            left = left == null ? previous : left;
+            drain(left, tenantId);
+            touched.add(left);
+        }
+
+        for (Generation generation : touched) {
+            retireIfUnused(generation);
+        }
+    }
+
+    /**
+     * Close every pool of every generation.
+     */
+    public void closeAll() {
+        sharedTenantPools.closeAll();
+        for (Generation generation : generations) {
+            generation.pools.clear();
+            generation.manager.closeAll();
+        }
+    }
+
+    /**
+     * Stop draining; pools still draining are closed by {@link #closeAll()}.
+     */
+    @PreDestroy
+    public void stop() {
+        drainer.shutdownNow();
+    }
+
+    private Generation generationFor(String tenantId) {
+        Generation routed = routes.get(tenantId);
+        return routed != null ? routed : latest;
+    }
+
+    private void drain(Generation generation, String tenantId) {
+        HikariDataSource pool = generation.pools.remove(tenantId);
+        if (pool == null) {
+            // The tenant never opened a pool in this generation
+            return;
+        }
+        generation.draining.incrementAndGet();
+
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        if (poolBean != null) {
+            // Idle connections close at once; borrowed ones as they are returned
+            poolBean.softEvictConnections();
+        }
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        logger.info("Draining pool of tenantId: {} in generation {}", tenantId, generation.number);
+        drainer.execute(() -> awaitIdle(generation, tenantId, pool, deadline));
+    }
+
+    private void awaitIdle(Generation generation, String tenantId, HikariDataSource pool, long deadline) {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        int active = poolBean == null ? 0 : poolBean.getActiveConnections();
+        if (active > 0 && System.currentTimeMillis() < deadline) {
+            drainer.schedule(() -> awaitIdle(generation, tenantId, pool, deadline), DRAIN_POLL_MS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (active > 0) {
+            logger.warn("Closing pool of tenantId: {} with {} connection(s) still in use after {} ms",
+                    tenantId, active, drainTimeoutMs);
+        }
+        finishDrain(generation, tenantId, pool);
+    }
+
+    private void finishDrain(Generation generation, String tenantId, HikariDataSource pool) {
+        try {
+            generation.manager.invalidateDataSourceCache(tenantId);
+            closeIfOpen(pool);
+            logger.info("Closed replaced pool of tenantId: {} in generation {}", tenantId, generation.number);
+        } catch (Exception e) {
+            logger.error("Error closing replaced pool of tenantId: {}", tenantId, e);
+        } finally {
+            generation.draining.decrementAndGet();
+            retireIfUnused(generation);
+        }
+    }
+
+    private static void closeIfOpen(HikariDataSource pool) {
+        // The library closes pools it evicts; this only covers pools it no longer tracks
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+        }
+    }
+
+    private synchronized void retireIfUnused(Generation generation) {
+        if (generation == latest || generation.retired || generation.draining.get() > 0
+                || routes.containsValue(generation)) {
+            return;
+        }
+        generation.retired = true;
+        generations.remove(generation);
+        try {
+            generation.manager.closeAll();
+            logger.info("Tenant pool generation {} retired", generation.number);
+        } catch (Exception e) {
+            logger.error("Error retiring tenant pool generation {}", generation.number, e);
+        }
+    }
+
+    /**
+     * A library DataSourceManager and the pools it has handed out.
+     */
+    private static final class Generation {
+
+        private final DataSourceManager manager;
+        private final int number;
+        private final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+        private final AtomicInteger draining = new AtomicInteger();
+        private boolean retired;
+
+        private Generation(DataSourceManager manager, int number) {
+            this.manager = manager;
+            this.number = number;
+        }
+    }
+}
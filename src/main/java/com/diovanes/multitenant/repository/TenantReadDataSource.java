@@ -0,0 +1,57 @@
+package com.diovanes.multitenant.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource for the read-only queries of a tenant with read replicas.
+ *
+ * Every connection comes from the replica picked by {@link TenantReplicaPools#choose(String)},
+ * or from the tenant's primary, through {@link MultitenantDataSourceManager#getDataSource(String)},
+ * when no replica is healthy or the replica fails to hand out a connection in time. A failing
+ * replica is taken out of rotation until its next successful probe.
+ */
+class TenantReadDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantReadDataSource.class);
+
+    private final String tenantId;
+    private final TenantReplicaPools replicaPools;
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+
+    TenantReadDataSource(String tenantId, TenantReplicaPools replicaPools,
+                         MultitenantDataSourceManager multitenantDataSourceManager) {
+        this.tenantId = tenantId;
+        this.replicaPools = replicaPools;
+        this.multitenantDataSourceManager = multitenantDataSourceManager;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        TenantReplicaPools.Replica replica = replicaPools.choose(tenantId);
+        if (replica != null) {
+            try {
+                return TenantDataSource.borrow(replica.pool());
+            } catch (SQLException | RuntimeException e) {
+                if (e instanceof RequestDeadlineExceededException || TenantDataSource.deadlineExpired()) {
+                    // No time left for the primary either
+                    throw e instanceof RequestDeadlineExceededException deadlineExceeded
+                            ? deadlineExceeded
+                            : RequestDeadline.current().exceeded(e);
+                }
+                replicaPools.onFailure(replica, e);
+                logger.debug("Falling back to the primary for tenantId: {}", tenantId);
+            }
+        }
+        return multitenantDataSourceManager.getDataSource(tenantId).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Tenant credentials are configured in tenants.yml");
+    }
+}
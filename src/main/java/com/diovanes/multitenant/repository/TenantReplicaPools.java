@@ -0,0 +1,471 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.config.TenantReplicaConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pools of the read replicas declared per tenant under {@code replicas} in tenants.yml.
+ *
+ * Each replica gets a small pool of its own, outside the library, the circuit breakers and the
+ * {@link GlobalConnectionBudget}. A background probe measures every replica's replication lag and
+ * round trip every {@code app.replicas.probe-interval-ms}; a replica is healthy while its last
+ * probe succeeded with a lag of at most {@code app.replicas.max-lag-ms}.
+ *
+ * {@link #choose(String)} picks the replica for a read by the power of two choices: two healthy
+ * replicas are drawn at random and the one with the lower smoothed round trip, weighted by the
+ * connections it already has in use, wins. It returns null, sending the read to the primary, when
+ * no replica is healthy, and for {@code max-lag-ms} after this instance wrote to the tenant, so a
+ * client reads its own writes.
+ *
+ * Disabled unless {@code app.replicas.enabled}; replica sets follow reloads of tenants.yml, and
+ * the pools of removed or changed replicas are closed once their connections are returned.
+ */
+@Component
+public class TenantReplicaPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantReplicaPools.class);
+
+    /**
+     * Milliseconds since the last replayed transaction, or 0 when the replica has replayed all
+     * it received (an idle primary writes nothing to replay) or is not in recovery at all.
+     */
+    private static final String REPLICATION_LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+                    + "THEN 0 "
+                    + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxLagMs;
+    private final long probeIntervalMs;
+    private final long connectionTimeoutMs;
+
+    private final Map<String, TenantReplicas> replicaSets = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final List<Replica> retired = new CopyOnWriteArrayList<>();
+    private final Set<String> registeredTags = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService prober;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry the declared tenants and their replicas
+     * @param tenantMetrics        the per-tenant metrics, for tags
+     * @param meterRegistry        the meter registry for the replica pools and gauges
+     * @param enabled              whether reads are routed to replicas
+     * @param maxLagMs             replication lag above which a replica gets no reads
+     * @param probeIntervalMs      interval between probes of each replica
+     * @param connectionTimeoutMs  wait for a replica connection before falling back to the primary
+     */
+    public TenantReplicaPools(TenantConfigRegistry tenantConfigRegistry,
+                              TenantMetrics tenantMetrics,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.replicas.enabled:false}") boolean enabled,
+                              @Value("${app.replicas.max-lag-ms:5000}") long maxLagMs,
+                              @Value("${app.replicas.probe-interval-ms:5000}") long probeIntervalMs,
+                              @Value("${app.replicas.connection-timeout-ms:2000}") long connectionTimeoutMs) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxLagMs = maxLagMs;
+        this.probeIntervalMs = probeIntervalMs;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    /**
+     * Build the replica pools of every declared tenant and schedule their probes.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Read replica routing disabled");
+            return;
+        }
+
+        prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenant-replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresh();
+        prober.scheduleWithFixedDelay(this::probeAll, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Read replica routing enabled for {} tenant(s), max lag {} ms", replicaSets.size(), maxLagMs);
+    }
+
+    /**
+     * Whether reads of a tenant may be routed to replicas.
+     *
+     * @param tenantId the tenant identifier
+     * @return true if routing is enabled and the tenant declares replicas
+     */
+    public boolean hasReplicas(String tenantId) {
+        return enabled && tenantId != null && replicaSets.containsKey(tenantId);
+    }
+
+    /**
+     * Pick the replica to serve a read of a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the replica, or null if the read must go to the primary
+     */
+    Replica choose(String tenantId) {
+        TenantReplicas replicas = enabled ? replicaSets.get(tenantId) : null;
+        if (replicas == null) {
+            return null;
+        }
+
+        Long written = lastWriteNanos.get(tenantId);
+        if (written != null) {
+            if (System.nanoTime() - written < TimeUnit.MILLISECONDS.toNanos(maxLagMs)) {
+                // Replicas may not have this instance's write yet
+                return null;
+            }
+            lastWriteNanos.remove(tenantId, written);
+        }
+
+        List<Replica> healthy = new ArrayList<>(replicas.replicas().size());
+        for (Replica replica : replicas.replicas()) {
+            if (replica.isHealthy()) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.size() <= 1) {
+            return healthy.isEmpty() ? null : healthy.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(healthy.size());
+        int second = random.nextInt(healthy.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Replica a = healthy.get(first);
+        Replica b = healthy.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    /**
+     * Record that this instance wrote to a tenant's primary; its reads stay on the primary
+     * for {@code max-lag-ms}.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void markWritten(String tenantId) {
+        if (hasReplicas(tenantId)) {
+            lastWriteNanos.put(tenantId, System.nanoTime());
+        }
+    }
+
+    /**
+     * Take a replica out of rotation until its next successful probe.
+     *
+     * @param replica the replica that failed to hand out a connection
+     * @param error   the failure
+     */
+    void onFailure(Replica replica, Exception error) {
+        if (replica.markDown(error.getMessage())) {
+            logger.warn("Replica {} of tenantId: {} failed, routing its reads elsewhere: {}",
+                    replica.config(), replica.tenantId(), error.getMessage());
+        }
+    }
+
+    /**
+     * Follow a reload of tenants.yml: build the pools of added or changed replica sets and
+     * retire the old ones.
+     *
+     * The tenant registry must already hold the new tenants.yml.
+     */
+    public void onTenantsChanged() {
+        if (enabled) {
+            refresh();
+            closeRetired();
+        }
+    }
+
+    /**
+     * The state of every replica, for administration.
+     *
+     * @return one entry per replica of each tenant
+     */
+    public List<TenantReplicaStatus> status() {
+        List<TenantReplicaStatus> status = new ArrayList<>();
+        for (TenantReplicas replicas : replicaSets.values()) {
+            for (Replica replica : replicas.replicas()) {
+                status.add(replica.status());
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Stop the probes and close every replica pool.
+     */
+    @PreDestroy
+    public void stop() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+        for (TenantReplicas replicas : replicaSets.values()) {
+            replicas.replicas().forEach(replica -> replica.pool().close());
+        }
+        replicaSets.clear();
+        retired.forEach(replica -> replica.pool().close());
+        retired.clear();
+    }
+
+    private synchronized void refresh() {
+        for (TenantConfig tenant : tenantConfigRegistry.all()) {
+            String tenantId = tenant.tenantId();
+            List<TenantReplicaConfig> configs = tenant.replicas();
+            TenantReplicas existing = replicaSets.get(tenantId);
+
+            if (configs.isEmpty()) {
+                if (existing != null) {
+                    retire(replicaSets.remove(tenantId));
+                }
+                continue;
+            }
+            if (existing != null && existing.configs().equals(configs)
+                    && Objects.equals(existing.schema(), tenant.schema())) {
+                continue;
+            }
+
+            List<Replica> replicas = new ArrayList<>(configs.size());
+            for (TenantReplicaConfig config : configs) {
+                replicas.add(new Replica(tenantId, config, createPool(tenant, config)));
+            }
+            TenantReplicas built = new TenantReplicas(configs, tenant.schema(), List.copyOf(replicas));
+            replicaSets.put(tenantId, built);
+            if (existing != null) {
+                retire(existing);
+            }
+            registerGauges(tenantId);
+            if (prober != null) {
+                // New replicas get no reads until a first probe has measured them
+                prober.execute(() -> built.replicas().forEach(this::probe));
+            }
+            logger.info("Created {} replica pool(s) for tenantId: {}", replicas.size(), tenantId);
+        }
+
+        for (String tenantId : replicaSets.keySet()) {
+            if (!tenantConfigRegistry.contains(tenantId)) {
+                retire(replicaSets.remove(tenantId));
+                lastWriteNanos.remove(tenantId);
+            }
+        }
+    }
+
+    private void retire(TenantReplicas replicas) {
+        if (replicas != null) {
+            retired.addAll(replicas.replicas());
+        }
+    }
+
+    private void closeRetired() {
+        retired.removeIf(replica -> {
+            if (replica.activeConnections() > 0 && !replica.pool().isClosed()) {
+                return false;
+            }
+            logger.info("Closing retired replica pool {} of tenantId: {}", replica.config(), replica.tenantId());
+            replica.pool().close();
+            return true;
+        });
+    }
+
+    private void probeAll() {
+        for (TenantReplicas replicas : replicaSets.values()) {
+            replicas.replicas().forEach(this::probe);
+        }
+        closeRetired();
+    }
+
+    private void probe(Replica replica) {
+        if (replica.pool().isClosed()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = replica.pool().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(connectionTimeoutMs)));
+            long lagMs;
+            try (ResultSet rs = statement.executeQuery(REPLICATION_LAG_SQL)) {
+                rs.next();
+                lagMs = rs.getLong(1);
+            }
+            boolean healthy = lagMs <= maxLagMs;
+            if (replica.recordProbe(System.nanoTime() - start, lagMs, healthy)) {
+                if (healthy) {
+                    logger.info("Replica {} of tenantId: {} is back in rotation, lag {} ms",
+                            replica.config(), replica.tenantId(), lagMs);
+                } else {
+                    logger.warn("Replica {} of tenantId: {} is {} ms behind, over the {} ms limit",
+                            replica.config(), replica.tenantId(), lagMs, maxLagMs);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            onFailure(replica, e);
+        }
+    }
+
+    private HikariDataSource createPool(TenantConfig tenant, TenantReplicaConfig replica) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:postgresql://" + replica.host() + ":" + replica.port() + "/" + replica.database());
+        config.setUsername(replica.user());
+        config.setPassword(replica.password());
+        config.setSchema(tenant.schema());
+        config.setMaximumPoolSize(Math.max(1, replica.poolSize()));
+        config.setMinimumIdle(0);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setReadOnly(true);
+        // An unreachable replica must not fail startup; its probes keep it out of rotation
+        config.setInitializationFailTimeout(-1);
+        config.setPoolName("replica-" + tenant.tenantId() + "-" + replica.host() + ":" + replica.port());
+        config.setMetricRegistry(meterRegistry);
+        return new HikariDataSource(config);
+    }
+
+    private void registerGauges(String tenantId) {
+        String tag = tenantMetrics.tenantTag(tenantId);
+        if (!registeredTags.add(tag)) {
+            return;
+        }
+        Gauge.builder("tenant.replicas.healthy", () -> replicasOf(tag).stream().filter(Replica::isHealthy).count())
+                .description("Read replicas in rotation")
+                .tag("tenantId", tag)
+                .register(meterRegistry);
+        Gauge.builder("tenant.replicas.lag", () -> replicasOf(tag).stream().mapToLong(Replica::lagMs).max().orElse(0))
+                .description("Highest replication lag of the read replicas, in milliseconds")
+                .tag("tenantId", tag)
+                .register(meterRegistry);
+    }
+
+    private List<Replica> replicasOf(String tag) {
+        List<Replica> replicas = new ArrayList<>();
+        for (Map.Entry<String, TenantReplicas> entry : replicaSets.entrySet()) {
+            if (tag.equals(tenantMetrics.tenantTag(entry.getKey()))) {
+                replicas.addAll(entry.getValue().replicas());
+            }
+        }
+        return replicas;
+    }
+
+    private record TenantReplicas(List<TenantReplicaConfig> configs, String schema, List<Replica> replicas) {
+    }
+
+    /**
+     * A replica of a tenant database, its pool and the outcome of its last probe.
+     */
+    static final class Replica {
+
+        /** Weight of the newest probe in the smoothed round trip. */
+        private static final double LATENCY_ALPHA = 0.3;
+
+        private final String tenantId;
+        private final TenantReplicaConfig config;
+        private final HikariDataSource pool;
+
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+        private volatile double latencyNanos = -1;
+        private volatile String lastError;
+
+        private Replica(String tenantId, TenantReplicaConfig config, HikariDataSource pool) {
+            this.tenantId = tenantId;
+            this.config = config;
+            this.pool = pool;
+        }
+
+        String tenantId() {
+            return tenantId;
+        }
+
+        TenantReplicaConfig config() {
+            return config;
+        }
+
+        HikariDataSource pool() {
+            return pool;
+        }
+
+        boolean isHealthy() {
+            return healthy && !pool.isClosed();
+        }
+
+        long lagMs() {
+            return lagMs;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            return poolBean == null ? 0 : poolBean.getActiveConnections();
+        }
+
+        /**
+         * Expected cost of one more read: the smoothed round trip, scaled by the reads in flight.
+         */
+        double score() {
+            return Math.max(latencyNanos, 1) * (activeConnections() + 1);
+        }
+
+        /**
+         * @return true if the replica entered or left rotation
+         */
+        private synchronized boolean recordProbe(long roundTripNanos, long lagMs, boolean healthy) {
+            latencyNanos = latencyNanos < 0
+                    ? roundTripNanos
+                    : LATENCY_ALPHA * roundTripNanos + (1 - LATENCY_ALPHA) * latencyNanos;
+            this.lagMs = lagMs;
+            lastError = healthy ? null : "Replication lag of " + lagMs + " ms";
+            boolean changed = this.healthy != healthy;
+            this.healthy = healthy;
+            return changed;
+        }
+
+        /**
+         * @return true if the replica was in rotation
+         */
+        private synchronized boolean markDown(String error) {
+            lastError = error;
+            boolean wasHealthy = healthy;
+            healthy = false;
+            return wasHealthy;
+        }
+
+        private TenantReplicaStatus status() {
+            double latency = latencyNanos;
+            return new TenantReplicaStatus(tenantId, config.toString(), isHealthy(), lagMs,
+                    latency < 0 ? -1 : latency / 1_000_000.0, activeConnections(), lastError);
+        }
+    }
+}
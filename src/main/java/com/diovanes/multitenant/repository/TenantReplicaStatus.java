@@ -0,0 +1,22 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * State of a tenant's read replica, as recorded by the last probe of {@link TenantReplicaPools}.
+ *
+ * @param tenantId          the tenant identifier
+ * @param replica           the replica, as user@host:port/database
+ * @param healthy           whether reads are routed to the replica
+ * @param lagMs             replication lag measured by the last probe, or -1 if never measured
+ * @param latencyMs         smoothed round trip of the probes in milliseconds, or -1 if never probed
+ * @param activeConnections connections currently borrowed from the replica's pool
+ * @param lastError         message of the last failure, or null
+ */
+public record TenantReplicaStatus(
+        String tenantId,
+        String replica,
+        boolean healthy,
+        long lagMs,
+        double latencyMs,
+        int activeConnections,
+        String lastError) {
+}
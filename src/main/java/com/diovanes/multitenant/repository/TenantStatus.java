@@ -0,0 +1,19 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Health status of a tenant database, as observed by {@link TenantHealthMonitor}.
+ */
+public enum TenantStatus {
+
+    /** Not probed yet. */
+    UNKNOWN,
+
+    /** Last probe succeeded within the latency threshold. */
+    UP,
+
+    /** Last probe was slow, or failed fewer times in a row than the DOWN threshold. */
+    DEGRADED,
+
+    /** Probes failed repeatedly; the database is considered unreachable. */
+    DOWN
+}
@@ -0,0 +1,44 @@
+package com.diovanes.multitenant.repository;
+
+/**
+ * Thrown when a request for a tenant is rejected without touching its database,
+ * because the tenant is known to be unavailable.
+ *
+ * Carries a hint of how long callers should wait before retrying.
+ */
+public class TenantUnavailableException extends RuntimeException {
+
+    private final String tenantId;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor.
+     *
+     * @param tenantId          the tenant identifier
+     * @param retryAfterSeconds suggested delay before retrying, in seconds
+     * @param message           the detail message
+     */
+    public TenantUnavailableException(String tenantId, long retryAfterSeconds, String message) {
+        super(message);
+        this.tenantId = tenantId;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Gets the tenant identifier.
+     *
+     * @return the tenantId
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Gets the suggested delay before retrying.
+     *
+     * @return the delay in seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,54 @@
+package com.diovanes.multitenant.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Position in a tenant's change feed: the {@code (updated_at, id)} of the last row read.
+ *
+ * Clients receive it as an opaque, URL-safe token and send it back unchanged. The
+ * timestamp is kept to the microsecond, the precision of a PostgreSQL {@code timestamp},
+ * so no row is skipped or repeated at a page boundary.
+ *
+ * @param updatedAt the {@code updated_at} of the last row read
+ * @param id        the id of the last row read
+ */
+public record ChangeWatermark(LocalDateTime updatedAt, long id) {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Encode this watermark as a token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        long micros = ChronoUnit.MICROS.between(EPOCH, updatedAt);
+        String raw = micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the watermark
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ChangeWatermark decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            long micros = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+            return new ChangeWatermark(updatedAt, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid since token: " + token);
+        }
+    }
+}
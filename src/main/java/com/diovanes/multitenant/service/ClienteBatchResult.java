@@ -0,0 +1,14 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch lookup of clientes by id.
+ *
+ * @param found   the clientes found, in the order their ids were requested
+ * @param missing the requested ids that do not exist, in request order
+ */
+public record ClienteBatchResult(List<Cliente> found, List<Long> missing) {
+}
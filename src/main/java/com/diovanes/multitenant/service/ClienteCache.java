@@ -0,0 +1,206 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.ClienteCacheProperties;
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.DataSourceInvalidationListener;
+import com.diovanes.multitenant.repository.MultitenantDataSourceManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of Cliente rows, keyed by (tenantId, id).
+ *
+ * Each tenant gets its own Caffeine cache so size and TTL limits can be set per tenant
+ * and a tenant can be wiped without touching the others. Lookups that find nothing are
+ * cached too, with the shorter negative TTL. A tenant's entries are discarded whenever
+ * its datasource is invalidated in {@link MultitenantDataSourceManager}.
+ *
+ * When the cache is disabled every call goes straight to the loader.
+ */
+@Component
+public class ClienteCache implements DataSourceInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteCache.class);
+
+    private final ClienteCacheProperties properties;
+
+    private final Map<String, Cache<Long, CachedCliente>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param properties                   the cache configuration
+     * @param multitenantDataSourceManager the manager whose invalidations wipe tenant entries
+     */
+    public ClienteCache(ClienteCacheProperties properties, MultitenantDataSourceManager multitenantDataSourceManager) {
+        this.properties = properties;
+        multitenantDataSourceManager.addInvalidationListener(this);
+    }
+
+    /**
+     * Whether the cache is enabled.
+     *
+     * @return true if lookups are cached
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Get a cliente, loading it on a miss.
+     *
+     * Concurrent misses for the same key share a single load.
+     *
+     * @param tenantId the tenant identifier
+     * @param id       the cliente id
+     * @param loader   loads the cliente from the database, returning null if it does not exist
+     * @return the cliente, or null if it does not exist
+     */
+    public Cliente get(String tenantId, Long id, Function<Long, Cliente> loader) {
+        if (!isEnabled()) {
+            return loader.apply(id);
+        }
+
+        return cacheFor(tenantId).get(id, key -> new CachedCliente(loader.apply(key))).cliente();
+    }
+
+    /**
+     * Get many clientes, loading all the ids that are not cached with a single call.
+     *
+     * The loaded results, including ids not found, are stored in the tenant's cache as it
+     * was when the call started; if the tenant is invalidated while they load, they are
+     * dropped with it instead of outliving the invalidation.
+     *
+     * @param tenantId the tenant identifier
+     * @param ids      the cliente ids
+     * @param loader   loads the clientes of the given ids from the database; ids not found are left out
+     * @return the lookup result of every id, keyed by id
+     */
+    public Map<Long, CachedCliente> getAll(String tenantId, Collection<Long> ids, Function<List<Long>, List<Cliente>> loader) {
+        if (!isEnabled()) {
+            return load(ids, loader);
+        }
+
+        return cacheFor(tenantId).getAll(ids, missing -> load(missing, loader));
+    }
+
+    private static Map<Long, CachedCliente> load(Collection<? extends Long> ids, Function<List<Long>, List<Cliente>> loader) {
+        Map<Long, CachedCliente> results = new HashMap<>();
+        for (Cliente cliente : loader.apply(new ArrayList<>(ids))) {
+            results.put(cliente.getId(), new CachedCliente(cliente));
+        }
+        for (Long id : ids) {
+            results.putIfAbsent(id, new CachedCliente(null));
+        }
+        return results;
+    }
+
+    /**
+     * Discard all cached entries of a tenant.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void invalidateTenant(String tenantId) {
+        Cache<Long, CachedCliente> cache = caches.remove(tenantId);
+        if (cache != null) {
+            cache.invalidateAll();
+            logger.info("Cliente cache cleared for tenantId: {}", tenantId);
+        }
+    }
+
+    /**
+     * Hit/miss statistics per tenant.
+     *
+     * @return statistics keyed by tenantId
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        caches.forEach((tenantId, cache) -> stats.put(tenantId, cache.stats()));
+        return stats;
+    }
+
+    /**
+     * Number of cached entries per tenant.
+     *
+     * @return approximate entry counts keyed by tenantId
+     */
+    public Map<String, Long> sizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        caches.forEach((tenantId, cache) -> sizes.put(tenantId, cache.estimatedSize()));
+        return sizes;
+    }
+
+    @Override
+    public void onDataSourceInvalidated(String tenantId) {
+        invalidateTenant(tenantId);
+    }
+
+    @Override
+    public void onAllDataSourcesClosed() {
+        caches.clear();
+    }
+
+    private Cache<Long, CachedCliente> cacheFor(String tenantId) {
+        return caches.computeIfAbsent(tenantId, this::buildCache);
+    }
+
+    private Cache<Long, CachedCliente> buildCache(String tenantId) {
+        long ttlNanos = properties.ttlFor(tenantId).toNanos();
+        long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        long maxSize = properties.maxSizeFor(tenantId);
+
+        logger.debug("Creating cliente cache for tenantId: {} (maxSize {}, ttl {})", tenantId, maxSize, properties.ttlFor(tenantId));
+
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, CachedCliente>() {
+                    @Override
+                    public long expireAfterCreate(Long key, CachedCliente value, long currentTime) {
+                        return value.isFound() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, CachedCliente value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, CachedCliente value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * A cached lookup result; {@code cliente} is null when the row does not exist.
+     *
+     * @param cliente the cached cliente, or null for a negative entry
+     */
+    public record CachedCliente(Cliente cliente) {
+
+        /**
+         * Whether the lookup found a row.
+         *
+         * @return true if {@code cliente} is set
+         */
+        public boolean isFound() {
+            return cliente != null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.util.List;
+
+/**
+ * One page of a tenant's change feed.
+ *
+ * @param clientes  the clientes written after the requested watermark, oldest write first
+ * @param nextSince the watermark to request the next page with; unchanged if nothing was returned
+ * @param hasMore   whether more changes are already available after this page
+ */
+public record ClienteChanges(List<Cliente> clientes, String nextSince, boolean hasMore) {
+}
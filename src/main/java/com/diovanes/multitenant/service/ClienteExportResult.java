@@ -0,0 +1,48 @@
+package com.diovanes.multitenant.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of exporting one tenant's clientes to a file.
+ *
+ * @param tenantId     the tenant identifier
+ * @param file         the file written, or null if the export failed
+ * @param rows         clientes written
+ * @param bytes        size of the file
+ * @param elapsedNanos time taken by this tenant's export
+ * @param error        what went wrong, or null if the export succeeded
+ */
+public record ClienteExportResult(String tenantId, String file, long rows, long bytes, long elapsedNanos,
+                                  String error) {
+
+    static ClienteExportResult failed(String tenantId, long elapsedNanos, String error) {
+        return new ClienteExportResult(tenantId, null, 0, 0, elapsedNanos, error);
+    }
+
+    /**
+     * Whether the tenant was exported.
+     *
+     * @return true if the file was written
+     */
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    /**
+     * Elapsed time in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Export throughput.
+     *
+     * @return rows written per second, or 0 if nothing was written
+     */
+    public long rowsPerSecond() {
+        return elapsedNanos <= 0 ? 0 : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,276 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.ClienteExporter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export of tenants' clientes as CSV or NDJSON, to a response or to files on local disk.
+ *
+ * Rows are produced by {@link ClienteExporter} with COPY and optionally gzipped on the fly, at
+ * the fastest compression level so the export stays bound by the disk or the network rather
+ * than the CPU. Memory use does not depend on the number of clientes.
+ *
+ * An export job writes one file per tenant to {@code app.clientes.export.directory}, exporting
+ * {@code app.clientes.export.parallelism} tenants at a time. Each file is written under a
+ * temporary name and renamed when complete, so a reader never sees a partial export.
+ */
+@Service
+public class ClienteExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteExportService.class);
+
+    private final ClienteService clienteService;
+    private final ClienteExporter clienteExporter;
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final Path directory;
+    private final int bufferSize;
+    private final ExecutorService exportExecutor;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param clienteService       the cliente service, for tenant validation
+     * @param clienteExporter      the COPY-based exporter
+     * @param tenantConfigRegistry the declared tenants, exported when a job names none
+     * @param directory            directory export jobs write their files to
+     * @param parallelism          tenants exported at once by a job
+     * @param bufferSize           bytes buffered by the gzip stream
+     */
+    public ClienteExportService(ClienteService clienteService,
+                                ClienteExporter clienteExporter,
+                                TenantConfigRegistry tenantConfigRegistry,
+                                @Value("${app.clientes.export.directory:${java.io.tmpdir}/clientes-export}") String directory,
+                                @Value("${app.clientes.export.parallelism:2}") int parallelism,
+                                @Value("${app.clientes.export.buffer-size:65536}") int bufferSize) {
+        this.clienteService = clienteService;
+        this.clienteExporter = clienteExporter;
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.bufferSize = bufferSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.exportExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "clientes-export-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parse the name of an export format.
+     *
+     * @param name csv or ndjson, case-insensitive
+     * @return the format
+     * @throws IllegalArgumentException if the format is unknown or not supported
+     */
+    public static ClienteExporter.Format formatOf(String name) {
+        String format = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        return switch (format) {
+            case "csv" -> ClienteExporter.Format.CSV;
+            case "ndjson" -> ClienteExporter.Format.NDJSON;
+            case "parquet" -> throw new IllegalArgumentException(
+                    "parquet export is not supported by this server; use csv or ndjson");
+            default -> throw new IllegalArgumentException("format must be csv or ndjson");
+        };
+    }
+
+    /**
+     * Write all clientes of a tenant to a stream.
+     *
+     * @param tenantId the tenant identifier
+     * @param format   the output format
+     * @param gzip     whether to gzip the output
+     * @param output   the destination; flushed but not closed
+     * @return the number of clientes written
+     * @throws IllegalArgumentException if tenantId is invalid
+     * @throws UncheckedIOException if the output cannot be written
+     */
+    public long exportClientesByTenant(String tenantId, ClienteExporter.Format format, boolean gzip,
+                                       OutputStream output) {
+        logger.info("Service: Exporting clientes as {}{} for tenantId: {}", format, gzip ? " (gzip)" : "", tenantId);
+
+        clienteService.checkTenantAvailable(tenantId);
+        if (!gzip) {
+            return clienteExporter.export(tenantId, format, output);
+        }
+
+        FastGzipOutputStream compressed = null;
+        try {
+            compressed = new FastGzipOutputStream(output, bufferSize);
+            long rows = clienteExporter.export(tenantId, format, compressed);
+            compressed.finish();
+            compressed.flush();
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // A failed export is left without its gzip trailer, so clients see it as truncated
+            if (compressed != null) {
+                compressed.release();
+            }
+        }
+    }
+
+    /**
+     * Export many tenants to files, one per tenant, several tenants at a time.
+     *
+     * Files are named {@code <tenantId>.<format>[.gz]} and replace earlier exports. A failing
+     * tenant is reported as such and does not affect the others.
+     *
+     * @param tenantIds the tenants to export, or null or empty for every declared tenant
+     * @param format    the output format
+     * @param gzip      whether to gzip the files
+     * @param onResult  callback invoked once per tenant, on the calling thread, as tenants complete;
+     *                  if it throws, the tenants not yet exported are cancelled
+     * @return the totals of the export
+     * @throws IllegalStateException if the export directory cannot be created
+     */
+    public ClienteExportSummary exportTenantsToDirectory(Collection<String> tenantIds, ClienteExporter.Format format,
+                                                         boolean gzip, Consumer<ClienteExportResult> onResult) {
+        Set<String> tenants = tenantIds == null || tenantIds.isEmpty()
+                ? tenantConfigRegistry.tenantIds()
+                : new LinkedHashSet<>(tenantIds);
+        logger.info("Service: Exporting {} tenant(s) as {} to {}", tenants.size(), format, directory);
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create export directory " + directory, e);
+        }
+
+        long started = System.nanoTime();
+        CompletionService<ClienteExportResult> completion = new ExecutorCompletionService<>(exportExecutor);
+        List<Future<ClienteExportResult>> tasks = new ArrayList<>(tenants.size());
+        for (String tenantId : tenants) {
+            tasks.add(completion.submit(() -> exportToFile(tenantId, format, gzip)));
+        }
+
+        int succeeded = 0;
+        long rows = 0;
+        long bytes = 0;
+        try {
+            for (int i = 0; i < tenants.size(); i++) {
+                ClienteExportResult result = take(completion);
+                if (result.succeeded()) {
+                    succeeded++;
+                    rows += result.rows();
+                    bytes += result.bytes();
+                }
+                onResult.accept(result);
+            }
+        } finally {
+            // When the caller gives up, stop the tenants still queued or exporting; an
+            // interrupted export deletes its partial file and leaves the previous one in place
+            for (Future<ClienteExportResult> task : tasks) {
+                task.cancel(true);
+            }
+        }
+
+        ClienteExportSummary summary = new ClienteExportSummary(directory.toString(), tenants.size(), succeeded,
+                tenants.size() - succeeded, rows, bytes, System.nanoTime() - started);
+        logger.info("Service: Exported {} clientes from {} of {} tenant(s) in {} ms",
+                rows, succeeded, tenants.size(), summary.elapsedMillis());
+        return summary;
+    }
+
+    /**
+     * Stop the export threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
+    }
+
+    private ClienteExportResult exportToFile(String tenantId, ClienteExporter.Format format, boolean gzip) {
+        long started = System.nanoTime();
+        if (!tenantConfigRegistry.contains(tenantId)) {
+            return ClienteExportResult.failed(tenantId, 0, "Unknown tenant: " + tenantId);
+        }
+
+        Path target = directory.resolve(tenantId + "." + format.extension() + (gzip ? ".gz" : ""));
+        Path partial = null;
+        try {
+            partial = Files.createTempFile(directory, tenantId + ".", ".part");
+            long rows;
+            try (OutputStream output = Files.newOutputStream(partial)) {
+                rows = exportClientesByTenant(tenantId, format, gzip, output);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new ClienteExportResult(tenantId, target.toString(), rows, Files.size(target),
+                    System.nanoTime() - started, null);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Service: Error exporting clientes to {} for tenantId: {}", target, tenantId, e);
+            deleteQuietly(partial);
+            return ClienteExportResult.failed(tenantId, System.nanoTime() - started,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private static ClienteExportResult take(CompletionService<ClienteExportResult> completion) {
+        try {
+            Future<ClienteExportResult> done = completion.take();
+            return done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting tenants", e);
+        } catch (ExecutionException e) {
+            // exportToFile reports its own failures; anything else is a bug
+            throw new IllegalStateException("Export task failed", e.getCause());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Service: Could not delete partial export {}", file, e);
+        }
+    }
+
+    /**
+     * Gzip stream at the fastest level that can free its native deflater without closing the
+     * underlying stream, which belongs to the caller.
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+
+        private FastGzipOutputStream(OutputStream output, int bufferSize) throws IOException {
+            super(output, bufferSize);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+
+        private void release() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.diovanes.multitenant.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals of an export of many tenants to files.
+ *
+ * @param directory    the directory the files were written to
+ * @param tenants      tenants exported, including undeclared ones
+ * @param succeeded    tenants whose file was written
+ * @param failed       tenants that failed or were unavailable
+ * @param rows         clientes written across tenants
+ * @param bytes        bytes written across tenants
+ * @param elapsedNanos wall time of the whole export
+ */
+public record ClienteExportSummary(String directory, int tenants, int succeeded, int failed, long rows, long bytes,
+                                   long elapsedNanos) {
+
+    /**
+     * Elapsed time in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
@@ -0,0 +1,23 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.util.List;
+
+/**
+ * A single page of clientes returned by keyset pagination.
+ *
+ * @param clientes  the clientes in this page, ordered by id
+ * @param nextAfter the cursor to request the next page with, or null if this is the last page
+ */
+public record ClientePage(List<Cliente> clientes, Long nextAfter) {
+
+    /**
+     * Whether another page is available after this one.
+     *
+     * @return true if {@link #nextAfter()} is set
+     */
+    public boolean hasMore() {
+        return nextAfter != null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.TenantUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical cliente reads into one database execution.
+ *
+ * While a list of a tenant, or a cliente by id, is being read, further requests for the
+ * same data wait for that read and share its result, or its exception. Results are not
+ * kept after the read completes, so nothing is served that is older than the request
+ * that triggered it. A read that fails because the request running it ran out of time or
+ * was cancelled is not shared; waiting requests read again under their own deadlines.
+ *
+ * A request waits at most {@code app.clientes.single-flight.max-wait-ms} for a shared
+ * read and is then rejected as if its tenant were unavailable. Disabled by
+ * {@code app.clientes.single-flight.enabled=false}.
+ */
+@Component
+public class ClienteRequestCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteRequestCoalescer.class);
+
+    private final boolean enabled;
+    private final long maxWaitMs;
+
+    private final SingleFlight<String, List<Cliente>> allClientes = new SingleFlight<>();
+    private final SingleFlight<ClienteKey, Cliente> clienteById = new SingleFlight<>();
+
+    private final Counter allClientesShared;
+    private final Counter clienteByIdShared;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param meterRegistry the meter registry
+     * @param enabled       whether identical concurrent reads are coalesced
+     * @param maxWaitMs     maximum time a request waits for a read started by another request
+     */
+    public ClienteRequestCoalescer(MeterRegistry meterRegistry,
+                                   @Value("${app.clientes.single-flight.enabled:true}") boolean enabled,
+                                   @Value("${app.clientes.single-flight.max-wait-ms:10000}") long maxWaitMs) {
+        this.enabled = enabled;
+        this.maxWaitMs = maxWaitMs;
+
+        this.allClientesShared = sharedCounter(meterRegistry, "findAll");
+        this.clienteByIdShared = sharedCounter(meterRegistry, "findById");
+        Gauge.builder("clientes.single.flight.in.flight", this,
+                        coalescer -> coalescer.allClientes.inFlight() + coalescer.clienteById.inFlight())
+                .description("Cliente reads currently shared by concurrent requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Read all clientes of a tenant, sharing a read already in flight.
+     *
+     * @param tenantId the tenant identifier
+     * @param loader   reads the clientes from the database
+     * @return the clientes; the list is shared and must not be modified
+     */
+    public List<Cliente> findAll(String tenantId, Supplier<List<Cliente>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return run(allClientes, tenantId, tenantId, () -> Collections.unmodifiableList(loader.get()), allClientesShared);
+    }
+
+    /**
+     * Read a cliente by id, sharing a read already in flight.
+     *
+     * @param tenantId the tenant identifier
+     * @param id       the cliente id
+     * @param loader   reads the cliente from the database, returning null if it does not exist
+     * @return the cliente, or null if it does not exist
+     */
+    public Cliente findById(String tenantId, Long id, Supplier<Cliente> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return run(clienteById, new ClienteKey(tenantId, id), tenantId, loader, clienteByIdShared);
+    }
+
+    private <K, V> V run(SingleFlight<K, V> flight, K key, String tenantId, Supplier<V> loader, Counter shared) {
+        try {
+            SingleFlight.Result<V> result = flight.execute(key, loader, maxWaitMs);
+            if (result.shared()) {
+                shared.increment();
+                logger.debug("Shared in-flight read of {} for tenantId: {}", key, tenantId);
+            }
+            return result.value();
+        } catch (TimeoutException e) {
+            logger.warn("Gave up waiting {} ms for in-flight read of {} for tenantId: {}", maxWaitMs, key, tenantId);
+            throw new TenantUnavailableException(tenantId, 1,
+                    "Timed out after " + maxWaitMs + " ms waiting for a read in progress for tenant: " + tenantId);
+        }
+    }
+
+    private static Counter sharedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("clientes.single.flight.shared")
+                .description("Requests answered by a read started by another request")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Key of a cliente read by id.
+     */
+    private record ClienteKey(String tenantId, Long id) {
+    }
+}
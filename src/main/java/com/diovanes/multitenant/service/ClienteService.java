@@ -1,12 +1,25 @@
 package com.diovanes.multitenant.service;
 
 import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.ClienteBulkLoader;
+import com.diovanes.multitenant.repository.ClienteBulkResult;
+import com.diovanes.multitenant.repository.ClienteChange;
 import com.diovanes.multitenant.repository.ClienteRepository;
+import com.diovanes.multitenant.repository.ClienteSearch;
+import com.diovanes.multitenant.repository.MultitenantDataSourceManager;
+import com.diovanes.multitenant.repository.TenantUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service class for handling Cliente business logic.
@@ -20,24 +33,72 @@ public class ClienteService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClienteService.class);
 
+    private static final int MIN_CONTAINS_LENGTH = 3;
+
     private final ClienteRepository clienteRepository;
+    private final ClienteBulkLoader clienteBulkLoader;
+    private final ClienteCache clienteCache;
+    private final ClienteVersionCache clienteVersionCache;
+    private final ClienteRequestCoalescer clienteRequestCoalescer;
+    private final ClienteSnapshotManager clienteSnapshotManager;
+    private final TenantFanOutService tenantFanOutService;
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final int maxBatchSize;
+    private final long changesVisibilityLagMs;
+    private final int maxSearchPageSize;
+    private final boolean searchContainsEnabled;
 
     /**
      * Constructor with dependencies injection.
      *
      * @param clienteRepository                the cliente repository
+     * @param clienteBulkLoader                the COPY-based bulk loader
+     * @param clienteCache                     the read-through cliente cache
+     * @param clienteVersionCache              the per-tenant table version cache, for list ETags
+     * @param clienteRequestCoalescer          shares concurrent identical reads
+     * @param clienteSnapshotManager           in-memory snapshots of opted-in tenants
+     * @param tenantFanOutService              runs cross-tenant queries in parallel
+     * @param multitenantDataSourceManager     the multitenant data source manager
+     * @param maxBatchSize                     maximum number of ids accepted by a batch lookup
+     * @param changesVisibilityLagMs           how recent a write may be and still be left out of the change feed
+     * @param maxSearchPageSize                upper bound for the page size of a search
+     * @param searchContainsEnabled            whether searches may match text anywhere in nome or email
      */
-    public ClienteService(ClienteRepository clienteRepository) {
+    public ClienteService(ClienteRepository clienteRepository,
+                          ClienteBulkLoader clienteBulkLoader,
+                          ClienteCache clienteCache,
+                          ClienteVersionCache clienteVersionCache,
+                          ClienteRequestCoalescer clienteRequestCoalescer,
+                          ClienteSnapshotManager clienteSnapshotManager,
+                          TenantFanOutService tenantFanOutService,
+                          MultitenantDataSourceManager multitenantDataSourceManager,
+                          @Value("${app.clientes.max-batch-size:10000}") int maxBatchSize,
+                          @Value("${app.clientes.changes.visibility-lag-ms:5000}") long changesVisibilityLagMs,
+                          @Value("${app.clientes.search.max-page-size:100}") int maxSearchPageSize,
+                          @Value("${app.clientes.search.contains-enabled:false}") boolean searchContainsEnabled) {
         this.clienteRepository = clienteRepository;
+        this.clienteBulkLoader = clienteBulkLoader;
+        this.clienteCache = clienteCache;
+        this.clienteVersionCache = clienteVersionCache;
+        this.clienteRequestCoalescer = clienteRequestCoalescer;
+        this.clienteSnapshotManager = clienteSnapshotManager;
+        this.tenantFanOutService = tenantFanOutService;
+        this.multitenantDataSourceManager = multitenantDataSourceManager;
+        this.maxBatchSize = maxBatchSize;
+        this.changesVisibilityLagMs = changesVisibilityLagMs;
+        this.maxSearchPageSize = maxSearchPageSize;
+        this.searchContainsEnabled = searchContainsEnabled;
     }
 
     /**
      * Retrieve all clientes for a specific tenant.
      * 
      * This method validates that the tenant exists before attempting to fetch clientes.
+     * Concurrent calls for the same tenant share one database read. Tenants with a
+     * snapshot are served from memory.
      *
      * @param tenantId the tenant identifier
-     * @return a list of Cliente objects
+     * @return a list of Cliente objects; the list is shared and must not be modified
      * @throws IllegalArgumentException if tenantId is invalid
      * @throws RuntimeException if an error occurs while fetching clientes
      */
@@ -50,16 +111,245 @@ public class ClienteService {
             throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
         }
 
-        // Fetch clientes from repository
-        List<Cliente> clientes = clienteRepository.findAllByTenant(tenantId);
+        ClienteSnapshot snapshot = clienteSnapshotManager.get(tenantId);
+        if (snapshot != null) {
+            logger.info("Service: Serving {} clientes from the snapshot of tenantId: {}", snapshot.size(), tenantId);
+            return snapshot.all();
+        }
+
+        // Fetch clientes from repository, sharing a read already in flight for the tenant
+        List<Cliente> clientes = clienteRequestCoalescer.findAll(tenantId, () -> clienteRepository.findAllByTenant(tenantId));
         logger.info("Service: Successfully fetched {} clientes for tenantId: {}", clientes.size(), tenantId);
         
         return clientes;
     }
 
+    /**
+     * Get the current version of a tenant's clientes, for conditional requests.
+     *
+     * The version is cached for {@code app.clientes.etag.version-ttl-ms}, so most calls
+     * do not reach the database. Tenants served from a snapshot get the snapshot's version,
+     * which matches the list they are served.
+     *
+     * @param tenantId the tenant identifier
+     * @return an opaque version that changes when any cliente of the tenant changes
+     * @throws IllegalArgumentException if tenantId is invalid
+     */
+    public String getClienteListVersion(String tenantId) {
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        String snapshotVersion = clienteSnapshotManager.version(tenantId);
+        return snapshotVersion != null ? snapshotVersion : clienteVersionCache.get(tenantId);
+    }
+
+    /**
+     * Retrieve one page of clientes for a specific tenant using keyset pagination.
+     *
+     * One extra row is requested from the repository so callers can tell whether
+     * another page exists without issuing an additional query. Tenants with a snapshot
+     * are served from memory.
+     *
+     * @param tenantId the tenant identifier
+     * @param afterId  cursor: only clientes with an id greater than this value are returned
+     * @param limit    page size
+     * @return the requested page
+     * @throws IllegalArgumentException if tenantId, afterId or limit is invalid
+     */
+    public ClientePage getClientesPageByTenant(String tenantId, long afterId, int limit) {
+        logger.info("Service: Fetching page of clientes after id: {} (limit {}) for tenantId: {}", afterId, limit, tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        if (afterId < 0) {
+            logger.error("Invalid cursor: {}", afterId);
+            throw new IllegalArgumentException("Invalid cursor: " + afterId);
+        }
+
+        if (limit <= 0) {
+            logger.error("Invalid page limit: {}", limit);
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+
+        ClienteSnapshot snapshot = clienteSnapshotManager.get(tenantId);
+        List<Cliente> rows = snapshot != null
+                ? snapshot.page(afterId, limit + 1)
+                : clienteRepository.findPageByTenant(tenantId, afterId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Cliente> clientes = hasMore ? rows.subList(0, limit) : rows;
+        Long nextAfter = hasMore ? clientes.get(clientes.size() - 1).getId() : null;
+
+        logger.info("Service: Successfully fetched page of {} clientes for tenantId: {}", clientes.size(), tenantId);
+        return new ClientePage(clientes, nextAfter);
+    }
+
+    /**
+     * Search the clientes of a specific tenant by nome and email, one keyset page at a time.
+     *
+     * The page size is capped at {@code app.clientes.search.max-page-size}, and every query
+     * is answered from an index, so a search reads a few index pages whatever the size of the
+     * tenant. Searching for text anywhere in nome or email needs the {@code pg_trgm} indexes
+     * and is only accepted with {@code app.clientes.search.contains-enabled}.
+     *
+     * @param tenantId the tenant identifier
+     * @param search   the filters
+     * @param afterId  cursor: only clientes with an id greater than this value are returned
+     * @param limit    requested page size
+     * @return the requested page of matching clientes
+     * @throws IllegalArgumentException if tenantId, a filter, afterId or limit is invalid
+     */
+    public ClientePage searchClientesByTenant(String tenantId, ClienteSearch search, long afterId, int limit) {
+        logger.info("Service: Searching clientes after id: {} (limit {}) for tenantId: {}", afterId, limit, tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        if (search == null || search.isEmpty()) {
+            throw new IllegalArgumentException("At least one of nome, nomePrefix, email, emailPrefix or q is required");
+        }
+
+        if (isSetButBlank(search.nome()) || isSetButBlank(search.nomePrefix()) || isSetButBlank(search.email())
+                || isSetButBlank(search.emailPrefix()) || isSetButBlank(search.contains())) {
+            throw new IllegalArgumentException("Search filters must not be blank");
+        }
+
+        if (search.contains() != null) {
+            if (!searchContainsEnabled) {
+                throw new IllegalArgumentException("Search by q is not enabled");
+            }
+            if (search.contains().length() < MIN_CONTAINS_LENGTH) {
+                // Shorter patterns have no trigram to look up and would scan the whole table
+                throw new IllegalArgumentException("q must have at least " + MIN_CONTAINS_LENGTH + " characters");
+            }
+        }
+
+        if (afterId < 0) {
+            logger.error("Invalid cursor: {}", afterId);
+            throw new IllegalArgumentException("Invalid cursor: " + afterId);
+        }
+
+        if (limit <= 0) {
+            logger.error("Invalid page limit: {}", limit);
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+
+        int pageSize = Math.min(limit, maxSearchPageSize);
+        List<Cliente> rows = clienteRepository.searchByTenant(tenantId, search, afterId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Cliente> clientes = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextAfter = hasMore ? clientes.get(clientes.size() - 1).getId() : null;
+
+        logger.info("Service: Search returned {} clientes for tenantId: {}", clientes.size(), tenantId);
+        return new ClientePage(clientes, nextAfter);
+    }
+
+    /**
+     * Retrieve the clientes written since a watermark for a specific tenant.
+     *
+     * Pages follow {@code (updated_at, id)} order. Writes from the last
+     * {@code app.clientes.changes.visibility-lag-ms}, and writes of transactions still in
+     * progress, are held back until a later call, so a transaction that commits after a page
+     * was read is still picked up however long it took. Deleted clientes are not reported.
+     *
+     * @param tenantId the tenant identifier
+     * @param since    token returned by a previous call, or null to start from the beginning
+     * @param limit    page size
+     * @return the changes and the watermark to continue from
+     * @throws IllegalArgumentException if tenantId, since or limit is invalid
+     */
+    public ClienteChanges getClienteChangesByTenant(String tenantId, String since, int limit) {
+        logger.info("Service: Fetching changes since {} (limit {}) for tenantId: {}", since, limit, tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        if (limit <= 0) {
+            logger.error("Invalid page limit: {}", limit);
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+
+        ChangeWatermark watermark = since == null || since.isBlank() ? null : ChangeWatermark.decode(since);
+
+        List<ClienteChange> rows = clienteRepository.findChangesByTenant(tenantId,
+                watermark == null ? null : watermark.updatedAt(),
+                watermark == null ? 0L : watermark.id(),
+                changesVisibilityLagMs,
+                limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<ClienteChange> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<Cliente> clientes = new ArrayList<>(page.size());
+        for (ClienteChange change : page) {
+            clientes.add(change.cliente());
+        }
+        String nextSince = since;
+        if (!page.isEmpty()) {
+            ClienteChange last = page.get(page.size() - 1);
+            nextSince = new ChangeWatermark(last.updatedAt(), last.cliente().getId()).encode();
+        }
+
+        logger.info("Service: Successfully fetched {} changes for tenantId: {}", clientes.size(), tenantId);
+        return new ClienteChanges(clientes, nextSince, hasMore);
+    }
+
+    /**
+     * Check that a tenant is valid and currently accepting requests.
+     *
+     * Meant for callers that must decide on the response status before doing any
+     * database work, such as streamed responses.
+     *
+     * @param tenantId the tenant identifier
+     * @throws IllegalArgumentException if tenantId is invalid
+     * @throws TenantUnavailableException if the tenant's database is known to be unavailable
+     */
+    public void checkTenantAvailable(String tenantId) {
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        multitenantDataSourceManager.ensureAvailable(tenantId);
+    }
+
+    /**
+     * Stream all clientes for a specific tenant, one row at a time.
+     *
+     * @param tenantId the tenant identifier
+     * @param consumer callback invoked once per cliente, in id order
+     * @return the number of clientes streamed
+     * @throws IllegalArgumentException if tenantId is invalid
+     */
+    public long streamAllClientesByTenant(String tenantId, Consumer<Cliente> consumer) {
+        logger.info("Service: Streaming all clientes for tenantId: {}", tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        ClienteSnapshot snapshot = clienteSnapshotManager.get(tenantId);
+        if (snapshot != null) {
+            snapshot.forEach(consumer);
+            return snapshot.size();
+        }
+
+        return clienteRepository.streamAllByTenant(tenantId, consumer);
+    }
+
     /**
      * Retrieve a specific cliente by id for a specific tenant.
      *
+     * Tenants with a snapshot are served from memory; others through the cliente cache.
+     *
      * @param tenantId the tenant identifier
      * @param id       the cliente id
      * @return the Cliente object if found, null otherwise
@@ -81,8 +371,10 @@ public class ClienteService {
             throw new IllegalArgumentException("Invalid cliente id: " + id);
         }
 
-        // Fetch cliente from repository
-        Cliente cliente = clienteRepository.findByIdAndTenant(tenantId, id);
+        // Fetch cliente from the snapshot, or through the cache, falling back to a shared repository read on a miss
+        ClienteSnapshot snapshot = clienteSnapshotManager.get(tenantId);
+        Cliente cliente = snapshot != null ? snapshot.findById(id) : clienteCache.get(tenantId, id, key -> clienteRequestCoalescer.findById(tenantId, key,
+                () -> clienteRepository.findByIdAndTenant(tenantId, key)));
         
         if (cliente != null) {
             logger.info("Service: Cliente with id: {} found for tenantId: {}", id, tenantId);
@@ -93,11 +385,131 @@ public class ClienteService {
         return cliente;
     }
 
+    /**
+     * Retrieve many clientes by id for a specific tenant.
+     *
+     * Ids already in the cliente cache (found or known missing) are answered from memory;
+     * the remaining ids are resolved with a single array query per chunk and the results,
+     * including misses, are cached.
+     *
+     * @param tenantId the tenant identifier
+     * @param ids      the cliente ids; duplicates are ignored
+     * @return the found clientes and the missing ids, both in request order
+     * @throws IllegalArgumentException if tenantId or any id is invalid, or too many ids are given
+     * @throws RuntimeException if an error occurs while fetching the clientes
+     */
+    public ClienteBatchResult getClientesByIdsAndTenant(String tenantId, Collection<Long> ids) {
+        logger.info("Service: Fetching {} clientes by id for tenantId: {}", ids == null ? 0 : ids.size(), tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+
+        if (ids.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many ids: " + ids.size() + " (maximum " + maxBatchSize + ")");
+        }
+
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        for (Long id : requested) {
+            if (id == null || id <= 0) {
+                logger.error("Invalid cliente id: {}", id);
+                throw new IllegalArgumentException("Invalid cliente id: " + id);
+            }
+        }
+
+        // Answer what we can from the cache, load the misses in one query per chunk and cache the outcome of each id
+        List<Long> toLoad = new ArrayList<>();
+        Map<Long, ClienteCache.CachedCliente> resolved = clienteCache.getAll(tenantId, requested, misses -> {
+            toLoad.addAll(misses);
+            return clienteRepository.findByIdsAndTenant(tenantId, misses);
+        });
+
+        List<Cliente> found = new ArrayList<>(resolved.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            ClienteCache.CachedCliente cached = resolved.get(id);
+            if (cached != null && cached.isFound()) {
+                found.add(cached.cliente());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        logger.info("Service: Batch lookup for tenantId: {} found {}, missing {}, {} from cache",
+                tenantId, found.size(), missing.size(), requested.size() - toLoad.size());
+        return new ClienteBatchResult(found, missing);
+    }
+
+    /**
+     * Insert or update many clientes for a specific tenant from a stream, keyed by email.
+     *
+     * The load is applied in a single transaction. The tenant's cached clientes and table
+     * version are dropped afterwards, since any of them, including cached misses, may have changed,
+     * and its reads stay on the primary until its read replicas have caught up.
+     *
+     * @param tenantId the tenant identifier
+     * @param format   the format of the input
+     * @param input    the rows to load
+     * @param header   whether the first CSV line is a header to skip
+     * @return the number of rows read, inserted and updated, and the load throughput
+     * @throws IllegalArgumentException if tenantId is invalid or the input is rejected
+     */
+    public ClienteBulkResult bulkUpsertClientes(String tenantId, ClienteBulkLoader.Format format,
+                                                InputStream input, boolean header) {
+        logger.info("Service: Bulk loading {} clientes for tenantId: {}", format, tenantId);
+
+        if (!isValidTenant(tenantId)) {
+            logger.error("Invalid tenant: {}", tenantId);
+            throw new IllegalArgumentException("Invalid tenantId: " + tenantId);
+        }
+
+        ClienteBulkResult result = clienteBulkLoader.upsert(tenantId, format, input, header);
+        multitenantDataSourceManager.markWritten(tenantId);
+        clienteCache.invalidateTenant(tenantId);
+        clienteVersionCache.invalidateTenant(tenantId);
+
+        logger.info("Service: Bulk loaded {} clientes for tenantId: {} in {} ms ({} rows/s)",
+                result.received(), tenantId, result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Find the clientes with an email across many tenants, querying them in parallel.
+     *
+     * @param email     the exact email
+     * @param tenantIds the tenants to search, or null or empty for every declared tenant
+     * @param onResult  callback invoked with each tenant's clientes, or its error, as it completes
+     * @return the totals of the search
+     * @throws IllegalArgumentException if email is blank
+     */
+    public TenantFanOutSummary findClientesByEmailAcrossTenants(String email, Collection<String> tenantIds,
+                                                                Consumer<TenantFanOutResult<List<Cliente>>> onResult) {
+        logger.info("Service: Searching clientes by email across {} tenant(s)",
+                tenantIds == null || tenantIds.isEmpty() ? "all" : tenantIds.size());
+
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email must not be blank");
+        }
+
+        return tenantFanOutService.fanOut(tenantIds,
+                tenantId -> clienteRepository.findByEmailAndTenant(tenantId, email),
+                onResult);
+    }
+
+    private static boolean isSetButBlank(String value) {
+        return value != null && value.isBlank();
+    }
+
     /**
      * Validate if a tenant is valid and has access to the database.
      *
      * @param tenantId the tenant identifier
-     * @return true if tenant is valid, false otherwise
+     * @return true if tenant is declared in tenants.yml, false otherwise
      */
     private boolean isValidTenant(String tenantId) {
         if (tenantId == null || tenantId.trim().isEmpty()) {
@@ -105,6 +517,6 @@ public class ClienteService {
             return false;
         }
 
-        return true;
+        return multitenantDataSourceManager.isTenantDeclared(tenantId);
     }
 }
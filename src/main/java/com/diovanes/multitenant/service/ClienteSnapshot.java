@@ -0,0 +1,301 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable in-memory copy of a tenant's clientes, stored column by column.
+ *
+ * Ids are a sorted {@code long[]}; {@code nome} and {@code email} are each one UTF-8
+ * {@code byte[]} with an {@code int[]} of offsets. A row therefore costs 16 bytes of ids and
+ * offsets plus its text, instead of a {@link Cliente}, a boxed {@link Long} and two
+ * {@link String}s. Lookups by id are binary searches; {@link Cliente} objects are only
+ * created for the rows a read returns.
+ *
+ * A snapshot is never modified: a refresh builds a new one with {@link #merge(List, long)}.
+ */
+public final class ClienteSnapshot {
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int OBJECT_BYTES = 16;
+
+    private final long[] ids;
+    private final StringColumn nomes;
+    private final StringColumn emails;
+
+    private ClienteSnapshot(long[] ids, StringColumn nomes, StringColumn emails) {
+        this.ids = ids;
+        this.nomes = nomes;
+        this.emails = emails;
+    }
+
+    /**
+     * Start a snapshot; rows must be added in ascending id order.
+     *
+     * @param maxBytes memory budget of the snapshot, 0 for none
+     * @return the builder
+     */
+    public static Builder builder(long maxBytes) {
+        return new Builder(maxBytes);
+    }
+
+    /**
+     * Number of clientes.
+     *
+     * @return the row count
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Highest id in the snapshot.
+     *
+     * @return the highest id, or 0 if the snapshot is empty
+     */
+    public long maxId() {
+        return ids.length == 0 ? 0 : ids[ids.length - 1];
+    }
+
+    /**
+     * Find a cliente by id.
+     *
+     * @param id the cliente id
+     * @return the cliente, or null if absent
+     */
+    public Cliente findById(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? null : cliente(index);
+    }
+
+    /**
+     * Read clientes in id order after a cursor.
+     *
+     * @param afterId only clientes with a greater id are returned
+     * @param limit   maximum number of clientes
+     * @return the clientes, in id order
+     */
+    public List<Cliente> page(long afterId, int limit) {
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from < 0 ? -from - 1 : from + 1;
+        int to = (int) Math.min((long) from + limit, ids.length);
+
+        List<Cliente> clientes = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            clientes.add(cliente(i));
+        }
+        return clientes;
+    }
+
+    /**
+     * Read all clientes.
+     *
+     * @return the clientes in id order; the list is unmodifiable
+     */
+    public List<Cliente> all() {
+        return Collections.unmodifiableList(page(Long.MIN_VALUE, ids.length));
+    }
+
+    /**
+     * Hand every cliente to a consumer, one at a time.
+     *
+     * @param consumer callback invoked once per cliente, in id order
+     */
+    public void forEach(Consumer<Cliente> consumer) {
+        for (int i = 0; i < ids.length; i++) {
+            consumer.accept(cliente(i));
+        }
+    }
+
+    /**
+     * Memory held by the snapshot: its arrays and their headers.
+     *
+     * @return the footprint in bytes
+     */
+    public long estimatedBytes() {
+        return OBJECT_BYTES + ARRAY_HEADER_BYTES + 8L * ids.length + nomes.estimatedBytes() + emails.estimatedBytes();
+    }
+
+    /**
+     * Build a new snapshot with some clientes added or replaced.
+     *
+     * This snapshot is left untouched and stays reachable while the new one is built, so a
+     * merge briefly needs memory for both: up to about twice {@code maxBytes}.
+     *
+     * @param changed  the new versions of changed clientes, in ascending id order without duplicates
+     * @param maxBytes memory budget of the new snapshot, 0 for none
+     * @return the new snapshot, or null if it would exceed the budget
+     */
+    public ClienteSnapshot merge(List<Cliente> changed, long maxBytes) {
+        Builder builder = new Builder(maxBytes, ids.length + changed.size(),
+                nomes.bytes.length, emails.bytes.length);
+
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < changed.size()) {
+            boolean added;
+            if (j == changed.size() || (i < ids.length && ids[i] < changed.get(j).getId())) {
+                added = builder.copy(this, i++);
+            } else {
+                Cliente cliente = changed.get(j++);
+                if (i < ids.length && ids[i] == cliente.getId()) {
+                    i++;
+                }
+                added = builder.add(cliente.getId(), cliente.getNome(), cliente.getEmail());
+            }
+            if (!added) {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+
+    private Cliente cliente(int index) {
+        return new Cliente(ids[index], nomes.get(index), emails.get(index));
+    }
+
+    /**
+     * Accumulates rows for a new snapshot, enforcing its memory budget.
+     */
+    public static final class Builder {
+
+        private final long maxBytes;
+        private long[] ids;
+        private int size;
+        private final StringColumn.Builder nomes;
+        private final StringColumn.Builder emails;
+
+        private Builder(long maxBytes) {
+            this(maxBytes, 1024, 16 * 1024, 16 * 1024);
+        }
+
+        private Builder(long maxBytes, int rows, int nomeBytes, int emailBytes) {
+            this.maxBytes = maxBytes;
+            this.ids = new long[Math.max(16, rows)];
+            this.nomes = new StringColumn.Builder(rows, nomeBytes);
+            this.emails = new StringColumn.Builder(rows, emailBytes);
+        }
+
+        /**
+         * Append a cliente; its id must be greater than the previous one.
+         *
+         * @param id    the cliente id
+         * @param nome  the cliente's name
+         * @param email the cliente's email
+         * @return false if the snapshot no longer fits its budget; the builder must then be discarded
+         */
+        public boolean add(long id, String nome, String email) {
+            appendId(id);
+            nomes.add(nome);
+            emails.add(email);
+            return fits();
+        }
+
+        /**
+         * Build the snapshot, trimming every array to its content.
+         *
+         * @return the snapshot
+         */
+        public ClienteSnapshot build() {
+            return new ClienteSnapshot(size == ids.length ? ids : Arrays.copyOf(ids, size),
+                    nomes.build(), emails.build());
+        }
+
+        private boolean copy(ClienteSnapshot source, int index) {
+            appendId(source.ids[index]);
+            nomes.copy(source.nomes, index);
+            emails.copy(source.emails, index);
+            return fits();
+        }
+
+        private void appendId(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1));
+            }
+            ids[size++] = id;
+        }
+
+        private boolean fits() {
+            if (maxBytes <= 0) {
+                return true;
+            }
+            long bytes = OBJECT_BYTES + ARRAY_HEADER_BYTES + 8L * size
+                    + nomes.estimatedBytes(size) + emails.estimatedBytes(size);
+            return bytes <= maxBytes;
+        }
+    }
+
+    /**
+     * A column of strings packed into one UTF-8 byte array.
+     */
+    private static final class StringColumn {
+
+        private final byte[] bytes;
+        private final int[] offsets;
+
+        private StringColumn(byte[] bytes, int[] offsets) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+        }
+
+        private String get(int index) {
+            int from = offsets[index];
+            return new String(bytes, from, offsets[index + 1] - from, StandardCharsets.UTF_8);
+        }
+
+        private long estimatedBytes() {
+            return OBJECT_BYTES + 2L * ARRAY_HEADER_BYTES + bytes.length + 4L * offsets.length;
+        }
+
+        private static final class Builder {
+
+            private byte[] bytes;
+            private int length;
+            private int[] offsets;
+            private int size;
+
+            private Builder(int rows, int bytes) {
+                this.bytes = new byte[Math.max(256, bytes)];
+                this.offsets = new int[Math.max(16, rows) + 1];
+            }
+
+            private void add(String value) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                append(encoded, 0, encoded.length);
+            }
+
+            private void copy(StringColumn source, int index) {
+                int from = source.offsets[index];
+                append(source.bytes, from, source.offsets[index + 1] - from);
+            }
+
+            private void append(byte[] source, int from, int count) {
+                if (length + count > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length + (bytes.length >> 1)));
+                }
+                System.arraycopy(source, from, bytes, length, count);
+                length += count;
+                if (size + 1 == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+                }
+                offsets[++size] = length;
+            }
+
+            private long estimatedBytes(int rows) {
+                return OBJECT_BYTES + 2L * ARRAY_HEADER_BYTES + length + 4L * (rows + 1);
+            }
+
+            private StringColumn build() {
+                // Arrays already of the right size are kept, so a merge does not copy them twice
+                return new StringColumn(length == bytes.length ? bytes : Arrays.copyOf(bytes, length),
+                        size + 1 == offsets.length ? offsets : Arrays.copyOf(offsets, size + 1));
+            }
+        }
+    }
+}
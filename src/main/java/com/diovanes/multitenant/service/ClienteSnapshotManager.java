@@ -0,0 +1,392 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.ClienteChange;
+import com.diovanes.multitenant.repository.ClienteRepository;
+import com.diovanes.multitenant.repository.TenantMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps opt-in tenants' clientes in memory as {@link ClienteSnapshot}s, so their list,
+ * id and page reads never reach PostgreSQL.
+ *
+ * A tenant opts in with {@code snapshot: true} in tenants.yml, and its snapshot may hold
+ * at most {@code snapshotMaxBytes} ({@code app.clientes.snapshot.default-max-bytes}). A
+ * tenant whose clientes do not fit is served from the database until its {@code snapshotMaxBytes}
+ * or its connection settings change. A refresh builds the new snapshot while the old one is
+ * still served, so a tenant may briefly hold up to twice its budget.
+ *
+ * Snapshots are loaded and refreshed on one background thread every
+ * {@code app.clientes.snapshot.refresh-interval-ms}: the first load streams the table in
+ * id order, later refreshes read only the rows written since, through the
+ * {@code (updated_at, id)} change feed, and merge them into a new snapshot. Like the
+ * change feed they hold back the last {@code app.clientes.changes.visibility-lag-ms} of
+ * writes and the writes of transactions still in progress, so reads may trail writes by that
+ * lag, or the duration of such a transaction, plus the refresh interval. Deletions are
+ * not in the change feed; every {@code app.clientes.snapshot.delete-check-interval-ms} the
+ * row count up to the highest id is compared with the snapshot, and a shortfall triggers a
+ * full reload. If a refresh fails, the previous snapshot keeps being served.
+ */
+@Component
+public class ClienteSnapshotManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClienteSnapshotManager.class);
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ClienteRepository clienteRepository;
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long defaultMaxBytes;
+    private final long refreshIntervalMs;
+    private final int refreshBatchSize;
+    private final long deleteCheckIntervalNanos;
+    private final long visibilityLagMs;
+
+    private final Map<String, TenantSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> registeredTags = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param clienteRepository        the cliente repository
+     * @param tenantConfigRegistry     the declared tenants, for the opt-in and budget keys
+     * @param tenantMetrics            the per-tenant metrics, for tags
+     * @param meterRegistry            the meter registry
+     * @param enabled                  whether tenants may be served from snapshots at all
+     * @param defaultMaxBytes          memory budget of tenants without {@code snapshotMaxBytes}
+     * @param refreshIntervalMs        delay between two refreshes of all snapshots
+     * @param refreshBatchSize         changes read per query during a refresh
+     * @param deleteCheckIntervalMs    minimum time between two checks for deleted rows
+     * @param visibilityLagMs          how recent a write may be and still be left for a later refresh
+     */
+    public ClienteSnapshotManager(ClienteRepository clienteRepository,
+                                  TenantConfigRegistry tenantConfigRegistry,
+                                  TenantMetrics tenantMetrics,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.clientes.snapshot.enabled:false}") boolean enabled,
+                                  @Value("${app.clientes.snapshot.default-max-bytes:67108864}") long defaultMaxBytes,
+                                  @Value("${app.clientes.snapshot.refresh-interval-ms:5000}") long refreshIntervalMs,
+                                  @Value("${app.clientes.snapshot.refresh-batch-size:10000}") int refreshBatchSize,
+                                  @Value("${app.clientes.snapshot.delete-check-interval-ms:60000}") long deleteCheckIntervalMs,
+                                  @Value("${app.clientes.changes.visibility-lag-ms:5000}") long visibilityLagMs) {
+        this.clienteRepository = clienteRepository;
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultMaxBytes = defaultMaxBytes;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.refreshBatchSize = refreshBatchSize;
+        this.deleteCheckIntervalNanos = TimeUnit.MILLISECONDS.toNanos(deleteCheckIntervalMs);
+        this.visibilityLagMs = visibilityLagMs;
+    }
+
+    /**
+     * Schedule the loads and refreshes.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Cliente snapshots disabled");
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clientes-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshAll, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Cliente snapshots enabled, refreshed every {} ms", refreshIntervalMs);
+    }
+
+    /**
+     * Stop refreshing.
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether snapshots are enabled.
+     *
+     * @return true if opt-in tenants are served from memory
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the snapshot serving a tenant.
+     *
+     * @param tenantId the tenant identifier
+     * @return the snapshot, or null if the tenant's reads must go to the database
+     */
+    public ClienteSnapshot get(String tenantId) {
+        TenantSnapshot entry = snapshots.get(tenantId);
+        return entry == null ? null : entry.snapshot();
+    }
+
+    /**
+     * Get the version of the clientes a tenant's snapshot holds, for list ETags.
+     *
+     * @param tenantId the tenant identifier
+     * @return an opaque version, or null if the tenant is not served from a snapshot
+     */
+    public String version(String tenantId) {
+        TenantSnapshot entry = snapshots.get(tenantId);
+        if (entry == null || entry.snapshot() == null) {
+            return null;
+        }
+        long watermarkMicros = entry.watermarkUpdatedAt() == null
+                ? 0
+                : ChronoUnit.MICROS.between(EPOCH, entry.watermarkUpdatedAt());
+        return "s" + entry.snapshot().size() + "-" + Long.toHexString(watermarkMicros) + "-" + entry.watermarkId();
+    }
+
+    /**
+     * State and footprint of every snapshot.
+     *
+     * @return one entry per opted-in tenant loaded so far
+     */
+    public List<ClienteSnapshotStats> stats() {
+        List<ClienteSnapshotStats> stats = new ArrayList<>();
+        snapshots.forEach((tenantId, entry) -> {
+            ClienteSnapshot snapshot = entry.snapshot();
+            stats.add(new ClienteSnapshotStats(tenantId,
+                    snapshot == null ? "OVER_BUDGET" : "READY",
+                    snapshot == null ? 0 : snapshot.size(),
+                    snapshot == null ? 0 : snapshot.estimatedBytes(),
+                    entry.maxBytes(),
+                    entry.refreshedAt()));
+        });
+        return stats;
+    }
+
+    private void refreshAll() {
+        snapshots.keySet().removeIf(tenantId -> {
+            TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+            return tenant == null || !tenant.booleanProperty("snapshot", false);
+        });
+
+        for (TenantConfig tenant : tenantConfigRegistry.all()) {
+            if (!tenant.booleanProperty("snapshot", false)) {
+                continue;
+            }
+            try {
+                refresh(tenant);
+            } catch (Exception e) {
+                logger.warn("Error refreshing cliente snapshot of tenantId: {} - {}", tenant.tenantId(), e.getMessage());
+            }
+        }
+    }
+
+    private void refresh(TenantConfig tenant) {
+        String tenantId = tenant.tenantId();
+        TenantSnapshot current = snapshots.get(tenantId);
+
+        TenantSnapshot next;
+        if (current == null || !isSameSnapshot(current, tenant)) {
+            next = load(tenant);
+        } else if (current.snapshot() == null) {
+            // Over budget: wait for the tenant's budget or database to change before trying again
+            return;
+        } else {
+            next = update(current);
+            long now = System.nanoTime();
+            if (next.snapshot() != null && now - next.deletesCheckedAt() >= deleteCheckIntervalNanos) {
+                if (hasDeletions(next)) {
+                    logger.info("Clientes were deleted for tenantId: {}, reloading its snapshot", tenantId);
+                    next = load(tenant);
+                } else {
+                    next = next.deletesChecked(now);
+                }
+            }
+        }
+
+        snapshots.put(tenantId, next);
+        registerGauges(tenantId);
+    }
+
+    /**
+     * Whether a reloaded tenants.yml entry still describes the snapshot being served.
+     *
+     * Every reload creates new {@link TenantConfig} instances, so the entry is compared by
+     * the settings a snapshot depends on: the database it is read from and its budget.
+     */
+    private boolean isSameSnapshot(TenantSnapshot current, TenantConfig tenant) {
+        return tenant.hasSamePoolSettings(current.config())
+                && tenant.longProperty("snapshotMaxBytes", defaultMaxBytes) == current.maxBytes();
+    }
+
+    private TenantSnapshot load(TenantConfig tenant) {
+        String tenantId = tenant.tenantId();
+        long maxBytes = tenant.longProperty("snapshotMaxBytes", defaultMaxBytes);
+        long started = System.nanoTime();
+
+        ClienteSnapshot.Builder builder = ClienteSnapshot.builder(maxBytes);
+        Watermark watermark = new Watermark();
+        try {
+            clienteRepository.streamSnapshotByTenant(tenantId, visibilityLagMs, change -> {
+                Cliente cliente = change.cliente();
+                if (!builder.add(cliente.getId(), cliente.getNome(), cliente.getEmail())) {
+                    throw new OverBudgetException();
+                }
+                watermark.advance(change);
+            });
+        } catch (OverBudgetException e) {
+            logger.warn("Clientes of tenantId: {} exceed the snapshot budget of {} bytes; serving them from the database",
+                    tenantId, maxBytes);
+            return new TenantSnapshot(tenant, null, null, 0, maxBytes, Instant.now(), System.nanoTime());
+        }
+
+        ClienteSnapshot snapshot = builder.build();
+        logger.info("Loaded cliente snapshot of tenantId: {}: {} rows, {} bytes in {} ms", tenantId,
+                snapshot.size(), snapshot.estimatedBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new TenantSnapshot(tenant, snapshot, watermark.updatedAt, watermark.id, maxBytes, Instant.now(),
+                System.nanoTime());
+    }
+
+    private TenantSnapshot update(TenantSnapshot current) {
+        String tenantId = current.config().tenantId();
+        LocalDateTime sinceUpdatedAt = current.watermarkUpdatedAt();
+        long sinceId = current.watermarkId();
+
+        // Later versions of a row replace earlier ones; the tree keeps them in id order
+        TreeMap<Long, Cliente> changed = new TreeMap<>();
+        List<ClienteChange> page;
+        do {
+            page = clienteRepository.findChangesByTenant(tenantId, sinceUpdatedAt, sinceId, visibilityLagMs,
+                    refreshBatchSize);
+            for (ClienteChange change : page) {
+                changed.put(change.cliente().getId(), change.cliente());
+            }
+            if (!page.isEmpty()) {
+                ClienteChange last = page.get(page.size() - 1);
+                sinceUpdatedAt = last.updatedAt();
+                sinceId = last.cliente().getId();
+            }
+        } while (page.size() == refreshBatchSize);
+
+        if (changed.isEmpty()) {
+            return current.refreshed(current.snapshot(), sinceUpdatedAt, sinceId);
+        }
+
+        ClienteSnapshot merged = current.snapshot().merge(new ArrayList<>(changed.values()), current.maxBytes());
+        if (merged == null) {
+            logger.warn("Clientes of tenantId: {} outgrew the snapshot budget of {} bytes; serving them from the database",
+                    tenantId, current.maxBytes());
+        } else {
+            logger.debug("Merged {} changed clientes into the snapshot of tenantId: {} ({} rows, {} bytes)",
+                    changed.size(), tenantId, merged.size(), merged.estimatedBytes());
+        }
+        return current.refreshed(merged, sinceUpdatedAt, sinceId);
+    }
+
+    private boolean hasDeletions(TenantSnapshot entry) {
+        ClienteSnapshot snapshot = entry.snapshot();
+        // Rows committed late can only make the count larger, so a smaller count means deletions
+        return snapshot.size() > 0
+                && clienteRepository.countUpToIdByTenant(entry.config().tenantId(), snapshot.maxId()) < snapshot.size();
+    }
+
+    private void registerGauges(String tenantId) {
+        String tag = tenantMetrics.tenantTag(tenantId);
+        if (registeredTags.add(tag)) {
+            registerGauge("clientes.snapshot.bytes", "Memory held by cliente snapshots", tag,
+                    ClienteSnapshot::estimatedBytes);
+            registerGauge("clientes.snapshot.rows", "Clientes held by cliente snapshots", tag,
+                    ClienteSnapshot::size);
+        }
+    }
+
+    private void registerGauge(String name, String description, String tag, ToLongFunction<ClienteSnapshot> metric) {
+        Gauge.builder(name, () -> {
+                    long sum = 0;
+                    for (Map.Entry<String, TenantSnapshot> entry : snapshots.entrySet()) {
+                        ClienteSnapshot snapshot = entry.getValue().snapshot();
+                        if (snapshot != null && tag.equals(tenantMetrics.tenantTag(entry.getKey()))) {
+                            sum += metric.applyAsLong(snapshot);
+                        }
+                    }
+                    return sum;
+                })
+                .description(description)
+                .tag("tenantId", tag)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A tenant's snapshot and the position in the change feed it is current up to.
+     */
+    private record TenantSnapshot(TenantConfig config, ClienteSnapshot snapshot, LocalDateTime watermarkUpdatedAt,
+                                  long watermarkId, long maxBytes, Instant refreshedAt, long deletesCheckedAt) {
+
+        private TenantSnapshot refreshed(ClienteSnapshot next, LocalDateTime updatedAt, long id) {
+            return new TenantSnapshot(config, next, updatedAt, id, maxBytes, Instant.now(), deletesCheckedAt);
+        }
+
+        private TenantSnapshot deletesChecked(long now) {
+            return new TenantSnapshot(config, snapshot, watermarkUpdatedAt, watermarkId, maxBytes, refreshedAt, now);
+        }
+    }
+
+    /**
+     * Highest {@code (updated_at, id)} seen while loading a snapshot.
+     */
+    private static final class Watermark {
+
+        private LocalDateTime updatedAt;
+        private long id;
+
+        private void advance(ClienteChange change) {
+            long changeId = change.cliente().getId();
+            int order = updatedAt == null ? 1 : change.updatedAt().compareTo(updatedAt);
+            if (order > 0 || (order == 0 && changeId > id)) {
+                updatedAt = change.updatedAt();
+                id = changeId;
+            }
+        }
+    }
+
+    /**
+     * Aborts a load as soon as the snapshot outgrows its budget.
+     */
+    private static final class OverBudgetException extends RuntimeException {
+
+        private OverBudgetException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.diovanes.multitenant.service;
+
+import java.time.Instant;
+
+/**
+ * State and memory footprint of a tenant's cliente snapshot.
+ *
+ * @param tenantId    the tenant identifier
+ * @param state       READY, or OVER_BUDGET if the clientes do not fit the budget and reads go to the database
+ * @param rows        clientes in the snapshot
+ * @param bytes       memory held by the snapshot
+ * @param maxBytes    the tenant's memory budget, 0 for none
+ * @param refreshedAt when the snapshot was last brought up to date
+ */
+public record ClienteSnapshotStats(String tenantId, String state, int rows, long bytes, long maxBytes,
+                                   Instant refreshedAt) {
+}
@@ -0,0 +1,76 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.repository.ClienteRepository;
+import com.diovanes.multitenant.repository.DataSourceInvalidationListener;
+import com.diovanes.multitenant.repository.MultitenantDataSourceManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of each tenant's clientes table version, used to build list ETags.
+ *
+ * A version is read from the database at most once per {@code app.clientes.etag.version-ttl-ms}
+ * per tenant, however many clients poll; concurrent misses share one query. Writes made
+ * through this application drop the tenant's entry at once, other writes are noticed within
+ * the TTL.
+ */
+@Component
+public class ClienteVersionCache implements DataSourceInvalidationListener {
+
+    private final ClienteRepository clienteRepository;
+    private final Cache<String, String> versions;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param clienteRepository            the cliente repository
+     * @param multitenantDataSourceManager the manager whose invalidations drop tenant versions
+     * @param ttlMs                        how long a version is reused
+     */
+    public ClienteVersionCache(ClienteRepository clienteRepository,
+                               MultitenantDataSourceManager multitenantDataSourceManager,
+                               @Value("${app.clientes.etag.version-ttl-ms:1000}") long ttlMs) {
+        this.clienteRepository = clienteRepository;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        multitenantDataSourceManager.addInvalidationListener(this);
+    }
+
+    /**
+     * Get the version of a tenant's clientes, reading it from the database if not cached.
+     *
+     * @param tenantId the tenant identifier
+     * @return an opaque version string
+     */
+    public String get(String tenantId) {
+        return versions.get(tenantId, this::load);
+    }
+
+    /**
+     * Drop the cached version of a tenant after its clientes were changed.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void invalidateTenant(String tenantId) {
+        versions.invalidate(tenantId);
+    }
+
+    @Override
+    public void onDataSourceInvalidated(String tenantId) {
+        invalidateTenant(tenantId);
+    }
+
+    @Override
+    public void onAllDataSourcesClosed() {
+        versions.invalidateAll();
+    }
+
+    private String load(String tenantId) {
+        return "v" + Long.toHexString(clienteRepository.findTableVersionByTenant(tenantId));
+    }
+}
@@ -0,0 +1,130 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.repository.RequestDeadline;
+import com.diovanes.multitenant.repository.RequestDeadlineExceededException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time; callers arriving while a load is in flight
+ * wait for it and receive its result, or its exception, instead of starting their own.
+ *
+ * Nothing is kept once a load finishes: the next caller for the same key starts a new load.
+ *
+ * A load runs on the thread, and under the {@link RequestDeadline}, of the caller that
+ * started it. If it fails because that caller ran out of time or was interrupted, the
+ * failure is not shared: each waiter runs the load again, or joins a waiter that already
+ * has, under its own deadline.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of a call, telling whether it ran the load itself.
+     *
+     * @param value  the result
+     * @param shared true if the result came from another caller's load
+     */
+    record Result<V>(V value, boolean shared) {
+    }
+
+    /**
+     * Load a value, joining the load already in flight for the key if there is one.
+     *
+     * @param key       the key
+     * @param loader    the load to run if none is in flight
+     * @param maxWaitMs how long to wait for another caller's load
+     * @return the result
+     * @throws TimeoutException if another caller's load did not finish within {@code maxWaitMs};
+     *                          the load itself is not cancelled
+     */
+    Result<V> execute(K key, Supplier<V> loader, long maxWaitMs) throws TimeoutException {
+        long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                return new Result<>(load(key, mine, loader), false);
+            }
+            try {
+                return new Result<>(await(running, waitUntil - System.nanoTime()), true);
+            } catch (AbandonedLoadException e) {
+                // The load failed for the caller that ran it, not for this one: run it again
+            }
+        }
+    }
+
+    /**
+     * Number of loads currently in flight.
+     *
+     * @return the number of keys being loaded
+     */
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private V load(K key, CompletableFuture<V> mine, Supplier<V> loader) {
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            // Unregister first, so waiters that retry start a new load instead of finding this one
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(isCallerFailure(e) ? new AbandonedLoadException(e) : e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(value);
+        return value;
+    }
+
+    /**
+     * Whether a load failed because of the caller running it rather than the data it reads:
+     * the caller's deadline passed or its thread was interrupted.
+     */
+    private static boolean isCallerFailure(Throwable e) {
+        RequestDeadline deadline = RequestDeadline.current();
+        return e instanceof RequestDeadlineExceededException
+                || Thread.currentThread().isInterrupted()
+                || (deadline != null && deadline.isExpired());
+    }
+
+    private static <V> V await(CompletableFuture<V> running, long maxWaitNanos) throws TimeoutException {
+        try {
+            return running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Every waiter sees the exception the loader threw
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+
+    /**
+     * Completes a shared load that failed only for the caller that ran it.
+     */
+    private static final class AbandonedLoadException extends RuntimeException {
+
+        private AbandonedLoadException(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
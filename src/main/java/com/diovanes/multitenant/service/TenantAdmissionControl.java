@@ -0,0 +1,277 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.ConnectionAcquireListener;
+import com.diovanes.multitenant.repository.TenantMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant admission control at the edge of the API: a request rate limit (token bucket)
+ * and a limit on concurrent requests, checked before any service or database work.
+ *
+ * Limits come from optional tenants.yml keys next to {@code poolSize}:
+ * <ul>
+ *   <li>{@code rateLimit}: sustained requests per second ({@code app.admission.default-rate-limit})</li>
+ *   <li>{@code rateBurst}: requests allowed at once after an idle period (defaults to {@code rateLimit})</li>
+ *   <li>{@code maxConcurrentRequests}: requests in progress at once
+ *       ({@code app.admission.default-max-concurrent-requests})</li>
+ * </ul>
+ * A limit of 0 means unlimited. Reloaded settings apply from the tenant's next request.
+ *
+ * With {@code app.admission.adaptive.enabled}, the concurrency limit of each tenant moves
+ * between {@code app.admission.adaptive.min-concurrent-requests} and its configured maximum,
+ * AIMD-style, from the time its requests wait for pool connections: a wait above
+ * {@code app.admission.adaptive.target-wait-ms}, or a failed acquisition, cuts the limit by a
+ * quarter (at most once per {@code app.admission.adaptive.decrease-interval-ms}); each run of
+ * fast acquisitions as long as the limit raises it by one. Overload is then refused here with
+ * 429 instead of queuing for the pool.
+ *
+ * Requests for tenants not declared in tenants.yml are not limited here; they are rejected
+ * further down.
+ */
+@Component
+public class TenantAdmissionControl implements ConnectionAcquireListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantAdmissionControl.class);
+
+    private static final double DECREASE_FACTOR = 0.75;
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long defaultRateLimit;
+    private final long defaultMaxConcurrentRequests;
+    private final long targetWaitNanos;
+    private final int minConcurrentRequests;
+    private final long decreaseIntervalNanos;
+
+    private final Map<String, TenantAdmission> admissions = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry         the declared tenants, for their limits
+     * @param tenantMetrics                the per-tenant metrics, for tags and pool wait times
+     * @param meterRegistry                the meter registry
+     * @param enabled                      whether requests are limited
+     * @param defaultRateLimit             requests per second for tenants without {@code rateLimit}
+     * @param defaultMaxConcurrentRequests concurrent requests for tenants without {@code maxConcurrentRequests}
+     * @param adaptive                     whether concurrency limits follow pool wait times
+     * @param targetWaitMs                 pool wait above which the concurrency limit is cut
+     * @param minConcurrentRequests        floor of an adaptive concurrency limit
+     * @param decreaseIntervalMs           minimum time between two cuts of a tenant's limit
+     */
+    public TenantAdmissionControl(TenantConfigRegistry tenantConfigRegistry,
+                                  TenantMetrics tenantMetrics,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.admission.enabled:true}") boolean enabled,
+                                  @Value("${app.admission.default-rate-limit:0}") long defaultRateLimit,
+                                  @Value("${app.admission.default-max-concurrent-requests:0}") long defaultMaxConcurrentRequests,
+                                  @Value("${app.admission.adaptive.enabled:false}") boolean adaptive,
+                                  @Value("${app.admission.adaptive.target-wait-ms:50}") long targetWaitMs,
+                                  @Value("${app.admission.adaptive.min-concurrent-requests:1}") int minConcurrentRequests,
+                                  @Value("${app.admission.adaptive.decrease-interval-ms:1000}") long decreaseIntervalMs) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultRateLimit = defaultRateLimit;
+        this.defaultMaxConcurrentRequests = defaultMaxConcurrentRequests;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMs);
+        this.minConcurrentRequests = Math.max(1, minConcurrentRequests);
+        this.decreaseIntervalNanos = TimeUnit.MILLISECONDS.toNanos(decreaseIntervalMs);
+
+        if (enabled && adaptive) {
+            tenantMetrics.addAcquireListener(this);
+        }
+    }
+
+    /**
+     * Admit a request for a tenant, or refuse it.
+     *
+     * Every admitted request must be followed by one {@link #release(String)}.
+     *
+     * @param tenantId the tenant identifier
+     * @throws TenantThrottledException if the tenant is over its rate or concurrency limit
+     */
+    public void admit(String tenantId) {
+        if (!enabled) {
+            return;
+        }
+
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        if (tenant == null) {
+            admissions.remove(tenantId);
+            return;
+        }
+
+        TenantAdmission admission = admissions.computeIfAbsent(tenantId, key -> new TenantAdmission());
+        String rejection = admission.tryAdmit(tenant, System.nanoTime());
+        if (rejection != null) {
+            rejectionCounter(tenantId, rejection).increment();
+            long retryAfterSeconds = admission.retryAfterSeconds(rejection, System.nanoTime());
+            logger.debug("Request for tenantId: {} refused ({}), retry after {}s", tenantId, rejection, retryAfterSeconds);
+            throw new TenantThrottledException(tenantId, retryAfterSeconds, TenantAdmission.RATE.equals(rejection)
+                    ? "Request rate limit exceeded for tenant: " + tenantId
+                    : "Too many concurrent requests for tenant: " + tenantId);
+        }
+    }
+
+    /**
+     * End a request admitted with {@link #admit(String)}.
+     *
+     * @param tenantId the tenant identifier
+     */
+    public void release(String tenantId) {
+        TenantAdmission admission = admissions.get(tenantId);
+        if (admission != null) {
+            admission.release();
+        }
+    }
+
+    @Override
+    public void onConnectionAcquired(String tenantId, long waitNanos, boolean success) {
+        TenantAdmission admission = admissions.get(tenantId);
+        if (admission == null) {
+            return;
+        }
+
+        int limit = admission.adapt(waitNanos <= targetWaitNanos && success, System.nanoTime());
+        if (limit > 0) {
+            logger.debug("Concurrency limit of tenantId: {} is now {}", tenantId, limit);
+        }
+    }
+
+    private Counter rejectionCounter(String tenantId, String reason) {
+        String tag = tenantMetrics.tenantTag(tenantId);
+        return rejections.computeIfAbsent(tag + '|' + reason, key -> Counter.builder("tenant.admission.rejected")
+                .description("Requests refused with 429 at admission")
+                .tag("tenantId", tag)
+                .tag("reason", reason)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Token bucket and concurrency counter of one tenant.
+     */
+    private final class TenantAdmission {
+
+        private static final String RATE = "rate";
+        private static final String CONCURRENT = "concurrent";
+
+        private TenantConfig config;
+
+        private double tokensPerNano;
+        private double burst;
+        private double tokens;
+        private long refilledAt;
+
+        private int maxConcurrent;
+        private int limit;
+        private int inFlight;
+        private int fastAcquisitions;
+        private long decreasedAt = System.nanoTime() - decreaseIntervalNanos;
+
+        private synchronized String tryAdmit(TenantConfig tenant, long now) {
+            if (tenant != config) {
+                configure(tenant, now);
+            }
+            if (maxConcurrent > 0 && inFlight >= limit) {
+                return CONCURRENT;
+            }
+            if (burst > 0) {
+                refill(now);
+                if (tokens < 1) {
+                    return RATE;
+                }
+                tokens -= 1;
+            }
+            inFlight++;
+            return null;
+        }
+
+        private synchronized void release() {
+            if (inFlight > 0) {
+                inFlight--;
+            }
+        }
+
+        private synchronized long retryAfterSeconds(String rejection, long now) {
+            if (RATE.equals(rejection) && tokensPerNano > 0) {
+                refill(now);
+                return (long) Math.ceil((1 - tokens) / tokensPerNano / 1e9);
+            }
+            return 1;
+        }
+
+        /**
+         * Apply one pool acquisition to the adaptive limit.
+         *
+         * @return the new limit if it changed, otherwise 0
+         */
+        private synchronized int adapt(boolean fast, long now) {
+            if (maxConcurrent <= 0) {
+                return 0;
+            }
+            if (!fast) {
+                fastAcquisitions = 0;
+                if (now - decreasedAt < decreaseIntervalNanos) {
+                    return 0;
+                }
+                decreasedAt = now;
+                int decreased = Math.max(Math.min(minConcurrentRequests, maxConcurrent), (int) (limit * DECREASE_FACTOR));
+                if (decreased == limit) {
+                    return 0;
+                }
+                limit = decreased;
+                return limit;
+            }
+            if (limit < maxConcurrent && ++fastAcquisitions >= limit) {
+                fastAcquisitions = 0;
+                limit++;
+                return limit;
+            }
+            return 0;
+        }
+
+        private void configure(TenantConfig tenant, long now) {
+            boolean first = config == null;
+            config = tenant;
+
+            long rateLimit = tenant.longProperty("rateLimit", defaultRateLimit);
+            tokensPerNano = rateLimit / 1e9;
+            burst = rateLimit > 0 ? tenant.longProperty("rateBurst", rateLimit) : 0;
+            if (first) {
+                tokens = burst;
+                refilledAt = now;
+            } else {
+                refill(now);
+            }
+
+            // A reload restarts the adaptive limit from the configured maximum
+            maxConcurrent = (int) tenant.longProperty("maxConcurrentRequests", defaultMaxConcurrentRequests);
+            limit = maxConcurrent;
+            fastAcquisitions = 0;
+
+            logger.debug("Admission limits of tenantId: {}: {} requests/s (burst {}), {} concurrent requests",
+                    tenant.tenantId(), rateLimit, (long) burst, maxConcurrent);
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
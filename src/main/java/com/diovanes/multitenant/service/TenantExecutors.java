@@ -0,0 +1,225 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.RequestDeadline;
+import com.diovanes.multitenant.repository.TenantMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executors, one per tenant, that run request work off the servlet threads under
+ * an end-to-end deadline.
+ *
+ * Each tenant gets {@code asyncThreads} threads (tenants.yml, default
+ * {@code app.async.default-threads}) and a queue of {@code app.async.queue-capacity} tasks;
+ * work submitted to a full queue is refused with {@link TenantThrottledException}. A slow
+ * tenant therefore only ties up its own threads.
+ *
+ * A request's deadline is the smaller of the time the client asks for and the tenant's
+ * {@code requestTimeoutMs} (default {@code app.async.default-request-timeout-ms}). It is
+ * installed as the {@link RequestDeadline} of the worker thread, which bounds the waits for a
+ * connection and the JDBC query timeout. When the deadline passes, the caller's future fails
+ * with {@link com.diovanes.multitenant.repository.RequestDeadlineExceededException} at once:
+ * work still queued is dropped without running, and running work is interrupted, so nothing
+ * is finished for a caller that has given up.
+ */
+@Component
+public class TenantExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantExecutors.class);
+
+    private static final String UNDECLARED = "";
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final TenantMetrics tenantMetrics;
+    private final MeterRegistry meterRegistry;
+    private final int defaultThreads;
+    private final int queueCapacity;
+    private final long defaultRequestTimeoutMs;
+
+    private final Map<String, TenantExecutor> executors = new ConcurrentHashMap<>();
+    private final Map<String, Counter> expirations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tenant-request-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry    the declared tenants, for their thread counts and timeouts
+     * @param tenantMetrics           the per-tenant metrics, for tags
+     * @param meterRegistry           the meter registry
+     * @param defaultThreads          threads per tenant without {@code asyncThreads}
+     * @param queueCapacity           tasks a tenant may have waiting for a thread
+     * @param defaultRequestTimeoutMs deadline of a request for tenants without {@code requestTimeoutMs}
+     */
+    public TenantExecutors(TenantConfigRegistry tenantConfigRegistry,
+                           TenantMetrics tenantMetrics,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.async.default-threads:8}") int defaultThreads,
+                           @Value("${app.async.queue-capacity:100}") int queueCapacity,
+                           @Value("${app.async.default-request-timeout-ms:10000}") long defaultRequestTimeoutMs) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.tenantMetrics = tenantMetrics;
+        this.meterRegistry = meterRegistry;
+        this.defaultThreads = Math.max(1, defaultThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.defaultRequestTimeoutMs = defaultRequestTimeoutMs;
+    }
+
+    /**
+     * Start the deadline of a request for a tenant.
+     *
+     * @param tenantId           the tenant identifier
+     * @param requestedTimeoutMs time the client asked for, or null to use the tenant's timeout
+     * @return the deadline, starting now
+     */
+    public RequestDeadline deadlineFor(String tenantId, Long requestedTimeoutMs) {
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        long timeoutMs = tenant != null
+                ? tenant.longProperty("requestTimeoutMs", defaultRequestTimeoutMs)
+                : defaultRequestTimeoutMs;
+        if (requestedTimeoutMs != null && requestedTimeoutMs > 0) {
+            // Clients may ask for less time than the tenant allows, never more
+            timeoutMs = Math.min(timeoutMs, requestedTimeoutMs);
+        }
+        return RequestDeadline.after(tenantId, timeoutMs);
+    }
+
+    /**
+     * Run work on the tenant's executor under a deadline.
+     *
+     * @param tenantId the tenant identifier
+     * @param deadline the deadline of the request
+     * @param work     the work, run with the deadline installed on its thread
+     * @param <T>      the result type
+     * @return a future completed with the result, the work's exception,
+     *         {@link com.diovanes.multitenant.repository.RequestDeadlineExceededException} once the
+     *         deadline passes, or {@link TenantThrottledException} if the tenant's queue is full
+     */
+    public <T> CompletableFuture<T> submit(String tenantId, RequestDeadline deadline, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (deadline.isExpired()) {
+            result.completeExceptionally(deadline.exceeded(null));
+            return result;
+        }
+
+        Future<?> task;
+        try {
+            task = executorFor(tenantId).submit(() -> {
+                if (result.isDone()) {
+                    // Expired while queued
+                    return;
+                }
+                try {
+                    result.complete(deadline.call(work));
+                } catch (Throwable e) {
+                    // The executor would swallow it, leaving the caller waiting for the deadline
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new TenantThrottledException(tenantId, 1,
+                    "Too many requests queued for tenant: " + tenantId));
+            return result;
+        }
+
+        ScheduledFuture<?> timer = deadlines.schedule(() -> {
+            if (result.completeExceptionally(deadline.exceeded(null))) {
+                logger.warn("Request for tenantId: {} exceeded its deadline of {} ms, cancelling it",
+                        tenantId, deadline.timeoutMs());
+                expirationCounter(tenantId).increment();
+                task.cancel(true);
+            }
+        }, deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, error) -> timer.cancel(false));
+        return result;
+    }
+
+    /**
+     * Stop the tenant threads and the deadline timer.
+     */
+    @PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+        executors.values().forEach(executor -> executor.executor().shutdownNow());
+    }
+
+    private ThreadPoolExecutor executorFor(String tenantId) {
+        TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+        // Undeclared tenants share one executor; their requests fail fast further down
+        String key = tenant == null ? UNDECLARED : tenantId;
+        int threads = tenant == null ? defaultThreads
+                : (int) Math.max(1L, tenant.longProperty("asyncThreads", defaultThreads));
+
+        TenantExecutor current = executors.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return new TenantExecutor(tenant, newExecutor(k, threads));
+            }
+            if (existing.config() != tenant) {
+                // Reloaded settings: resize in place, keeping queued work
+                resize(existing.executor(), threads);
+                return new TenantExecutor(tenant, existing.executor());
+            }
+            return existing;
+        });
+        return current.executor();
+    }
+
+    private ThreadPoolExecutor newExecutor(String key, int threads) {
+        String name = "tenant-async-" + (key.isEmpty() ? "undeclared" : key) + "-";
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Idle tenants give their threads back
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static void resize(ThreadPoolExecutor executor, int threads) {
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    private Counter expirationCounter(String tenantId) {
+        String tag = tenantMetrics.tenantTag(tenantId);
+        return expirations.computeIfAbsent(tag, key -> Counter.builder("tenant.requests.deadline.exceeded")
+                .description("Requests abandoned because their deadline passed")
+                .tag("tenantId", tag)
+                .register(meterRegistry));
+    }
+
+    private record TenantExecutor(TenantConfig config, ThreadPoolExecutor executor) {
+    }
+}
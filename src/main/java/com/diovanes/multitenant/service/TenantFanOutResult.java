@@ -0,0 +1,47 @@
+package com.diovanes.multitenant.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a fan-out query for one tenant.
+ *
+ * @param tenantId     the tenant identifier
+ * @param status       how the tenant's query ended
+ * @param value        the query result, only when {@code status} is {@link Status#OK}
+ * @param error        what went wrong, only when {@code status} is not {@link Status#OK}
+ * @param elapsedNanos time from the start of the fan-out to this outcome
+ * @param <T>          the query result type
+ */
+public record TenantFanOutResult<T>(String tenantId, Status status, T value, String error, long elapsedNanos) {
+
+    /**
+     * How a tenant's query ended.
+     */
+    public enum Status {
+        /** The query returned a result. */
+        OK,
+        /** The query failed, or the tenant is not declared. */
+        ERROR,
+        /** The tenant's database is known to be unavailable. */
+        UNAVAILABLE,
+        /** No result within the per-tenant timeout. */
+        TIMEOUT
+    }
+
+    static <T> TenantFanOutResult<T> ok(String tenantId, T value, long elapsedNanos) {
+        return new TenantFanOutResult<>(tenantId, Status.OK, value, null, elapsedNanos);
+    }
+
+    static <T> TenantFanOutResult<T> failed(String tenantId, Status status, String error, long elapsedNanos) {
+        return new TenantFanOutResult<>(tenantId, status, null, error, elapsedNanos);
+    }
+
+    /**
+     * Elapsed time in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
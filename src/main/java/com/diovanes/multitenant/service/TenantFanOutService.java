@@ -0,0 +1,199 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.RequestDeadline;
+import com.diovanes.multitenant.repository.RequestDeadlineExceededException;
+import com.diovanes.multitenant.repository.TenantUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the same query against many tenants in parallel.
+ *
+ * Each database host ({@code host} and {@code port} in tenants.yml) gets its own small
+ * pool of {@code app.fanout.max-concurrent-per-host} threads, so a fan-out never puts more
+ * than that many queries at once on one server, and a slow server does not hold back
+ * tenants on the others. Results are handed to the caller, on the caller's thread, in the
+ * order tenants complete; the wall time is close to the slowest tenant rather than the sum.
+ *
+ * A tenant with no result within {@code app.fanout.tenant-timeout-ms} of the start of the
+ * fan-out is reported as {@link TenantFanOutResult.Status#TIMEOUT}; if its query has not
+ * started yet it never will, and if it is running, its thread is interrupted and its
+ * result is discarded. Each query runs under a {@link RequestDeadline} ending at that same
+ * point, which bounds its wait for a connection and its JDBC query timeout, so a hung
+ * tenant gives its host thread and pool connection back by then. A failing tenant is
+ * reported as such and does not affect the others.
+ */
+@Service
+public class TenantFanOutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantFanOutService.class);
+
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final int maxConcurrentPerHost;
+    private final long tenantTimeoutNanos;
+
+    private final Map<String, ExecutorService> hostExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantConfigRegistry the declared tenants, for their hosts
+     * @param maxConcurrentPerHost queries run at once against one database host
+     * @param tenantTimeoutMs      time a tenant has to return its result, from the start of the fan-out
+     */
+    public TenantFanOutService(TenantConfigRegistry tenantConfigRegistry,
+                               @Value("${app.fanout.max-concurrent-per-host:4}") int maxConcurrentPerHost,
+                               @Value("${app.fanout.tenant-timeout-ms:10000}") long tenantTimeoutMs) {
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+        this.tenantTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(tenantTimeoutMs);
+    }
+
+    /**
+     * Run a query against several tenants and report each outcome as it arrives.
+     *
+     * Exactly one result is reported per distinct tenant. Tenants not declared in
+     * tenants.yml are reported as {@link TenantFanOutResult.Status#ERROR} without a query.
+     * If {@code onResult} throws, the remaining queries are abandoned and the exception
+     * is rethrown.
+     *
+     * @param tenantIds the tenants to query, or null or empty for every declared tenant
+     * @param query     the query to run for one tenant; called on a fan-out thread
+     * @param onResult  callback invoked once per tenant, on the calling thread
+     * @param <T>       the query result type
+     * @return the totals of the fan-out
+     */
+    public <T> TenantFanOutSummary fanOut(Collection<String> tenantIds,
+                                          Function<String, T> query,
+                                          Consumer<TenantFanOutResult<T>> onResult) {
+        long started = System.nanoTime();
+        Set<String> targets = new LinkedHashSet<>(tenantIds == null || tenantIds.isEmpty()
+                ? tenantConfigRegistry.tenantIds()
+                : tenantIds);
+        logger.info("Service: Fanning out a query to {} tenant(s)", targets.size());
+
+        BlockingQueue<TenantFanOutResult<T>> completed = new LinkedBlockingQueue<>();
+        Map<String, Future<?>> pending = new LinkedHashMap<>();
+        for (String tenantId : targets) {
+            TenantConfig tenant = tenantConfigRegistry.get(tenantId);
+            if (tenant == null) {
+                completed.add(TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.ERROR,
+                        "Invalid tenantId: " + tenantId, System.nanoTime() - started));
+                continue;
+            }
+            pending.put(tenantId, executorFor(tenant).submit(() -> completed.add(run(tenantId, query, started))));
+        }
+
+        int succeeded = 0;
+        int failed = 0;
+        int timedOut = 0;
+        try {
+            long deadline = started + tenantTimeoutNanos;
+            boolean expired = false;
+            for (int reported = 0; reported < targets.size(); reported++) {
+                TenantFanOutResult<T> result = null;
+                if (!expired) {
+                    try {
+                        result = completed.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    expired = result == null;
+                }
+                if (expired) {
+                    // Out of time: every tenant still pending times out, and late results are ignored
+                    String tenantId = pending.keySet().iterator().next();
+                    pending.remove(tenantId).cancel(true);
+                    result = TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.TIMEOUT,
+                            "No result within " + TimeUnit.NANOSECONDS.toMillis(tenantTimeoutNanos) + " ms",
+                            System.nanoTime() - started);
+                } else {
+                    pending.remove(result.tenantId());
+                }
+
+                switch (result.status()) {
+                    case OK -> succeeded++;
+                    case TIMEOUT -> timedOut++;
+                    default -> failed++;
+                }
+                onResult.accept(result);
+            }
+        } finally {
+            pending.values().forEach(future -> future.cancel(true));
+        }
+
+        TenantFanOutSummary summary = new TenantFanOutSummary(targets.size(), succeeded, failed, timedOut,
+                System.nanoTime() - started);
+        logger.info("Service: Fan-out to {} tenant(s) done in {} ms ({} ok, {} failed, {} timed out)",
+                summary.tenants(), summary.elapsedMillis(), succeeded, failed, timedOut);
+        return summary;
+    }
+
+    /**
+     * Stop the fan-out threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hostExecutors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private <T> TenantFanOutResult<T> run(String tenantId, Function<String, T> query, long started) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(started + tenantTimeoutNanos - System.nanoTime());
+        if (remainingMs <= 0) {
+            return TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.TIMEOUT,
+                    "No result within " + TimeUnit.NANOSECONDS.toMillis(tenantTimeoutNanos) + " ms",
+                    System.nanoTime() - started);
+        }
+        try {
+            T value = RequestDeadline.after(tenantId, remainingMs).call(() -> query.apply(tenantId));
+            return TenantFanOutResult.ok(tenantId, value, System.nanoTime() - started);
+        } catch (RequestDeadlineExceededException e) {
+            return TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.TIMEOUT, e.getMessage(),
+                    System.nanoTime() - started);
+        } catch (TenantUnavailableException e) {
+            return TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.UNAVAILABLE, e.getMessage(),
+                    System.nanoTime() - started);
+        } catch (RuntimeException e) {
+            logger.warn("Fan-out query failed for tenantId: {} - {}", tenantId, e.getMessage());
+            return TenantFanOutResult.failed(tenantId, TenantFanOutResult.Status.ERROR, e.getMessage(),
+                    System.nanoTime() - started);
+        }
+    }
+
+    private ExecutorService executorFor(TenantConfig tenant) {
+        String host = tenant.host() + ":" + tenant.port();
+        return hostExecutors.computeIfAbsent(host, key -> {
+            AtomicInteger threads = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentPerHost, maxConcurrentPerHost,
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "tenant-fanout-" + key + "-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // Hosts only hold threads while a fan-out is running against them
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        });
+    }
+}
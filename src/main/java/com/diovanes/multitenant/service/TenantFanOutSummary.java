@@ -0,0 +1,24 @@
+package com.diovanes.multitenant.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals of a fan-out query across tenants.
+ *
+ * @param tenants      tenants queried, including undeclared ones
+ * @param succeeded    tenants that returned a result
+ * @param failed       tenants that failed or were unavailable
+ * @param timedOut     tenants with no result within the timeout
+ * @param elapsedNanos wall time of the whole fan-out
+ */
+public record TenantFanOutSummary(int tenants, int succeeded, int failed, int timedOut, long elapsedNanos) {
+
+    /**
+     * Elapsed time in milliseconds.
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+}
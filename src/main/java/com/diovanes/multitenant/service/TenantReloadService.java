@@ -0,0 +1,165 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.DataSourceManagerConfig;
+import com.diovanes.multitenant.config.TenantConfigChanges;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.config.TenantsLocation;
+import com.diovanes.multitenant.repository.MultitenantDataSourceManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class for reloading tenants.yml without a restart.
+ *
+ * A reload parses the file again, compares it with the running configuration and applies
+ * only the difference: added tenants get pools from a new library generation, changed
+ * tenants are swapped to it while their old pools drain, removed tenants are drained and
+ * closed, and unchanged tenants keep their warm pools. A file that fails to parse, or to
+ * build a library generation, leaves the running configuration untouched.
+ *
+ * Reloads are triggered through the admin endpoint or, with {@code app.tenants.watch.enabled}
+ * and a file system {@code app.tenants.location}, by polling the file for changes.
+ */
+@Service
+public class TenantReloadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantReloadService.class);
+
+    private final TenantsLocation tenantsLocation;
+    private final TenantConfigRegistry tenantConfigRegistry;
+    private final MultitenantDataSourceManager multitenantDataSourceManager;
+    private final boolean watchEnabled;
+    private final long watchIntervalMs;
+
+    private ScheduledExecutorService watcher;
+    private FileTime lastModified;
+    private long lastSize = -1;
+
+    /**
+     * Constructor with dependencies injection.
+     *
+     * @param tenantsLocation              where tenants.yml is read from
+     * @param tenantConfigRegistry         the running tenant configuration
+     * @param multitenantDataSourceManager the multitenant data source manager
+     * @param watchEnabled                 whether tenants.yml is polled for changes
+     * @param watchIntervalMs              polling interval of the file
+     */
+    public TenantReloadService(TenantsLocation tenantsLocation,
+                               TenantConfigRegistry tenantConfigRegistry,
+                               MultitenantDataSourceManager multitenantDataSourceManager,
+                               @Value("${app.tenants.watch.enabled:false}") boolean watchEnabled,
+                               @Value("${app.tenants.watch.interval-ms:5000}") long watchIntervalMs) {
+        this.tenantsLocation = tenantsLocation;
+        this.tenantConfigRegistry = tenantConfigRegistry;
+        this.multitenantDataSourceManager = multitenantDataSourceManager;
+        this.watchEnabled = watchEnabled;
+        this.watchIntervalMs = watchIntervalMs;
+    }
+
+    /**
+     * Start polling tenants.yml when watching is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!watchEnabled) {
+            return;
+        }
+        if (tenantsLocation.classpath()) {
+            logger.warn("Service: app.tenants.watch.enabled requires a file system app.tenants.location; {} is not watched",
+                    tenantsLocation);
+            return;
+        }
+
+        rememberFileState();
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tenants-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfModified, watchIntervalMs, watchIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Service: Watching {} for changes every {} ms", tenantsLocation, watchIntervalMs);
+    }
+
+    /**
+     * Stop polling tenants.yml.
+     */
+    @PreDestroy
+    public void stop() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Reload tenants.yml and apply the difference to the running configuration.
+     *
+     * @return the tenants added, removed, changed and updated by the reload
+     * @throws IllegalArgumentException if the file is not a valid tenants.yml
+     * @throws Exception if the file cannot be read or the new pools cannot be prepared
+     */
+    public synchronized TenantConfigChanges reload() throws Exception {
+        logger.info("Service: Reloading tenants from {}", tenantsLocation);
+
+        TenantConfigRegistry next = TenantConfigRegistry.fromLocation(tenantsLocation);
+        TenantConfigChanges changes = tenantConfigRegistry.diff(next);
+        if (changes.isEmpty()) {
+            logger.info("Service: tenants.yml unchanged, nothing to reload");
+            return changes;
+        }
+
+        Set<String> kept = new LinkedHashSet<>(tenantConfigRegistry.tenantIds());
+        kept.removeAll(changes.changed());
+        kept.removeAll(changes.removed());
+
+        // Built before anything is swapped, so a failure leaves the running tenants untouched;
+        // also built when tenants are only removed, so the default generation stops declaring them
+        DataSourceManager nextGeneration = changes.needsNewGeneration()
+                ? DataSourceManagerConfig.newDataSourceManager(tenantsLocation)
+                : null;
+
+        multitenantDataSourceManager.applyTenantChanges(next, nextGeneration, changes, kept);
+        return changes;
+    }
+
+    private void reloadIfModified() {
+        try {
+            Path path = Path.of(tenantsLocation.path());
+            FileTime modified = Files.getLastModifiedTime(path);
+            long size = Files.size(path);
+            if (Objects.equals(modified, lastModified) && size == lastSize) {
+                return;
+            }
+            lastModified = modified;
+            lastSize = size;
+            reload();
+        } catch (Exception e) {
+            logger.error("Service: Error reloading tenants from {}; keeping the running configuration", tenantsLocation, e);
+        }
+    }
+
+    private void rememberFileState() {
+        try {
+            Path path = Path.of(tenantsLocation.path());
+            lastModified = Files.getLastModifiedTime(path);
+            lastSize = Files.size(path);
+        } catch (IOException e) {
+            logger.warn("Service: Cannot read {}: {}", tenantsLocation, e.getMessage());
+        }
+    }
+}
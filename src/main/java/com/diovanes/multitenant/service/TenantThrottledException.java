@@ -0,0 +1,44 @@
+package com.diovanes.multitenant.service;
+
+/**
+ * Thrown when a request is refused at admission because its tenant is over its
+ * configured request rate or number of concurrent requests.
+ *
+ * Carries a hint of how long callers should wait before retrying.
+ */
+public class TenantThrottledException extends RuntimeException {
+
+    private final String tenantId;
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor.
+     *
+     * @param tenantId          the tenant identifier
+     * @param retryAfterSeconds suggested delay before retrying, in seconds
+     * @param message           the detail message
+     */
+    public TenantThrottledException(String tenantId, long retryAfterSeconds, String message) {
+        super(message);
+        this.tenantId = tenantId;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Gets the tenant identifier.
+     *
+     * @return the tenantId
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Gets the suggested delay before retrying.
+     *
+     * @return the delay in seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,293 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.entity.Cliente;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repository queries that depend on PostgreSQL behaviour: the change feed, where
+ * {@code updated_at} is the writer's transaction start and rows become visible in commit
+ * order, the table version kept by a statement-level trigger, and bulk loads through COPY.
+ *
+ * Runs only when {@code TEST_POSTGRES_URL} (and optionally {@code TEST_POSTGRES_USER} and
+ * {@code TEST_POSTGRES_PASSWORD}) point at a database where the user can create schemas.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class ClienteRepositoryPostgresTest {
+
+    private static final String TENANT = "pg-clientes";
+
+    /** The version table and trigger of init-db.sql. */
+    private static final String VERSION_TRIGGER_SQL = """
+            CREATE TABLE clientes_version (
+                slot SMALLINT PRIMARY KEY,
+                changes BIGINT NOT NULL DEFAULT 0
+            );
+            INSERT INTO clientes_version (slot) SELECT generate_series(0, 15);
+
+            CREATE FUNCTION clientes_bump_version() RETURNS trigger AS $$
+            BEGIN
+                UPDATE clientes_version SET changes = changes + 1 WHERE slot = pg_backend_pid() % 16;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql;
+
+            CREATE TRIGGER trg_clientes_bump_version
+                AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON clientes
+                FOR EACH STATEMENT EXECUTE FUNCTION clientes_bump_version();
+            """;
+
+    private final String schema = "clientes_test_" + System.nanoTime();
+
+    private HikariDataSource pool;
+    private ClienteRepository clienteRepository;
+    private ClienteBulkLoader clienteBulkLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getenv("TEST_POSTGRES_URL"));
+        config.setUsername(System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"));
+        config.setPassword(System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", ""));
+        config.setMaximumPoolSize(4);
+        config.setConnectionInitSql("SET search_path TO " + schema);
+        createSchema(config);
+        pool = new HikariDataSource(config);
+
+        TenantConfigRegistry registry = new TenantConfigRegistry(Map.of(TENANT, new TenantConfig(
+                TENANT, "localhost", 5432, "postgres", "", "postgres", schema, 4, 30000, Map.of())));
+        DataSourceManager dataSourceManager = mock(DataSourceManager.class);
+        when(dataSourceManager.getDataSource(TENANT)).thenReturn(pool);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, registry, List.of(), 100);
+        SharedTenantPools sharedPools = new SharedTenantPools(registry, meterRegistry, false, 20, 2);
+        TenantPoolRouter poolRouter = new TenantPoolRouter(dataSourceManager, sharedPools, 30000);
+        MultitenantDataSourceManager multitenantDataSourceManager = new MultitenantDataSourceManager(
+                poolRouter,
+                registry,
+                new TenantHealthMonitor(registry, false, 30000, 500, 2, 5, 1),
+                new TenantCircuitBreakerRegistry(meterRegistry, tenantMetrics, false, 3, 2000, 30000),
+                new TenantConcurrencyLimiter(registry, false),
+                new GlobalConnectionBudget(registry, meterRegistry, false, 200, 1),
+                tenantMetrics,
+                sharedPools,
+                new TenantReplicaPools(registry, tenantMetrics, meterRegistry, false, 5000, 5000, 2000));
+        TenantJdbcTemplateRegistry templates = new TenantJdbcTemplateRegistry(multitenantDataSourceManager, 1);
+        clienteRepository = new ClienteRepository(templates, tenantMetrics, 500, 1000);
+        // A small buffer sends the NDJSON transcoding in several COPY chunks
+        clienteBulkLoader = new ClienteBulkLoader(templates, tenantMetrics, 64);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (pool == null) {
+            return;
+        }
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + schema + " CASCADE");
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void rowsOfALongTransactionAreDeliveredAfterItCommits() throws Exception {
+        insertCommitted("first");
+        Thread.sleep(20);
+
+        ClienteChange last;
+        try (Connection writer = pool.getConnection()) {
+            writer.setAutoCommit(false);
+            insert(writer, "slow");
+            Thread.sleep(20);
+            insertCommitted("fast");
+            Thread.sleep(20);
+
+            List<ClienteChange> beforeCommit = clienteRepository.findChangesByTenant(TENANT, null, 0, 0, 100);
+            assertThat(emails(beforeCommit)).containsExactly("first@example.com");
+            last = beforeCommit.get(beforeCommit.size() - 1);
+
+            writer.commit();
+        }
+
+        List<ClienteChange> afterCommit = clienteRepository.findChangesByTenant(
+                TENANT, last.updatedAt(), last.cliente().getId(), 0, 100);
+        assertThat(emails(afterCommit)).containsExactly("slow@example.com", "fast@example.com");
+    }
+
+    @Test
+    void tableVersionChangesWithEveryCommittedWrite() throws Exception {
+        long empty = clienteRepository.findTableVersionByTenant(TENANT);
+
+        insertCommitted("first");
+        long afterInsert = clienteRepository.findTableVersionByTenant(TENANT);
+        assertThat(afterInsert).isGreaterThan(empty);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE clientes SET nome = 'renamed' WHERE id = -1");
+            assertThat(clienteRepository.findTableVersionByTenant(TENANT)).isGreaterThan(afterInsert);
+
+            long beforeUncommitted = clienteRepository.findTableVersionByTenant(TENANT);
+            connection.setAutoCommit(false);
+            statement.executeUpdate("DELETE FROM clientes");
+            assertThat(clienteRepository.findTableVersionByTenant(TENANT)).isEqualTo(beforeUncommitted);
+            connection.commit();
+            assertThat(clienteRepository.findTableVersionByTenant(TENANT)).isGreaterThan(beforeUncommitted);
+        }
+    }
+
+    @Test
+    void prefixSearchLowercasesLikeTheIndex() throws Exception {
+        for (String name : List.of("Maria", "marcos", "Ana Maria", "Érico", "Eduardo")) {
+            insertCommitted(name);
+        }
+
+        assertThat(nomes(clienteRepository.searchByTenant(TENANT, new ClienteSearch(null, "MAR", null, null, null), 0, 10)))
+                .containsExactly("Maria", "marcos");
+        assertThat(nomes(clienteRepository.searchByTenant(TENANT, new ClienteSearch(null, "ÉR", null, null, null), 0, 10)))
+                .containsExactly("Érico");
+        assertThat(nomes(clienteRepository.searchByTenant(TENANT, new ClienteSearch(null, null, null, "ana m", null), 0, 10)))
+                .containsExactly("Ana Maria");
+    }
+
+    @Test
+    void ndjsonBulkLoadEscapesQuotesAndKeepsTheLastDuplicate() throws Exception {
+        insertCommitted("existing");
+        String ndjson = """
+                {"nome": "Ana \\"Aninha\\" Souza", "email": "ana@example.com", "idade": 30}
+                {"tags": ["a", {"b": 1}], "nome": "Bruno, \\"B\\"\\nSilva", "email": "bruno@example.com"}
+                {"nome": "Primeira", "email": "dup@example.com"}
+                {"nome": "Última", "email": "dup@example.com"}
+                {"nome": "Renomeado", "email": "existing@example.com"}
+                """;
+
+        ClienteBulkResult result = bulkLoadNdjson(ndjson);
+
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.inserted()).isEqualTo(3);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(nomesByEmail()).containsExactly(
+                entry("ana@example.com", "Ana \"Aninha\" Souza"),
+                entry("bruno@example.com", "Bruno, \"B\"\nSilva"),
+                entry("dup@example.com", "Última"),
+                entry("existing@example.com", "Renomeado"));
+    }
+
+    @Test
+    void ndjsonBulkLoadCountsOnlyRowsThatChange() throws Exception {
+        insertCommitted("same");
+
+        ClienteBulkResult result = bulkLoadNdjson("""
+                {"nome": "same", "email": "same@example.com"}
+                {"nome": "new", "email": "new@example.com"}
+                """);
+
+        assertThat(result.received()).isEqualTo(2);
+        assertThat(result.inserted()).isEqualTo(1);
+        assertThat(result.updated()).isZero();
+    }
+
+    @Test
+    void ndjsonBulkLoadRejectsAMissingFieldAndWritesNothing() throws Exception {
+        String ndjson = """
+                {"nome": "Ana", "email": "ana@example.com"}
+                {"nome": "Sem email"}
+                """;
+
+        assertThatThrownBy(() -> bulkLoadNdjson(ndjson))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("email");
+        assertThat(nomesByEmail()).isEmpty();
+    }
+
+    private ClienteBulkResult bulkLoadNdjson(String ndjson) {
+        return clienteBulkLoader.upsert(TENANT, ClienteBulkLoader.Format.NDJSON,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    private Map<String, String> nomesByEmail() throws SQLException {
+        Map<String, String> nomes = new LinkedHashMap<>();
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT email, nome FROM clientes ORDER BY email")) {
+            while (resultSet.next()) {
+                nomes.put(resultSet.getString(1), resultSet.getString(2));
+            }
+        }
+        return nomes;
+    }
+
+    private void createSchema(HikariConfig config) throws SQLException {
+        try (HikariDataSource admin = new HikariDataSource(copyWithoutInitSql(config));
+             Connection connection = admin.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("CREATE TABLE " + schema + ".clientes ("
+                    + "id BIGSERIAL PRIMARY KEY, "
+                    + "nome VARCHAR(255) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL UNIQUE, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            statement.execute("SET search_path TO " + schema);
+            statement.execute(VERSION_TRIGGER_SQL);
+        }
+    }
+
+    private static HikariConfig copyWithoutInitSql(HikariConfig config) {
+        HikariConfig copy = new HikariConfig();
+        copy.setJdbcUrl(config.getJdbcUrl());
+        copy.setUsername(config.getUsername());
+        copy.setPassword(config.getPassword());
+        copy.setMaximumPoolSize(1);
+        return copy;
+    }
+
+    private void insertCommitted(String name) throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            insert(connection, name);
+        }
+    }
+
+    private static void insert(Connection connection, String name) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO clientes (nome, email) VALUES (?, ?)")) {
+            insert.setString(1, name);
+            insert.setString(2, name + "@example.com");
+            insert.executeUpdate();
+        }
+    }
+
+    private static List<String> nomes(List<Cliente> clientes) {
+        return clientes.stream().map(Cliente::getNome).toList();
+    }
+
+    private static List<String> emails(List<ClienteChange> changes) {
+        return changes.stream().map(change -> change.cliente().getEmail()).toList();
+    }
+}
@@ -0,0 +1,266 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GlobalConnectionBudgetTest {
+
+    private static final long TIMEOUT_MS = 100;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    @AfterEach
+    void stopThreads() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    void keepsTheMinimumOfAnActiveTenant() throws Exception {
+        GlobalConnectionBudget budget = budget(4, tenant("a", 10, 1), tenant("b", 10, 2));
+
+        budget.acquire("b");
+        budget.acquire("a");
+        budget.acquire("a");
+
+        // The last free slot is b's unused minimum
+        assertThatThrownBy(() -> budget.acquire("a")).isInstanceOf(SQLTransientConnectionException.class);
+        budget.acquire("b");
+        assertThat(budget.getInUse()).isEqualTo(4);
+        assertThat(budget.getWaiting()).isZero();
+    }
+
+    @Test
+    void lendsTheMinimumOfIdleTenants() throws Exception {
+        GlobalConnectionBudget budget = budget(4, tenant("a", 10, 1), tenant("b", 10, 2));
+
+        for (int i = 0; i < 4; i++) {
+            budget.acquire("a");
+        }
+
+        assertThat(budget.getInUse()).isEqualTo(4);
+        assertThatThrownBy(() -> budget.acquire("b")).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void neverLendsBeyondTheTenantPoolSize() throws Exception {
+        GlobalConnectionBudget budget = budget(4, tenant("a", 2, 0));
+
+        budget.acquire("a");
+        budget.acquire("a");
+
+        assertThatThrownBy(() -> budget.acquire("a")).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(budget.getInUse()).isEqualTo(2);
+    }
+
+    @Test
+    void servesWaitersInProportionToTheirWeights() throws Exception {
+        GlobalConnectionBudget budget = budget(1,
+                tenant("holder", 1, 0), tenant("heavy", 10, 0, 2, 60000), tenant("light", 10, 0, 1, 60000));
+        budget.acquire("holder");
+
+        List<String> grants = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(12);
+        for (int i = 0; i < 6; i++) {
+            startWaiter(budget, "heavy", grants, done);
+            startWaiter(budget, "light", grants, done);
+        }
+        awaitWaiting(budget, 12);
+
+        budget.release("holder");
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        List<String> firstNine = grants.subList(0, 9);
+        assertThat(firstNine.stream().filter("heavy"::equals).count()).isEqualTo(6);
+        assertThat(firstNine.stream().filter("light"::equals).count()).isEqualTo(3);
+        assertThat(budget.getInUse()).isZero();
+    }
+
+    @Test
+    void timedOutWaiterGivesBackItsReserve() throws Exception {
+        GlobalConnectionBudget budget = budget(2, tenant("a", 2, 2), tenant("b", 2, 0));
+        budget.acquire("b");
+        budget.acquire("b");
+
+        // Waiting makes a active, reserving its minimum, until the wait times out
+        assertThatThrownBy(() -> budget.acquire("a")).isInstanceOf(SQLTransientConnectionException.class);
+
+        budget.release("b");
+        budget.acquire("b");
+        assertThat(budget.getInUse()).isEqualTo(2);
+        assertThat(budget.getWaiting()).isZero();
+    }
+
+    @Test
+    void interruptedWaiterGivesBackItsReserve() throws Exception {
+        GlobalConnectionBudget budget = budget(2, tenant("a", 2, 2, 1, 60000), tenant("b", 2, 0));
+        budget.acquire("b");
+        budget.acquire("b");
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread waiter = new Thread(() -> {
+            try {
+                budget.acquire("a");
+            } catch (Exception e) {
+                failures.add(e);
+            }
+        });
+        threads.add(waiter);
+        waiter.start();
+        awaitWaiting(budget, 1);
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(failures).singleElement().isInstanceOf(SQLTransientConnectionException.class);
+        budget.release("b");
+        budget.acquire("b");
+        assertThat(budget.getInUse()).isEqualTo(2);
+    }
+
+    @Test
+    void reservesTheRestOfTheMinimumWhileTheTenantHoldsSlots() throws Exception {
+        GlobalConnectionBudget budget = budget(3, tenant("a", 3, 2), tenant("b", 3, 0));
+        budget.acquire("a");
+        budget.acquire("b");
+
+        assertThatThrownBy(() -> budget.acquire("b")).isInstanceOf(SQLTransientConnectionException.class);
+
+        budget.release("a");
+        budget.acquire("b");
+        assertThat(budget.getInUse()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsIdleConnectionsOfOtherPoolsBeforeOpeningOneOverTheBudget() throws Exception {
+        GlobalConnectionBudget budget = budget(2, tenant("a", 2, 0), tenant("b", 2, 0));
+        HikariPoolMXBean lender = pool(budget, "a", 2, 2);
+        pool(budget, "b", 0, 0);
+
+        budget.acquire("b");
+
+        verify(lender).softEvictConnections();
+    }
+
+    @Test
+    void keepsIdleConnectionsWhenTheTenantCanReuseOne() throws Exception {
+        GlobalConnectionBudget budget = budget(2, tenant("a", 2, 0), tenant("b", 2, 0));
+        HikariPoolMXBean lender = pool(budget, "a", 1, 1);
+        pool(budget, "b", 1, 1);
+
+        budget.acquire("b");
+
+        verify(lender, never()).softEvictConnections();
+    }
+
+    @Test
+    void keepsIdleConnectionsWhileTheBudgetHasRoom() throws Exception {
+        GlobalConnectionBudget budget = budget(4, tenant("a", 4, 0), tenant("b", 4, 0));
+        HikariPoolMXBean lender = pool(budget, "a", 2, 2);
+        pool(budget, "b", 0, 0);
+
+        budget.acquire("b");
+
+        verify(lender, never()).softEvictConnections();
+    }
+
+    @Test
+    void removedTenantStopsReservingItsMinimumAndGivesBackItsSlots() throws Exception {
+        TenantConfigRegistry registry = registry(tenant("a", 3, 2), tenant("b", 3, 0));
+        GlobalConnectionBudget budget = new GlobalConnectionBudget(registry, new SimpleMeterRegistry(), true, 3, 0);
+        budget.acquire("a");
+        budget.acquire("b");
+        assertThatThrownBy(() -> budget.acquire("b")).isInstanceOf(SQLTransientConnectionException.class);
+
+        registry.replaceWith(registry(tenant("b", 3, 0)));
+        budget.remove("a");
+
+        budget.acquire("b");
+        budget.release("a");
+        budget.acquire("b");
+        assertThat(budget.getInUse()).isEqualTo(3);
+    }
+
+    private static GlobalConnectionBudget budget(int maxConnections, TenantConfig... tenants) {
+        return new GlobalConnectionBudget(registry(tenants), new SimpleMeterRegistry(), true, maxConnections, 0);
+    }
+
+    private static TenantConfigRegistry registry(TenantConfig... tenants) {
+        Map<String, TenantConfig> configs = new LinkedHashMap<>();
+        for (TenantConfig tenant : tenants) {
+            configs.put(tenant.tenantId(), tenant);
+        }
+        return new TenantConfigRegistry(configs);
+    }
+
+    private static TenantConfig tenant(String tenantId, int poolSize, int minConnections) {
+        return tenant(tenantId, poolSize, minConnections, 1, TIMEOUT_MS);
+    }
+
+    private static TenantConfig tenant(String tenantId, int poolSize, int minConnections, int weight,
+                                       long connectionTimeoutMs) {
+        return new TenantConfig(tenantId, "localhost", 5432, "user", "secret", tenantId, "public",
+                poolSize, connectionTimeoutMs, Map.of("minConnections", minConnections, "weight", weight));
+    }
+
+    private static HikariPoolMXBean pool(GlobalConnectionBudget budget, String tenantId, int total, int idle) {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+        when(pool.getHikariConfigMXBean()).thenReturn(mock(HikariConfigMXBean.class));
+        when(pool.getHikariPoolMXBean()).thenReturn(poolMXBean);
+        when(poolMXBean.getTotalConnections()).thenReturn(total);
+        when(poolMXBean.getIdleConnections()).thenReturn(idle);
+        when(poolMXBean.getActiveConnections()).thenReturn(total - idle);
+        budget.configurePool(tenantId, pool);
+        return poolMXBean;
+    }
+
+    private void startWaiter(GlobalConnectionBudget budget, String tenantId, List<String> grants, CountDownLatch done) {
+        Thread thread = new Thread(() -> {
+            try {
+                budget.acquire(tenantId);
+                grants.add(tenantId);
+                budget.release(tenantId);
+            } catch (Exception e) {
+                grants.add("failed:" + tenantId);
+            } finally {
+                done.countDown();
+            }
+        });
+        threads.add(thread);
+        thread.start();
+    }
+
+    private static void awaitWaiting(GlobalConnectionBudget budget, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (budget.getWaiting() < waiters) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Expected " + waiters + " waiters, got " + budget.getWaiting());
+            }
+            Thread.sleep(1);
+        }
+    }
+}
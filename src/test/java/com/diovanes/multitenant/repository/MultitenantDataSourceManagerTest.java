@@ -0,0 +1,89 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultitenantDataSourceManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TenantConfigRegistry registry = spy(new TenantConfigRegistry(Map.of("a", tenant("a"))));
+    private final TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, registry, List.of(), 100);
+    private final DataSourceManager library = mock(DataSourceManager.class);
+    private final SharedTenantPools sharedPools = new SharedTenantPools(registry, meterRegistry, false, 20, 2);
+    private final TenantPoolRouter poolRouter = new TenantPoolRouter(library, sharedPools, 30000);
+    private final MultitenantDataSourceManager manager = new MultitenantDataSourceManager(poolRouter, registry,
+            new TenantHealthMonitor(registry, false, 30000, 500, 2, 5, 1),
+            new TenantCircuitBreakerRegistry(meterRegistry, tenantMetrics, true, 1, 2000, 30000),
+            new TenantConcurrencyLimiter(registry, false),
+            new GlobalConnectionBudget(registry, meterRegistry, false, 200, 1),
+            tenantMetrics, sharedPools,
+            new TenantReplicaPools(registry, tenantMetrics, meterRegistry, false, 5000, 5000, 2000));
+
+    @AfterEach
+    void stop() {
+        poolRouter.stop();
+    }
+
+    @Test
+    void callerHoldingAReleasedPoolBorrowsFromANewOne() throws SQLException {
+        HikariDataSource releasedPool = mock(HikariDataSource.class);
+        HikariDataSource newPool = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        when(library.getDataSource("a")).thenReturn(releasedPool, newPool);
+        when(newPool.getConnection()).thenReturn(connection);
+
+        DataSource held = manager.getDataSource("a");
+        manager.hibernateIdleDataSources(0, 0);
+        verify(releasedPool).close();
+        when(releasedPool.isClosed()).thenReturn(true);
+        when(releasedPool.getConnection()).thenThrow(new SQLException("HikariDataSource has been closed."));
+
+        assertThat(held.getConnection()).isSameAs(connection);
+        // The breaker opens after a single failure, so none was counted
+        assertThatCode(() -> manager.getDataSource("a")).doesNotThrowAnyException();
+        assertThat(((TenantDataSource) manager.getDataSource("a")).getTargetDataSource()).isSameAs(newPool);
+    }
+
+    @Test
+    void addedTenantIsRoutedToTheNewGenerationBeforeItIsDeclared() throws Exception {
+        TenantConfigRegistry next = new TenantConfigRegistry(Map.of("a", tenant("a"), "b", tenant("b")));
+        DataSourceManager nextGeneration = mock(DataSourceManager.class);
+        HikariDataSource addedPool = mock(HikariDataSource.class);
+        when(nextGeneration.getDataSource("b")).thenReturn(addedPool);
+        List<HikariDataSource> routedWhenDeclared = new ArrayList<>();
+        doAnswer(invocation -> {
+            routedWhenDeclared.add(poolRouter.getDataSource("b"));
+            return invocation.callRealMethod();
+        }).when(registry).replaceWith(next);
+
+        manager.applyTenantChanges(next, nextGeneration, registry.diff(next), Set.of("a"));
+
+        assertThat(routedWhenDeclared).containsExactly(addedPool);
+        assertThat(manager.isTenantDeclared("b")).isTrue();
+    }
+
+    private static TenantConfig tenant(String tenantId) {
+        return new TenantConfig(tenantId, "localhost", 5432, "postgres", "", tenantId, "public", 10, 30000, Map.of());
+    }
+}
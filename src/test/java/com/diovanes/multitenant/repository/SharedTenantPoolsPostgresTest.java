@@ -0,0 +1,145 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Schema isolation of tenants sharing one pool: every connection handed to a tenant must
+ * point at the tenant's schema, whichever tenant used the physical connection before.
+ *
+ * The shared pool holds a single connection, so every borrow reuses the same physical
+ * connection. Runs only when {@code TEST_POSTGRES_URL} (and optionally
+ * {@code TEST_POSTGRES_USER} and {@code TEST_POSTGRES_PASSWORD}) point at a database where
+ * the user can create schemas.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class SharedTenantPoolsPostgresTest {
+
+    private final String suffix = String.valueOf(System.nanoTime());
+    private final String schemaA = "shared_a_" + suffix;
+    private final String schemaB = "shared_b_" + suffix;
+
+    private SharedTenantPools sharedPools;
+    private TenantPoolRouter poolRouter;
+    private MultitenantDataSourceManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection connection = adminConnection(); Statement statement = connection.createStatement()) {
+            for (String schema : List.of(schemaA, schemaB)) {
+                statement.execute("CREATE SCHEMA " + schema);
+                statement.execute("CREATE TABLE " + schema + ".clientes (id BIGSERIAL PRIMARY KEY, nome VARCHAR(255) NOT NULL)");
+                statement.execute("INSERT INTO " + schema + ".clientes (nome) VALUES ('" + schema + "')");
+            }
+        }
+
+        URI uri = URI.create(System.getenv("TEST_POSTGRES_URL").substring("jdbc:".length()));
+        String database = uri.getPath().substring(1);
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "");
+        TenantConfigRegistry registry = new TenantConfigRegistry(Map.of(
+                "a", new TenantConfig("a", uri.getHost(), uri.getPort(), user, password, database, schemaA, 1, 5000, Map.of()),
+                "b", new TenantConfig("b", uri.getHost(), uri.getPort(), user, password, database, schemaB, 1, 5000, Map.of()),
+                "broken", new TenantConfig("broken", uri.getHost(), uri.getPort(), user, password, database, "", 1, 5000, Map.of())));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, registry, List.of(), 100);
+        sharedPools = new SharedTenantPools(registry, meterRegistry, true, 1, 0);
+        poolRouter = new TenantPoolRouter(mock(DataSourceManager.class), sharedPools, 30000);
+        manager = new MultitenantDataSourceManager(
+                poolRouter,
+                registry,
+                new TenantHealthMonitor(registry, false, 30000, 500, 2, 5, 1),
+                new TenantCircuitBreakerRegistry(meterRegistry, tenantMetrics, false, 3, 2000, 30000),
+                new TenantConcurrencyLimiter(registry, false),
+                new GlobalConnectionBudget(registry, meterRegistry, false, 200, 1),
+                tenantMetrics,
+                sharedPools,
+                new TenantReplicaPools(registry, tenantMetrics, meterRegistry, false, 5000, 5000, 2000));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (manager == null) {
+            return;
+        }
+        manager.closeAll();
+        poolRouter.stop();
+        try (Connection connection = adminConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + schemaA + " CASCADE");
+            statement.execute("DROP SCHEMA " + schemaB + " CASCADE");
+        }
+    }
+
+    @Test
+    void tenantsSeeOnlyTheirOwnSchemaOnAReusedConnection() throws SQLException {
+        Connection physical;
+        try (Connection connection = manager.getDataSource("a").getConnection()) {
+            physical = connection.unwrap(Connection.class);
+            assertThat(nomes(connection)).containsExactly(schemaA);
+        }
+        try (Connection connection = manager.getDataSource("b").getConnection()) {
+            assertThat(connection.unwrap(Connection.class)).isSameAs(physical);
+            assertThat(nomes(connection)).containsExactly(schemaB);
+        }
+        try (Connection connection = manager.getDataSource("a").getConnection()) {
+            assertThat(connection.unwrap(Connection.class)).isSameAs(physical);
+            assertThat(nomes(connection)).containsExactly(schemaA);
+        }
+    }
+
+    @Test
+    void aFailedBindLeavesNoSchemaBehindForTheNextTenant() throws SQLException {
+        try (Connection connection = manager.getDataSource("a").getConnection()) {
+            assertThat(nomes(connection)).containsExactly(schemaA);
+        }
+
+        // An empty quoted identifier makes SET search_path fail
+        assertThatThrownBy(() -> manager.getDataSource("broken").getConnection()).isInstanceOf(SQLException.class);
+
+        try (Connection connection = manager.getDataSource("b").getConnection()) {
+            assertThat(nomes(connection)).containsExactly(schemaB);
+        }
+        assertThatThrownBy(() -> manager.getDataSource("broken").getConnection()).isInstanceOf(SQLException.class);
+        try (Connection connection = manager.getDataSource("a").getConnection()) {
+            assertThat(nomes(connection)).containsExactly(schemaA);
+        }
+    }
+
+    private static List<String> nomes(Connection connection) throws SQLException {
+        List<String> nomes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT nome FROM clientes ORDER BY id")) {
+            while (resultSet.next()) {
+                nomes.add(resultSet.getString(1));
+            }
+        }
+        return nomes;
+    }
+
+    private static Connection adminConnection() throws SQLException {
+        return DriverManager.getConnection(System.getenv("TEST_POSTGRES_URL"),
+                System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", ""));
+    }
+}
@@ -0,0 +1,51 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantCircuitBreakerRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slowCallAdmittedBeforeOpeningDoesNotCloseTheBreaker() {
+        TenantCircuitBreakerRegistry breakers = breakers(30000);
+
+        breakers.acquirePermission("a");
+        breakers.acquirePermission("a");
+        breakers.onFailure("a");
+        assertThat(breakers.getState("a")).isEqualTo(TenantCircuitBreakerRegistry.State.OPEN);
+
+        breakers.onSuccess("a", 0);
+
+        assertThat(breakers.getState("a")).isEqualTo(TenantCircuitBreakerRegistry.State.OPEN);
+        assertThatThrownBy(() -> breakers.acquirePermission("a")).isInstanceOf(TenantUnavailableException.class);
+    }
+
+    @Test
+    void halfOpenProbeClosesTheBreaker() throws InterruptedException {
+        TenantCircuitBreakerRegistry breakers = breakers(10);
+        breakers.acquirePermission("a");
+        breakers.onFailure("a");
+
+        Thread.sleep(20);
+        breakers.acquirePermission("a");
+        assertThat(breakers.getState("a")).isEqualTo(TenantCircuitBreakerRegistry.State.HALF_OPEN);
+        assertThatThrownBy(() -> breakers.acquirePermission("a")).isInstanceOf(TenantUnavailableException.class);
+
+        breakers.onSuccess("a", 0);
+        assertThat(breakers.getState("a")).isEqualTo(TenantCircuitBreakerRegistry.State.CLOSED);
+    }
+
+    private TenantCircuitBreakerRegistry breakers(long openDurationMs) {
+        TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, new TenantConfigRegistry(Map.of()), List.of(), 100);
+        return new TenantCircuitBreakerRegistry(meterRegistry, tenantMetrics, true, 1, 2000, openDurationMs);
+    }
+}
@@ -0,0 +1,73 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TenantHealthMonitorTest {
+
+    private final TenantConfigRegistry registry = new TenantConfigRegistry(Map.of("a", new TenantConfig(
+            "a", "localhost", 5432, "postgres", "", "a", "public", 10, 30000, Map.of())));
+    private final TenantHealthMonitor monitor = new TenantHealthMonitor(registry, false, 30000, 500, 2, 5, 1);
+
+    @Test
+    void doesNotProbeATenantBeforeItsPoolIsOpen() {
+        assertThat(monitor.probe("a").status()).isEqualTo(TenantStatus.UNKNOWN);
+        assertThat(monitor.isTenantValid("a")).isTrue();
+    }
+
+    @Test
+    void probesThroughTheTenantDataSourceUntilSuspended() throws SQLException {
+        DataSource dataSource = healthyDataSource();
+        monitor.resume("a", dataSource);
+
+        assertThat(monitor.probe("a").status()).isEqualTo(TenantStatus.UP);
+
+        monitor.suspend("a", dataSource);
+        assertThat(monitor.probe("a").status()).isEqualTo(TenantStatus.UP);
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void suspendingAReplacedDataSourceKeepsProbingTheCurrentOne() throws SQLException {
+        DataSource replaced = mock(DataSource.class);
+        DataSource current = healthyDataSource();
+        monitor.resume("a", replaced);
+        monitor.resume("a", current);
+
+        monitor.suspend("a", replaced);
+
+        assertThat(monitor.probe("a").status()).isEqualTo(TenantStatus.UP);
+        verifyNoInteractions(replaced);
+    }
+
+    @Test
+    void doesNotProbeUndeclaredTenants() {
+        DataSource dataSource = mock(DataSource.class);
+        monitor.resume("unknown", dataSource);
+
+        monitor.probe("unknown");
+        verifyNoInteractions(dataSource);
+    }
+
+    private static DataSource healthyDataSource() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
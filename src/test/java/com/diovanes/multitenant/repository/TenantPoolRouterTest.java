@@ -0,0 +1,51 @@
+package com.diovanes.multitenant.repository;
+
+import com.diovanes.datasource.multitenant.DataSourceManager;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantPoolRouterTest {
+
+    private final DataSourceManager first = mock(DataSourceManager.class);
+    private final TenantPoolRouter router = new TenantPoolRouter(first,
+            new SharedTenantPools(new TenantConfigRegistry(Map.of()), new SimpleMeterRegistry(), false, 20, 2), 30000);
+
+    @AfterEach
+    void stop() {
+        router.stop();
+    }
+
+    @Test
+    void removedTenantIsNotServedByTheGenerationThatDeclaredIt() throws Exception {
+        HikariDataSource keptPool = mock(HikariDataSource.class);
+        HikariDataSource removedPool = mock(HikariDataSource.class);
+        when(first.getDataSource("kept")).thenReturn(keptPool);
+        when(first.getDataSource("gone")).thenReturn(removedPool);
+        assertThat(router.getDataSource("kept")).isSameAs(keptPool);
+        assertThat(router.getDataSource("gone")).isSameAs(removedPool);
+
+        DataSourceManager second = mock(DataSourceManager.class);
+        when(second.getDataSource("gone")).thenThrow(new SQLException("Tenant not found: gone"));
+        router.swap(second, List.of("kept"), List.of(), List.of("gone"));
+
+        verify(removedPool, timeout(5000)).close();
+        assertThatThrownBy(() -> router.getDataSource("gone")).isInstanceOf(SQLException.class);
+        assertThat(router.getDataSource("kept")).isSameAs(keptPool);
+        verify(second, never()).getDataSource("kept");
+    }
+}
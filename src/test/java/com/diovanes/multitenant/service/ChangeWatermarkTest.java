@@ -0,0 +1,59 @@
+package com.diovanes.multitenant.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeWatermarkTest {
+
+    @Test
+    void roundTripsToTheMicrosecond() {
+        ChangeWatermark watermark = new ChangeWatermark(LocalDateTime.of(2024, 3, 9, 14, 30, 5, 123_456_000), 42);
+
+        assertThat(ChangeWatermark.decode(watermark.encode())).isEqualTo(watermark);
+    }
+
+    @Test
+    void roundTripsTimestampsBeforeTheEpoch() {
+        ChangeWatermark watermark = new ChangeWatermark(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 7);
+
+        assertThat(ChangeWatermark.decode(watermark.encode())).isEqualTo(watermark);
+    }
+
+    @Test
+    void dropsPrecisionBeyondTheMicrosecond() {
+        ChangeWatermark watermark = new ChangeWatermark(LocalDateTime.of(2024, 3, 9, 14, 30, 5, 123_456_789), 42);
+
+        assertThat(ChangeWatermark.decode(watermark.encode()).updatedAt())
+                .isEqualTo(LocalDateTime.of(2024, 3, 9, 14, 30, 5, 123_456_000));
+    }
+
+    @Test
+    void encodesAsAnUrlSafeTokenWithoutPadding() {
+        String token = new ChangeWatermark(LocalDateTime.of(2024, 3, 9, 14, 30, 5, 123_456_000), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a token", "", "MTIz", "YWJjOjE", "MTIzOmFiYw"})
+    void rejectsMalformedTokens(String token) {
+        assertThatThrownBy(() -> ChangeWatermark.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid since token");
+    }
+
+    @Test
+    void rejectsTokensOfAnotherShape() {
+        String token = Base64.getUrlEncoder().encodeToString("1:2:3".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> ChangeWatermark.decode(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.ClienteCacheProperties;
+import com.diovanes.multitenant.entity.Cliente;
+import com.diovanes.multitenant.repository.MultitenantDataSourceManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ClienteCacheTest {
+
+    private final ClienteCache cache = new ClienteCache(enabled(), mock(MultitenantDataSourceManager.class));
+    private final List<List<Long>> loads = new ArrayList<>();
+
+    @Test
+    void loadsOnlyTheIdsNotCachedAndRemembersMisses() {
+        Map<Long, ClienteCache.CachedCliente> first = cache.getAll("a", List.of(1L, 2L), this::findFirst);
+        Map<Long, ClienteCache.CachedCliente> second = cache.getAll("a", List.of(1L, 2L, 3L), this::findFirst);
+
+        assertThat(first.get(1L).cliente().getNome()).isEqualTo("Ana");
+        assertThat(first.get(2L).isFound()).isFalse();
+        assertThat(second).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(loads).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void resultsLoadedAcrossAnInvalidationAreNotCached() {
+        cache.getAll("a", List.of(1L), ids -> {
+            cache.invalidateTenant("a");
+            return findFirst(ids);
+        });
+
+        cache.getAll("a", List.of(1L), this::findFirst);
+
+        // The second lookup goes to the database again
+        assertThat(loads).containsExactly(List.of(1L), List.of(1L));
+    }
+
+    private List<Cliente> findFirst(List<Long> ids) {
+        loads.add(ids);
+        return ids.contains(1L) ? List.of(new Cliente(1L, "Ana", "ana@example.com")) : List.of();
+    }
+
+    private static ClienteCacheProperties enabled() {
+        ClienteCacheProperties properties = new ClienteCacheProperties();
+        properties.setEnabled(true);
+        return properties;
+    }
+}
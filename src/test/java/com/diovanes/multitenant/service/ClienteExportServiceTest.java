@@ -0,0 +1,76 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.ClienteExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClienteExportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final ClienteExporter clienteExporter = mock(ClienteExporter.class);
+    private ClienteExportService exportService;
+
+    @AfterEach
+    void shutdown() {
+        exportService.shutdown();
+    }
+
+    @Test
+    void cancelsTheRemainingTenantsWhenTheCallerAborts() throws Exception {
+        TenantConfigRegistry registry = new TenantConfigRegistry(Map.of("a", tenant("a"), "b", tenant("b")));
+        exportService = new ClienteExportService(mock(ClienteService.class), clienteExporter, registry,
+                directory.toString(), 2, 8192);
+
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(clienteExporter.export(eq("a"), any(), any())).thenAnswer(invocation -> {
+            slowStarted.await();
+            return 0L;
+        });
+        when(clienteExporter.export(eq("b"), any(), any())).thenAnswer(invocation -> {
+            slowStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new IllegalStateException("Interrupted while exporting", e);
+            }
+            return 0L;
+        });
+
+        assertThatThrownBy(() -> exportService.exportTenantsToDirectory(List.of("a", "b"),
+                ClienteExporter.Format.CSV, false, result -> {
+                    throw new IllegalStateException("client went away");
+                })).hasMessage("client went away");
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(directory.resolve("b.csv")).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files).noneMatch(file -> file.getFileName().toString().endsWith(".part"));
+        }
+    }
+
+    private static TenantConfig tenant(String tenantId) {
+        return new TenantConfig(tenantId, "localhost", 5432, "postgres", "", tenantId, "public",
+                10, 30000, Map.of());
+    }
+}
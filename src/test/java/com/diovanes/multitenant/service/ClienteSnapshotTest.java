@@ -0,0 +1,95 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.entity.Cliente;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ClienteSnapshotTest {
+
+    @Test
+    void mergeReplacesAndInsertsInIdOrder() {
+        ClienteSnapshot snapshot = snapshot(0, new Cliente(2L, "Ana", "ana@example.com"),
+                new Cliente(4L, "Bruno", "bruno@example.com"), new Cliente(6L, "Carla", "carla@example.com"));
+
+        ClienteSnapshot merged = snapshot.merge(List.of(
+                new Cliente(1L, "Zé", "ze@example.com"),
+                new Cliente(4L, "Bruno Costa", "bruno.costa@example.com"),
+                new Cliente(5L, "Júlia", "julia@example.com"),
+                new Cliente(9L, "Érico", "erico@example.com")), 0);
+
+        assertThat(merged.all()).extracting(Cliente::getId, Cliente::getNome, Cliente::getEmail).containsExactly(
+                tuple(1L, "Zé", "ze@example.com"),
+                tuple(2L, "Ana", "ana@example.com"),
+                tuple(4L, "Bruno Costa", "bruno.costa@example.com"),
+                tuple(5L, "Júlia", "julia@example.com"),
+                tuple(6L, "Carla", "carla@example.com"),
+                tuple(9L, "Érico", "erico@example.com"));
+        assertThat(merged.maxId()).isEqualTo(9);
+        assertThat(merged.findById(5).getNome()).isEqualTo("Júlia");
+        assertThat(merged.findById(3)).isNull();
+    }
+
+    @Test
+    void mergeLeavesTheSourceSnapshotUnchanged() {
+        ClienteSnapshot snapshot = snapshot(0, new Cliente(1L, "Ana", "ana@example.com"));
+
+        snapshot.merge(List.of(new Cliente(1L, "Outra", "outra@example.com"), new Cliente(2L, "Bia", "bia@example.com")), 0);
+
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.findById(1).getNome()).isEqualTo("Ana");
+    }
+
+    @Test
+    void mergeOfAnEmptySnapshotKeepsTheChanges() {
+        ClienteSnapshot merged = snapshot(0).merge(List.of(new Cliente(3L, "Ana", "ana@example.com")), 0);
+
+        assertThat(merged.all()).extracting(Cliente::getId).containsExactly(3L);
+    }
+
+    @Test
+    void mergeReturnsNullWhenTheResultOutgrowsTheBudget() {
+        ClienteSnapshot snapshot = snapshot(0, new Cliente(1L, "Ana", "ana@example.com"));
+        long budget = snapshot.estimatedBytes() + 8;
+
+        assertThat(snapshot.merge(List.of(new Cliente(1L, "Ana Maria", "ana@example.com")), budget)).isNotNull();
+        assertThat(snapshot.merge(List.of(new Cliente(2L, "Bia", "bia@example.com")), budget)).isNull();
+    }
+
+    @Test
+    void estimatedBytesMatchesTheBudgetCheck() {
+        ClienteSnapshot snapshot = snapshot(0, new Cliente(1L, "Ana", "ana@example.com"),
+                new Cliente(2L, "Bia", "bia@example.com"));
+
+        assertThat(snapshot(snapshot.estimatedBytes(), new Cliente(1L, "Ana", "ana@example.com"),
+                new Cliente(2L, "Bia", "bia@example.com"))).isNotNull();
+        assertThat(snapshot(snapshot.estimatedBytes() - 1, new Cliente(1L, "Ana", "ana@example.com"),
+                new Cliente(2L, "Bia", "bia@example.com"))).isNull();
+    }
+
+    @Test
+    void pagesAfterACursor() {
+        ClienteSnapshot snapshot = snapshot(0, new Cliente(2L, "Ana", "ana@example.com"),
+                new Cliente(4L, "Bia", "bia@example.com"), new Cliente(6L, "Caio", "caio@example.com"));
+
+        assertThat(snapshot.page(2, 10)).extracting(Cliente::getId).containsExactly(4L, 6L);
+        assertThat(snapshot.page(3, 1)).extracting(Cliente::getId).containsExactly(4L);
+        assertThat(snapshot.page(6, 10)).isEmpty();
+    }
+
+    /**
+     * Build a snapshot, or return null if the rows do not fit the budget.
+     */
+    private static ClienteSnapshot snapshot(long maxBytes, Cliente... clientes) {
+        ClienteSnapshot.Builder builder = ClienteSnapshot.builder(maxBytes);
+        for (Cliente cliente : clientes) {
+            if (!builder.add(cliente.getId(), cliente.getNome(), cliente.getEmail())) {
+                return null;
+            }
+        }
+        return builder.build();
+    }
+}
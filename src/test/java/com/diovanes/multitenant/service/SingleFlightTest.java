@@ -0,0 +1,158 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.repository.RequestDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final long MAX_WAIT_MS = 5000;
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void waitersShareTheLoadInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Result<String>> leader = executor.submit(() ->
+                flight.execute("k", blockingLoad(started, release, () -> "value"), MAX_WAIT_MS));
+        started.await();
+
+        Future<SingleFlight.Result<String>> follower = executor.submit(() ->
+                flight.execute("k", countingLoad(() -> "other"), MAX_WAIT_MS));
+        awaitWaiting(follower);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>("value", false));
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>("value", true));
+        assertThat(loads).hasValue(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void waitersShareAFailureOfTheDataSource() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> flight.execute("k", blockingLoad(started, release, () -> {
+            throw new IllegalStateException("database down");
+        }), MAX_WAIT_MS));
+        started.await();
+
+        Future<SingleFlight.Result<String>> follower = executor.submit(() ->
+                flight.execute("k", countingLoad(() -> "value"), MAX_WAIT_MS));
+        awaitWaiting(follower);
+        release.countDown();
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("database down");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void waitersReloadWhenTheLeaderRunsOutOfTime() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestDeadline shortDeadline = RequestDeadline.after("t", 1);
+        Future<SingleFlight.Result<String>> leader = executor.submit(() -> shortDeadline.call(() -> {
+            try {
+                return flight.execute("k", blockingLoad(started, release, () -> {
+                    throw RequestDeadline.current().exceeded(null);
+                }), MAX_WAIT_MS);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        started.await();
+
+        Future<SingleFlight.Result<String>> follower = executor.submit(() ->
+                flight.execute("k", countingLoad(() -> "fresh"), MAX_WAIT_MS));
+        awaitWaiting(follower);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage(
+                "Request deadline of 1 ms exceeded for tenant t");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>("fresh", false));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void waitersReloadWhenTheLeaderIsInterrupted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<SingleFlight.Result<String>> leader = executor.submit(() ->
+                flight.execute("k", blockingLoad(started, new CountDownLatch(1), () -> "never"), MAX_WAIT_MS));
+        started.await();
+
+        Future<SingleFlight.Result<String>> follower = executor.submit(() ->
+                flight.execute("k", countingLoad(() -> "fresh"), MAX_WAIT_MS));
+        awaitWaiting(follower);
+        leader.cancel(true);
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Result<>("fresh", false));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void waiterGivesUpAfterItsMaximumWait() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> flight.execute("k", blockingLoad(started, release, () -> "value"), MAX_WAIT_MS));
+        started.await();
+
+        try {
+            assertThatThrownBy(() -> flight.execute("k", countingLoad(() -> "other"), 50))
+                    .isInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Supplier<String> countingLoad(Supplier<String> body) {
+        return () -> {
+            loads.incrementAndGet();
+            return body.get();
+        };
+    }
+
+    private Supplier<String> blockingLoad(CountDownLatch started, CountDownLatch release, Supplier<String> body) {
+        return countingLoad(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading", e);
+            }
+            return body.get();
+        });
+    }
+
+    /**
+     * Give a follower time to join the load in flight, failing if it finished instead.
+     */
+    private static void awaitWaiting(Future<?> follower) throws InterruptedException {
+        Thread.sleep(100);
+        assertThat(follower.isDone()).isFalse();
+    }
+}
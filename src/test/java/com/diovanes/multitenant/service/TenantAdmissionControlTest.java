@@ -0,0 +1,119 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.TenantMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantAdmissionControlTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void admitsTheBurstAtOnceThenLimitsTheRate() {
+        TenantAdmissionControl admission = admission(tenant("a", Map.of("rateLimit", 10, "rateBurst", 3)));
+
+        for (int i = 0; i < 3; i++) {
+            admitAndRelease(admission, "a");
+        }
+
+        assertThatThrownBy(() -> admission.admit("a"))
+                .isInstanceOfSatisfying(TenantThrottledException.class, e -> {
+                    assertThat(e.getTenantId()).isEqualTo("a");
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(1);
+                })
+                .hasMessageContaining("rate limit");
+        assertThat(meterRegistry.get("tenant.admission.rejected").tag("reason", "rate").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refillsTokensAtTheRateUpToTheBurst() throws InterruptedException {
+        TenantAdmissionControl admission = admission(tenant("a", Map.of("rateLimit", 20, "rateBurst", 1)));
+
+        admitAndRelease(admission, "a");
+        assertThatThrownBy(() -> admission.admit("a")).isInstanceOf(TenantThrottledException.class);
+
+        // Enough time for several tokens, but the bucket holds only one
+        Thread.sleep(200);
+        admitAndRelease(admission, "a");
+        assertThatThrownBy(() -> admission.admit("a")).isInstanceOf(TenantThrottledException.class);
+    }
+
+    @Test
+    void defaultsTheBurstToTheRate() {
+        TenantAdmissionControl admission = admission(tenant("a", Map.of("rateLimit", 2)));
+
+        admitAndRelease(admission, "a");
+        admitAndRelease(admission, "a");
+        assertThatThrownBy(() -> admission.admit("a")).isInstanceOf(TenantThrottledException.class);
+    }
+
+    @Test
+    void limitsConcurrentRequests() {
+        TenantAdmissionControl admission = admission(tenant("a", Map.of("maxConcurrentRequests", 2)));
+
+        admission.admit("a");
+        admission.admit("a");
+        assertThatThrownBy(() -> admission.admit("a"))
+                .isInstanceOf(TenantThrottledException.class)
+                .hasMessageContaining("concurrent");
+
+        admission.release("a");
+        assertThatCode(() -> admission.admit("a")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void concurrencyRejectionsDoNotSpendTokens() {
+        TenantAdmissionControl admission = admission(
+                tenant("a", Map.of("rateLimit", 10, "rateBurst", 2, "maxConcurrentRequests", 1)));
+
+        admission.admit("a");
+        assertThatThrownBy(() -> admission.admit("a")).hasMessageContaining("concurrent");
+        admission.release("a");
+
+        admitAndRelease(admission, "a");
+        assertThatThrownBy(() -> admission.admit("a")).hasMessageContaining("rate limit");
+    }
+
+    @Test
+    void doesNotLimitUndeclaredTenantsOrWhenDisabled() {
+        TenantAdmissionControl admission = admission(tenant("a", Map.of("rateLimit", 1)));
+        TenantConfigRegistry registry = new TenantConfigRegistry(Map.of("a", tenant("a", Map.of("rateLimit", 1))));
+        TenantAdmissionControl disabled = new TenantAdmissionControl(registry, metrics(registry), meterRegistry,
+                false, 0, 0, false, 50, 1, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            admitAndRelease(admission, "unknown");
+            admitAndRelease(disabled, "a");
+        }
+    }
+
+    private static void admitAndRelease(TenantAdmissionControl admission, String tenantId) {
+        admission.admit(tenantId);
+        admission.release(tenantId);
+    }
+
+    private TenantAdmissionControl admission(TenantConfig tenant) {
+        TenantConfigRegistry registry = new TenantConfigRegistry(Map.of(tenant.tenantId(), tenant));
+        return new TenantAdmissionControl(registry, metrics(registry), meterRegistry,
+                true, 0, 0, false, 50, 1, 1000);
+    }
+
+    private TenantMetrics metrics(TenantConfigRegistry registry) {
+        return new TenantMetrics(meterRegistry, registry, List.of(), 100);
+    }
+
+    private static TenantConfig tenant(String tenantId, Map<String, Object> properties) {
+        return new TenantConfig(tenantId, "localhost", 5432, "postgres", "", tenantId, "public",
+                10, 30000, properties);
+    }
+}
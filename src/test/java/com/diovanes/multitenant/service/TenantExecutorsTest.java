@@ -0,0 +1,69 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.RequestDeadline;
+import com.diovanes.multitenant.repository.RequestDeadlineExceededException;
+import com.diovanes.multitenant.repository.TenantMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantExecutorsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TenantConfigRegistry registry = new TenantConfigRegistry(Map.of("a", new TenantConfig(
+            "a", "localhost", 5432, "postgres", "", "a", "public", 10, 30000, Map.of())));
+    private final TenantExecutors executors = new TenantExecutors(registry,
+            new TenantMetrics(meterRegistry, registry, List.of(), 100), meterRegistry, 2, 10, 10000);
+
+    @AfterEach
+    void shutdown() {
+        executors.shutdown();
+    }
+
+    @Test
+    void runsWorkUnderTheRequestDeadline() throws Exception {
+        RequestDeadline deadline = RequestDeadline.after("a", 5000);
+
+        CompletableFuture<RequestDeadline> result = executors.submit("a", deadline, RequestDeadline::current);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(deadline);
+    }
+
+    @Test
+    void completesTheCallerWhenTheWorkThrowsAnError() {
+        CompletableFuture<String> result = executors.submit("a", RequestDeadline.after("a", 5000), () -> {
+            throw new StackOverflowError("too deep");
+        });
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+    }
+
+    @Test
+    void failsTheCallerWhenTheDeadlinePasses() {
+        CompletableFuture<String> result = executors.submit("a", RequestDeadline.after("a", 50), () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RequestDeadlineExceededException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.diovanes.multitenant.service;
+
+import com.diovanes.multitenant.config.TenantConfig;
+import com.diovanes.multitenant.config.TenantConfigRegistry;
+import com.diovanes.multitenant.repository.RequestDeadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFanOutServiceTest {
+
+    private final TenantConfigRegistry registry = new TenantConfigRegistry(Map.of(
+            "a", tenant("a"), "b", tenant("b")));
+    private final TenantFanOutService fanOut = new TenantFanOutService(registry, 1, 200);
+
+    @AfterEach
+    void shutdown() {
+        fanOut.shutdown();
+    }
+
+    @Test
+    void runsEachQueryUnderTheFanOutDeadline() {
+        List<TenantFanOutResult<Long>> results = new ArrayList<>();
+
+        fanOut.fanOut(List.of("a"), tenantId -> RequestDeadline.current().remainingMillis(), results::add);
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.status()).isEqualTo(TenantFanOutResult.Status.OK);
+            assertThat(result.value()).isPositive().isLessThanOrEqualTo(200L);
+        });
+    }
+
+    @Test
+    void interruptsATimedOutQuerySoTheHostThreadIsFreed() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        List<TenantFanOutResult<String>> results = new ArrayList<>();
+
+        TenantFanOutSummary summary = fanOut.fanOut(List.of("a"), tenantId -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, results::add);
+
+        assertThat(summary.timedOut()).isEqualTo(1);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The single thread of the host is available again for the next fan-out
+        results.clear();
+        fanOut.fanOut(List.of("b"), tenantId -> "ok", results::add);
+        assertThat(results).extracting(TenantFanOutResult::status).containsExactly(TenantFanOutResult.Status.OK);
+    }
+
+    private static TenantConfig tenant(String tenantId) {
+        return new TenantConfig(tenantId, "localhost", 5432, "postgres", "", tenantId, "public",
+                10, 30000, Map.of());
+    }
+}